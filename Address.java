@@ -0,0 +1,155 @@
+package validator;
+
+/**
+ * An IEC 61131-3 directly represented variable address such as %IX1.3, %QW12
+ * or the partial address %M*.
+ *
+ * Instances are mutable so that one can be reused for every address of a
+ * project; parse() overwrites all the fields.
+ */
+public class Address {
+
+	public static final char NO_SIZE = 0;
+	public static final int NO_BIT = -1;
+
+	// Offsets longer than this are rejected instead of overflowing.
+	private static final int MAX_OFFSET_DIGITS = 18;
+
+	private char area;
+	private char size;
+	private long byte_offset;
+	private int bit;
+	private boolean partial;
+
+	/**
+	 * Parse the given text. Full addresses follow %[IQM][XBWDL]?offset(.bit)?,
+	 * where offset has no leading zeros and bit is 0 to 7. Partial addresses
+	 * are %[IQM]*.
+	 * 
+	 * @param text
+	 * @return true if the text is a full or a partial address.
+	 */
+	public boolean parse(CharSequence text) {
+
+		area = 0;
+		size = NO_SIZE;
+		byte_offset = 0;
+		bit = NO_BIT;
+		partial = false;
+
+		int length = text.length();
+
+		if (length < 3 || text.charAt(0) != '%') {
+
+			return false;
+
+		}
+
+		char c = text.charAt(1);
+
+		if (c != 'I' && c != 'Q' && c != 'M') {
+
+			return false;
+
+		}
+
+		area = c;
+
+		int i = 2;
+
+		c = text.charAt(i);
+
+		if (c == '*') {
+
+			partial = true;
+
+			return length == 3;
+
+		}
+
+		if (c == 'X' || c == 'B' || c == 'W' || c == 'D' || c == 'L') {
+
+			size = c;
+
+			i++;
+
+		}
+
+		int digits_start = i;
+
+		while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+
+			byte_offset = byte_offset * 10 + (text.charAt(i) - '0');
+
+			i++;
+
+		}
+
+		int digits = i - digits_start;
+
+		if (digits == 0 || digits > MAX_OFFSET_DIGITS || text.charAt(digits_start) == '0') {
+
+			return false;
+
+		}
+
+		if (i == length) {
+
+			return true;
+
+		}
+
+		if (i + 2 == length && text.charAt(i) == '.') {
+
+			c = text.charAt(i + 1);
+
+			if (c >= '0' && c <= '7') {
+
+				bit = c - '0';
+
+				return true;
+
+			}
+		}
+
+		return false;
+
+	}
+
+	public char getArea() {
+		return area;
+	}
+
+	public char getSize() {
+		return size;
+	}
+
+	public long getByteOffset() {
+		return byte_offset;
+	}
+
+	public int getBit() {
+		return bit;
+	}
+
+	public boolean isPartial() {
+		return partial;
+	}
+
+	public boolean hasBit() {
+		return bit != NO_BIT;
+	}
+
+	/**
+	 * Check if the address designates a single bit: either no size prefix or
+	 * the X prefix.
+	 * 
+	 * @return
+	 */
+	public boolean isBitAddress() {
+
+		return ! partial && (size == NO_SIZE || size == 'X');
+
+	}
+
+}
@@ -4,9 +4,8 @@ import org.w3c.dom.Element;
 
 public class AddressUtilities {
 	
-	private static String full_address_with_bit_syntax = "[%][IQM][XBWDL]?([1-9][0-9]+|[1-9])[.0-7]?";
-	private static String full_address = "[%][IQM][XBWD]([1-9][0-9]+|[1-9])";
-	private static String partial_address = "[%][IQM][*]";
+	// Parsing reuses one Address per thread, so the checks allocate nothing.
+	private static final ThreadLocal<Address> addresses = ThreadLocal.withInitial(Address::new);
 	
 	/**
      * Check if the give address is of full type.
@@ -16,15 +15,9 @@ public class AddressUtilities {
      */
     public static boolean is_full_address(String address_attribute) {
     	
-		boolean response = false;
+    	Address address = addresses.get();
 		
-		if (address_attribute.matches(full_address_with_bit_syntax)) {
-			
-			response = true;
-			
-		}
-		
-		return response;
+		return address.parse(address_attribute) && ! address.isPartial();
 		
 	}
 
@@ -37,31 +30,28 @@ public class AddressUtilities {
      */
     public static boolean is_partial_address(String address_attribute) {
 		
-    	boolean response = false;
+    	Address address = addresses.get();
 		
-		if (address_attribute.matches(partial_address)) {
-			
-			response = true;
-			
-		}
+		return address.parse(address_attribute) && address.isPartial();
 		
-		return response;
 	}
     
 	/**
      * Validate partial address attribute value.
      * 
      * @param variable_element
+     * @param diagnostics
      */
-    public static void validate_partial_address(Element variable_element) {
+    public static void validate_partial_address(Element variable_element, DiagnosticCollector diagnostics) {
     	
     	Element parent_list = (Element) variable_element.getParentNode();
 
     	String constant_attribute = parent_list.getAttribute("constant").trim();
 
-		if (constant_attribute != "false") {
+		// An xsd:boolean; a missing attribute reads as the empty string.
+		if (constant_attribute.equals("true") || constant_attribute.equals("1")) {
 			
-			Validator.createErrorNode(variable_element, "A variable with a partial address can't have the attribute constant.");
+			diagnostics.error(Rules.ADDRESS_PARTIAL, variable_element, "A variable with a partial address can't have the attribute constant.");
 			
 		} else {
 			
@@ -69,7 +59,7 @@ public class AddressUtilities {
 			
 			if ( initial_value_child != null ) {
 				
-				Validator.createErrorNode(variable_element, "The variable with a partial address can't have initialValue child elements.");
+				diagnostics.error(Rules.ADDRESS_PARTIAL, variable_element, "The variable with a partial address can't have initialValue child elements.");
 				
 			}
 		}
@@ -80,24 +70,31 @@ public class AddressUtilities {
      * Validate full address attribute value.
      * 
      * @param variable_element
+     * @param address_attribute
+     * @param diagnostics
      */
-    public static void validate_full_address(Element variable_element, String address_attribute) {
+    public static void validate_full_address(Element variable_element, String address_attribute, DiagnosticCollector diagnostics) {
     	
     	String variable_type = VarListHandler.getVariableDataType(variable_element);
     	
+    	Address address = addresses.get();
+    	
+    	boolean parsed = address.parse(address_attribute) && ! address.isPartial();
+    	
     	if (variable_type.equals("bool")) {
     		
-    		if (! address_attribute.matches(full_address_with_bit_syntax)) {
+    		if (! parsed || ! address.isBitAddress()) {
     			
-    			Validator.createErrorNode(variable_element, "The address attribute can only be of bit syntax.");
+    			diagnostics.error(Rules.ADDRESS_FULL, variable_element, "The address attribute can only be of bit syntax.");
     			
     		}
     		
     	} else {
     		
-    		if (! address_attribute.matches(full_address)) {
+    		// Non bit variables need an explicit X, B, W or D size and no bit index.
+    		if (! parsed || address.hasBit() || address.getSize() == Address.NO_SIZE || address.getSize() == 'L') {
     			
-    			Validator.createErrorNode(variable_element, "The address attribute syntax is invalid.");
+    			diagnostics.error(Rules.ADDRESS_FULL, variable_element, "The address attribute syntax is invalid.");
     			
     		}
     		
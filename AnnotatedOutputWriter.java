@@ -0,0 +1,241 @@
+package validator;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Writes the original document with the diagnostics of a report as
+ * SidValidationError children, the same output as ValidationReport.annotate()
+ * followed by serializing the DOM, but by copying StAX events. Nothing but the
+ * path of the open elements is held, so the cost is a linear copy of the file.
+ *
+ * The diagnostics are indexed by their positional path in a tree of path
+ * segments. Positions are only counted inside elements that have diagnostics
+ * below them, so unannotated subtrees are copied without any lookups.
+ */
+public class AnnotatedOutputWriter {
+
+	private static final XMLInputFactory INPUT_FACTORY = create_input_factory();
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+	private static final XMLEventFactory EVENT_FACTORY = XMLEventFactory.newInstance();
+
+	private OutputStream out;
+
+	/**
+	 * Constructor
+	 *
+	 * @param out
+	 */
+	public AnnotatedOutputWriter(OutputStream out) {
+
+		this.out = out;
+
+	}
+
+	/**
+	 * Copy the original document to the output, inserting the diagnostics of the
+	 * report as the last children of their elements.
+	 *
+	 * @param original
+	 * @param system_id
+	 * @param report
+	 * @throws XMLStreamException
+	 */
+	public void write(InputStream original, String system_id, ValidationReport report) throws XMLStreamException {
+
+		Segment index = index(report.getDiagnostics());
+
+		XMLEventReader reader = INPUT_FACTORY.createXMLEventReader(system_id, original);
+
+		XMLEventWriter writer = null;
+
+		// The segment of every open element, null outside the annotated subtrees.
+		ArrayList<Segment> open = new ArrayList<Segment>();
+
+		Segment parent = index;
+
+		try {
+
+			while (reader.hasNext()) {
+
+				XMLEvent event = reader.nextEvent();
+
+				if (writer == null) {
+
+					String encoding = event.isStartDocument() && ((StartDocument) event).encodingSet() ? ((StartDocument) event).getCharacterEncodingScheme() : "UTF-8";
+
+					writer = OUTPUT_FACTORY.createXMLEventWriter(out, encoding);
+
+				}
+
+				if (event.isStartElement()) {
+
+					Segment segment = parent == null ? null : parent.child(tag_name(event.asStartElement()));
+
+					open.add(parent);
+
+					parent = segment;
+
+				} else if (event.isEndElement()) {
+
+					if (parent != null) {
+
+						for (Diagnostic diagnostic : parent.diagnostics) {
+
+							write_annotation(writer, diagnostic);
+
+						}
+					}
+
+					parent = open.remove(open.size() - 1);
+
+				}
+
+				writer.add(event);
+
+			}
+
+			if (writer != null) {
+
+				writer.flush();
+
+			}
+
+		} finally {
+
+			reader.close();
+
+			if (writer != null) {
+
+				writer.close();
+
+			}
+		}
+
+	}
+
+	/**
+	 * Build the index of the diagnostics that have a path.
+	 *
+	 * @param diagnostics
+	 * @return the segment of the document, whose children are the document elements.
+	 */
+	private static Segment index(List<Diagnostic> diagnostics) {
+
+		Segment root = new Segment();
+
+		for (Diagnostic diagnostic : diagnostics) {
+
+			String path = diagnostic.getPath();
+
+			if (path.length() < 2 || path.charAt(0) != '/') {
+
+				continue;
+
+			}
+
+			Segment segment = root;
+
+			for (String step : path.substring(1).split("/")) {
+
+				segment = segment.children.computeIfAbsent(step, key -> new Segment());
+
+			}
+
+			segment.diagnostics.add(diagnostic);
+
+		}
+
+		return root;
+
+	}
+
+	private static void write_annotation(XMLEventWriter writer, Diagnostic diagnostic) throws XMLStreamException {
+
+		writer.add(EVENT_FACTORY.createStartElement("", "", "SidValidationError"));
+
+		writer.add(EVENT_FACTORY.createAttribute(diagnostic.isError() ? "message" : "value", diagnostic.getMessage()));
+
+		writer.add(EVENT_FACTORY.createEndElement("", "", "SidValidationError"));
+
+	}
+
+	/**
+	 * Get the tag name as Element.getTagName() reports it, prefix included.
+	 *
+	 * @param element
+	 * @return
+	 */
+	private static String tag_name(StartElement element) {
+
+		String prefix = element.getName().getPrefix();
+
+		return prefix.isEmpty() ? element.getName().getLocalPart() : prefix + ":" + element.getName().getLocalPart();
+
+	}
+
+	private static XMLInputFactory create_input_factory() {
+
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+
+		return factory;
+
+	}
+
+	/**
+	 * A step of the diagnostics' paths, e.g. pou[3], with the diagnostics of the
+	 * element it leads to. While copying, it counts the positions of the
+	 * children of its element.
+	 */
+	private static class Segment {
+
+		HashMap<String, Segment> children = new HashMap<String, Segment>();
+		ArrayList<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+		HashMap<String, Integer> positions;
+
+		/**
+		 * Count a child element and get its segment.
+		 *
+		 * @param tag_name
+		 * @return the segment, or null if no diagnostic is in the child's subtree.
+		 */
+		Segment child(String tag_name) {
+
+			if (children.isEmpty()) {
+
+				return null;
+
+			}
+
+			if (positions == null) {
+
+				positions = new HashMap<String, Integer>();
+
+			}
+
+			int position = positions.merge(tag_name, 1, Integer::sum);
+
+			return children.get(tag_name + "[" + position + "]");
+
+		}
+
+	}
+
+}
@@ -0,0 +1,382 @@
+package validator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Validates many PLCopen files in one JVM on a thread pool sized to the number
+ * of cores. Every file gets its own Project, so a bad file cannot affect the
+ * others. One result file is written per input, plus a summary.
+ */
+public class BatchValidator {
+
+	private File xsd_file;
+	private Path output_directory;
+	private int threads;
+	private ValidationCache cache;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param xsd_file
+	 * @param output_directory
+	 */
+	public BatchValidator(File xsd_file, Path output_directory) {
+
+		this.xsd_file = xsd_file;
+
+		this.output_directory = output_directory;
+
+		this.threads = Runtime.getRuntime().availableProcessors();
+
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public void setCache(ValidationCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Validate every file matched by the given inputs. An input is either a file,
+	 * a directory that is searched for xml, gz and zip files, or a glob such as
+	 * exports/**.xml. Every xml entry of a zip archive is validated as a
+	 * project of its own.
+	 * 
+	 * @param inputs
+	 * @return the results in input order.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public ArrayList<FileResult> validate(String[] inputs) throws IOException, InterruptedException {
+
+		ArrayList<Path> paths = new ArrayList<Path>();
+
+		for (String input : inputs) {
+
+			collect_files(input, paths);
+
+		}
+
+		ArrayList<ProjectSource> files = new ArrayList<ProjectSource>();
+
+		for (Path path : paths) {
+
+			files.addAll(ProjectSource.list(path));
+
+		}
+
+		Files.createDirectories(output_directory);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		ArrayList<Future<FileResult>> futures = new ArrayList<Future<FileResult>>();
+
+		for (ProjectSource file : files) {
+
+			futures.add(executor.submit(() -> validate_file(file)));
+
+		}
+
+		ArrayList<FileResult> results = new ArrayList<FileResult>();
+
+		try {
+
+			for (int i = 0; i < futures.size(); i++) {
+
+				FileResult result;
+
+				try {
+
+					result = futures.get(i).get();
+
+				} catch (ExecutionException e) {
+
+					result = new FileResult(files.get(i).getPath());
+
+					result.setStatus(FileResult.FAILED);
+
+					result.addMessage(String.valueOf(e.getCause()));
+
+				}
+
+				write_result(i, result);
+
+				results.add(result);
+
+			}
+
+		} finally {
+
+			executor.shutdownNow();
+
+		}
+
+		write_summary(results);
+
+		if (cache != null) {
+
+			cache.save();
+
+		}
+
+		return results;
+
+	}
+
+	/**
+	 * Add the files matched by a single input to the list.
+	 * 
+	 * @param input
+	 * @param files
+	 * @throws IOException
+	 */
+	private void collect_files(String input, ArrayList<Path> files) throws IOException {
+
+		Path path = Paths.get(input);
+
+		if (Files.isRegularFile(path)) {
+
+			files.add(path);
+
+			return;
+
+		}
+
+		PathMatcher matcher;
+
+		Path base;
+
+		if (Files.isDirectory(path)) {
+
+			base = path;
+
+			matcher = FileSystems.getDefault().getPathMatcher("glob:**.{xml,gz,zip}");
+
+		} else {
+
+			int base_length = glob_base_length(input);
+
+			base = base_length == 0 ? Paths.get(".") : Paths.get(input.substring(0, base_length));
+
+			// Walked paths are matched relative to the base, so ./a.xml matches *.xml.
+			matcher = FileSystems.getDefault().getPathMatcher("glob:" + input.substring(base_length));
+
+		}
+
+		if (! Files.isDirectory(base)) {
+
+			throw new IOException("No such file or directory: " + input);
+
+		}
+
+		Path walk_base = base;
+
+		try (Stream<Path> walk = Files.walk(base)) {
+
+			walk.filter(Files::isRegularFile).filter(file -> matcher.matches(walk_base.relativize(file))).sorted().forEach(files::add);
+
+		}
+
+	}
+
+	/**
+	 * The length of the directory part of a glob, up to and including the last
+	 * separator before its first wildcard.
+	 * 
+	 * @param glob
+	 * @return 0 if the glob has no directory part.
+	 */
+	private static int glob_base_length(String glob) {
+
+		int wildcard = glob.length();
+
+		for (int i = 0; i < glob.length(); i++) {
+
+			if ("*?[{".indexOf(glob.charAt(i)) >= 0) {
+
+				wildcard = i;
+
+				break;
+
+			}
+		}
+
+		return glob.lastIndexOf('/', wildcard) + 1;
+
+	}
+
+	/**
+	 * Validate a single project with its own project instance.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	private FileResult validate_file(ProjectSource file) throws IOException, SAXException, ParserConfigurationException {
+
+		FileResult result = new FileResult(file.getPath());
+
+		ParserPool pool = ParserPool.forSchema(xsd_file);
+
+		PooledParser parser = pool.acquire();
+
+		Document doc;
+
+		XMLErrorLogger eh;
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("parse");
+
+		try {
+
+			doc = parser.parse(file, ErrorBudget.fromSystemProperty());
+
+			eh = parser.getErrorLogger();
+
+		} catch (SAXException e) {
+
+			result.setStatus(FileResult.SCHEMA_ERROR);
+
+			result.addMessage(e.getMessage());
+
+			return result;
+
+		} finally {
+
+			pool.release(parser);
+
+			ValidationMetrics.endPhase(phase);
+
+		}
+
+		if (! eh.everythingOk()) {
+
+			result.setStatus(FileResult.SCHEMA_ERROR);
+
+			result.addMessage("The file does not conform to the PLCOpen TC6 Schema definition.");
+
+			return result;
+
+		}
+
+		doc.getDocumentElement().normalize();
+
+		Project project = new Project();
+
+		project.setDom(doc);
+
+		phase = ValidationMetrics.beginPhase("project-init");
+
+		project.init();
+
+		ValidationMetrics.endPhase(phase);
+
+		project.setFile(file.getFile());
+
+		ValidationReport report = Validator.validate(project, cache);
+
+		for (Diagnostic diagnostic : report.getDiagnostics()) {
+
+			if (diagnostic.isError()) {
+
+				result.addMessage(diagnostic.getPath() + ": " + diagnostic.getMessage());
+
+			}
+		}
+
+		if (! result.getMessages().isEmpty()) {
+
+			result.setStatus(FileResult.INVALID);
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * Write the result of one file. The index keeps names unique when inputs
+	 * from different directories share a file name.
+	 * 
+	 * @param index
+	 * @param result
+	 * @throws IOException
+	 */
+	private void write_result(int index, FileResult result) throws IOException {
+
+		String name = String.format("%05d-%s.txt", index, result.getFile().getFileName());
+
+		try (BufferedWriter out = Files.newBufferedWriter(output_directory.resolve(name), StandardCharsets.UTF_8)) {
+
+			out.write(result.getFile() + "\t" + result.getStatus());
+
+			out.newLine();
+
+			for (String message : result.getMessages()) {
+
+				out.write(message);
+
+				out.newLine();
+
+			}
+		}
+
+	}
+
+	/**
+	 * Write the combined summary of the batch.
+	 * 
+	 * @param results
+	 * @throws IOException
+	 */
+	private void write_summary(ArrayList<FileResult> results) throws IOException {
+
+		int ok = 0;
+
+		try (BufferedWriter out = Files.newBufferedWriter(output_directory.resolve("summary.txt"), StandardCharsets.UTF_8)) {
+
+			for (FileResult result : results) {
+
+				if (result.getStatus().equals(FileResult.OK)) {
+
+					ok++;
+
+				}
+
+				out.write(result.getStatus() + "\t" + result.getMessages().size() + "\t" + result.getFile());
+
+				out.newLine();
+
+			}
+
+			out.write("files: " + results.size() + ", ok: " + ok + ", with errors: " + (results.size() - ok));
+
+			out.newLine();
+
+		}
+
+	}
+
+}
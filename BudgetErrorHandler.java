@@ -0,0 +1,67 @@
+package validator;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Passes schema errors on to another handler, usually an XMLErrorLogger, and
+ * aborts the parse once they exhaust the error budget.
+ */
+public class BudgetErrorHandler implements ErrorHandler {
+
+	private ErrorHandler handler;
+	private ErrorBudget budget;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param handler
+	 * @param budget
+	 */
+	public BudgetErrorHandler(ErrorHandler handler, ErrorBudget budget) {
+
+		this.handler = handler;
+
+		this.budget = budget;
+
+	}
+
+	@Override
+	public void warning(SAXParseException exception) throws SAXException {
+
+		handler.warning(exception);
+
+	}
+
+	@Override
+	public void error(SAXParseException exception) throws SAXException {
+
+		handler.error(exception);
+
+		charge();
+
+	}
+
+	@Override
+	public void fatalError(SAXParseException exception) throws SAXException {
+
+		handler.fatalError(exception);
+
+		charge();
+
+	}
+
+	private void charge() throws ErrorBudgetExceededException {
+
+		budget.charge();
+
+		if (budget.isExhausted()) {
+
+			throw new ErrorBudgetExceededException(budget);
+
+		}
+
+	}
+
+}
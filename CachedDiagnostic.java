@@ -0,0 +1,34 @@
+package validator;
+
+/**
+ * A diagnostic as ValidationCache stores it: the path is relative to the pou
+ * or dataType element it was produced for.
+ */
+public class CachedDiagnostic {
+
+	final String rule_id;
+	final String severity;
+	final String relative_path;
+	final String message;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param rule_id
+	 * @param severity
+	 * @param relative_path
+	 * @param message
+	 */
+	public CachedDiagnostic(String rule_id, String severity, String relative_path, String message) {
+
+		this.rule_id = rule_id;
+
+		this.severity = severity;
+
+		this.relative_path = relative_path;
+
+		this.message = message;
+
+	}
+
+}
@@ -0,0 +1,296 @@
+package validator;
+
+import java.util.HashMap;
+
+/**
+ * An immutable project tree in a handful of flat arrays, for validating large
+ * projects without a DOM. An element is an index into the node arrays, in
+ * document order. Tag and attribute names are interned as int symbols, and
+ * attribute values and text go through a string pool, so the many repeated
+ * values of an export (types, list kinds, "0", "true") are stored once.
+ * Whitespace-only text is dropped.
+ *
+ * Each element costs eight ints, its tag, parent, first child, next sibling,
+ * attribute start, text, line and position, plus two per attribute, against a
+ * DOM node, an attribute map, attribute nodes and whitespace text nodes per
+ * element. CompactTreeBenchmarks measures both.
+ * Built by CompactTreeBuilder. Being immutable it can be read by any number of
+ * threads.
+ */
+public class CompactTree implements TreeNavigator {
+
+	private String[] symbols;
+	private HashMap<String, Integer> symbol_ids;
+	private String[] strings;
+
+	// Per element.
+	private int[] tags;
+	private int[] parents;
+	private int[] first_children;
+	private int[] next_siblings;
+	private int[] attribute_starts;
+	private int[] texts;
+	private int[] lines;
+	private int[] positions;
+
+	// Per attribute, the attributes of element i are attribute_starts[i] to attribute_starts[i + 1].
+	private int[] attribute_names;
+	private int[] attribute_values;
+
+	private String document_uri;
+
+	/**
+	 * Constructor. The arrays are owned by the tree from now on.
+	 *
+	 * @param document_uri
+	 * @param symbols
+	 * @param strings
+	 * @param tags
+	 * @param parents
+	 * @param first_children
+	 * @param next_siblings
+	 * @param attribute_starts one more entry than there are elements.
+	 * @param texts string indexes, -1 for no text.
+	 * @param lines
+	 * @param attribute_names
+	 * @param attribute_values
+	 */
+	CompactTree(String document_uri, String[] symbols, String[] strings, int[] tags, int[] parents, int[] first_children, int[] next_siblings,
+			int[] attribute_starts, int[] texts, int[] lines, int[] attribute_names, int[] attribute_values) {
+
+		this.document_uri = document_uri;
+
+		this.symbols = symbols;
+
+		this.strings = strings;
+
+		this.tags = tags;
+
+		this.parents = parents;
+
+		this.first_children = first_children;
+
+		this.next_siblings = next_siblings;
+
+		this.attribute_starts = attribute_starts;
+
+		this.texts = texts;
+
+		this.lines = lines;
+
+		this.attribute_names = attribute_names;
+
+		this.attribute_values = attribute_values;
+
+		this.symbol_ids = new HashMap<String, Integer>(symbols.length * 2);
+
+		for (int i = 0; i < symbols.length; i++) {
+
+			symbol_ids.put(symbols[i], i);
+
+		}
+
+		this.positions = compute_positions();
+
+	}
+
+	public String getDocumentUri() {
+		return document_uri;
+	}
+
+	/**
+	 * Get the number of elements.
+	 *
+	 * @return
+	 */
+	public int size() {
+
+		return tags.length;
+
+	}
+
+	@Override
+	public int getRoot() {
+
+		return tags.length == 0 ? NONE : 0;
+
+	}
+
+	@Override
+	public String getTagName(int element) {
+
+		return symbols[tags[element]];
+
+	}
+
+	@Override
+	public int getParent(int element) {
+
+		return parents[element];
+
+	}
+
+	@Override
+	public int getFirstChild(int element) {
+
+		return first_children[element];
+
+	}
+
+	@Override
+	public int getNextSibling(int element) {
+
+		return next_siblings[element];
+
+	}
+
+	@Override
+	public int findChild(int element, String tag_name) {
+
+		Integer tag = symbol_ids.get(tag_name);
+
+		if (tag == null) {
+
+			return NONE;
+
+		}
+
+		for (int child = first_children[element]; child != NONE; child = next_siblings[child]) {
+
+			if (tags[child] == tag) {
+
+				return child;
+
+			}
+		}
+
+		return NONE;
+
+	}
+
+	@Override
+	public String getAttribute(int element, String name) {
+
+		Integer symbol = symbol_ids.get(name);
+
+		if (symbol == null) {
+
+			return "";
+
+		}
+
+		for (int i = attribute_starts[element]; i < attribute_starts[element + 1]; i++) {
+
+			if (attribute_names[i] == symbol) {
+
+				return strings[attribute_values[i]];
+
+			}
+		}
+
+		return "";
+
+	}
+
+	@Override
+	public String getText(int element) {
+
+		return texts[element] < 0 ? "" : strings[texts[element]];
+
+	}
+
+	@Override
+	public int getLine(int element) {
+
+		return lines[element];
+
+	}
+
+	@Override
+	public String getPath(int element) {
+
+		StringBuilder path = new StringBuilder();
+
+		append_path(element, path);
+
+		return path.toString();
+
+	}
+
+	/**
+	 * Estimate the bytes the tree keeps, for comparing it with a DOM.
+	 *
+	 * @return
+	 */
+	public long getRetainedSize() {
+
+		// Seven arrays per element besides attribute_starts, which has one more entry.
+		long size = 4L * (tags.length * 7L + attribute_starts.length + attribute_names.length * 2L);
+
+		for (String string : strings) {
+
+			// Header, array header and UTF-16 characters, roughly.
+			size += 40 + 2L * string.length();
+
+		}
+
+		for (String symbol : symbols) {
+
+			size += 40 + 2L * symbol.length() + 32;
+
+		}
+
+		return size;
+
+	}
+
+	private void append_path(int element, StringBuilder path) {
+
+		if (parents[element] != NONE) {
+
+			append_path(parents[element], path);
+
+		}
+
+		path.append('/').append(symbols[tags[element]]).append('[').append(positions[element]).append(']');
+
+	}
+
+	/**
+	 * Compute the 1-based position of every element among its siblings with the
+	 * same tag name, in one pass over each list of children.
+	 *
+	 * @return
+	 */
+	private int[] compute_positions() {
+
+		int[] result = new int[tags.length];
+
+		int[] counts = new int[symbols.length];
+
+		if (tags.length > 0) {
+
+			result[0] = 1;
+
+		}
+
+		for (int parent = 0; parent < tags.length; parent++) {
+
+			for (int child = first_children[parent]; child != NONE; child = next_siblings[child]) {
+
+				result[child] = ++counts[tags[child]];
+
+			}
+
+			for (int child = first_children[parent]; child != NONE; child = next_siblings[child]) {
+
+				counts[tags[child]] = 0;
+
+			}
+		}
+
+		return result;
+
+	}
+
+}
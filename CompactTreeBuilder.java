@@ -0,0 +1,279 @@
+package validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Builds a CompactTree from SAX events, e.g. the validated events of a
+ * schema's ValidatorHandler. The arrays grow by half as the document is read
+ * and are trimmed once at the end. Not thread-safe; one builder per document.
+ */
+public class CompactTreeBuilder extends DefaultHandler {
+
+	private static final int NONE = TreeNavigator.NONE;
+
+	private String document_uri;
+	private Locator locator;
+
+	private ArrayList<String> symbols = new ArrayList<String>();
+	private HashMap<String, Integer> symbol_ids = new HashMap<String, Integer>();
+	private ArrayList<String> strings = new ArrayList<String>();
+	private HashMap<String, Integer> string_ids = new HashMap<String, Integer>();
+
+	private int count;
+	private int[] tags = new int[1024];
+	private int[] parents = new int[1024];
+	private int[] first_children = new int[1024];
+	private int[] next_siblings = new int[1024];
+	private int[] last_children = new int[1024];
+	private int[] attribute_starts = new int[1025];
+	private int[] texts = new int[1024];
+	private int[] lines = new int[1024];
+
+	private int attribute_count;
+	private int[] attribute_names = new int[2048];
+	private int[] attribute_values = new int[2048];
+
+	// The open element and the text read directly inside each open element.
+	private int current = NONE;
+	private ArrayList<StringBuilder> open_texts = new ArrayList<StringBuilder>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param document_uri
+	 */
+	public CompactTreeBuilder(String document_uri) {
+
+		this.document_uri = document_uri;
+
+	}
+
+	@Override
+	public void setDocumentLocator(Locator locator) {
+
+		this.locator = locator;
+
+	}
+
+	@Override
+	public void startElement(String uri, String local_name, String qualified_name, Attributes attributes) {
+
+		if (count == tags.length) {
+
+			grow_elements();
+
+		}
+
+		int element = count++;
+
+		tags[element] = symbol(qualified_name);
+
+		parents[element] = current;
+
+		first_children[element] = NONE;
+
+		next_siblings[element] = NONE;
+
+		last_children[element] = NONE;
+
+		texts[element] = NONE;
+
+		lines[element] = locator == null ? 0 : locator.getLineNumber();
+
+		if (current != NONE) {
+
+			if (last_children[current] == NONE) {
+
+				first_children[current] = element;
+
+			} else {
+
+				next_siblings[last_children[current]] = element;
+
+			}
+
+			last_children[current] = element;
+
+		}
+
+		attribute_starts[element] = attribute_count;
+
+		for (int i = 0; i < attributes.getLength(); i++) {
+
+			if (attribute_count == attribute_names.length) {
+
+				attribute_names = Arrays.copyOf(attribute_names, attribute_count + (attribute_count >> 1));
+
+				attribute_values = Arrays.copyOf(attribute_values, attribute_names.length);
+
+			}
+
+			attribute_names[attribute_count] = symbol(attributes.getQName(i));
+
+			attribute_values[attribute_count] = string(attributes.getValue(i));
+
+			attribute_count++;
+
+		}
+
+		current = element;
+
+		open_texts.add(null);
+
+	}
+
+	@Override
+	public void endElement(String uri, String local_name, String qualified_name) {
+
+		StringBuilder text = open_texts.remove(open_texts.size() - 1);
+
+		if (text != null && ! is_whitespace(text)) {
+
+			texts[current] = string(text.toString());
+
+		}
+
+		current = parents[current];
+
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+
+		if (current == NONE) {
+
+			return;
+
+		}
+
+		int last = open_texts.size() - 1;
+
+		StringBuilder text = open_texts.get(last);
+
+		if (text == null) {
+
+			text = new StringBuilder(length);
+
+			open_texts.set(last, text);
+
+		}
+
+		text.append(ch, start, length);
+
+	}
+
+	/**
+	 * Get the element the parser is inside of.
+	 *
+	 * @return the element, or NONE before the document element and after it.
+	 */
+	public int getCurrent() {
+
+		return current;
+
+	}
+
+	/**
+	 * Get the tree of the events read so far. The builder must not be used
+	 * after this.
+	 *
+	 * @return
+	 */
+	public CompactTree build() {
+
+		attribute_starts[count] = attribute_count;
+
+		CompactTree tree = new CompactTree(document_uri, symbols.toArray(new String[0]), strings.toArray(new String[0]), Arrays.copyOf(tags, count),
+				Arrays.copyOf(parents, count), Arrays.copyOf(first_children, count), Arrays.copyOf(next_siblings, count),
+				Arrays.copyOf(attribute_starts, count + 1), Arrays.copyOf(texts, count), Arrays.copyOf(lines, count),
+				Arrays.copyOf(attribute_names, attribute_count), Arrays.copyOf(attribute_values, attribute_count));
+
+		// The lookup maps are only needed while building.
+		symbol_ids = null;
+
+		string_ids = null;
+
+		return tree;
+
+	}
+
+	private int symbol(String name) {
+
+		Integer id = symbol_ids.get(name);
+
+		if (id == null) {
+
+			id = symbols.size();
+
+			symbols.add(name);
+
+			symbol_ids.put(name, id);
+
+		}
+
+		return id;
+
+	}
+
+	private int string(String value) {
+
+		Integer id = string_ids.get(value);
+
+		if (id == null) {
+
+			id = strings.size();
+
+			strings.add(value);
+
+			string_ids.put(value, id);
+
+		}
+
+		return id;
+
+	}
+
+	private void grow_elements() {
+
+		int size = count + (count >> 1);
+
+		tags = Arrays.copyOf(tags, size);
+
+		parents = Arrays.copyOf(parents, size);
+
+		first_children = Arrays.copyOf(first_children, size);
+
+		next_siblings = Arrays.copyOf(next_siblings, size);
+
+		last_children = Arrays.copyOf(last_children, size);
+
+		attribute_starts = Arrays.copyOf(attribute_starts, size + 1);
+
+		texts = Arrays.copyOf(texts, size);
+
+		lines = Arrays.copyOf(lines, size);
+
+	}
+
+	private static boolean is_whitespace(StringBuilder text) {
+
+		for (int i = 0; i < text.length(); i++) {
+
+			if (! Character.isWhitespace(text.charAt(i))) {
+
+				return false;
+
+			}
+		}
+
+		return true;
+
+	}
+
+}
@@ -0,0 +1,526 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Validates a file on a CompactTree instead of a DOM, for projects too large
+ * to load as one. The schema is checked while the tree is built, then the
+ * naming rules of the header, data types, pous and variables run on the tree
+ * through TreeNavigator. These are the rules of the pre-commit profile, which
+ * is also the default here; the other rules and plugged-in rules need the DOM
+ * and its handlers and are only run by Validator, so setRules rejects a rule
+ * set that enables any of them instead of silently not checking them.
+ *
+ * As in SaxPipelineValidator, a schema error inside a data type or pou only
+ * takes that element out of the checks and an error anywhere else stops them.
+ * Diagnostics have no element, since there is no DOM to annotate, and come out
+ * in document order.
+ */
+public class CompactValidator {
+
+	private static final int NONE = TreeNavigator.NONE;
+
+	/**
+	 * The rules this validator runs.
+	 */
+	public static final List<String> RULES = Arrays.asList(Rules.SCHEMA, Rules.HEADER_NAME, Rules.DATA_TYPE_NAME, Rules.POU_NAME, Rules.VARIABLE_NAME);
+
+	private File xsd_file;
+	private RuleSet rules = new RuleSet(RuleSet.PRE_COMMIT);
+	private ErrorBudget budget = ErrorBudget.unlimited();
+
+	/**
+	 * Constructor
+	 *
+	 * @param xsd_file
+	 */
+	public CompactValidator(File xsd_file) {
+
+		this.xsd_file = xsd_file;
+
+	}
+
+	/**
+	 * Set the rules to run.
+	 *
+	 * @param rules
+	 * @throws IllegalArgumentException if a rule outside of RULES is enabled.
+	 */
+	public void setRules(RuleSet rules) {
+
+		ArrayList<String> unsupported = new ArrayList<String>();
+
+		for (String rule_id : rules.getRuleIds()) {
+
+			if (! RULES.contains(rule_id)) {
+
+				unsupported.add(rule_id);
+
+			}
+		}
+
+		if (! unsupported.isEmpty()) {
+
+			throw new IllegalArgumentException("The compact validator only checks the rules " + String.join(", ", RULES)
+					+ ". These enabled rules need the full validator: " + String.join(", ", unsupported) + ".");
+
+		}
+
+		this.rules = rules;
+
+	}
+
+	public void setBudget(ErrorBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Read the given file, plain, gzipped or a zip of one project, into a
+	 * CompactTree and validate it.
+	 *
+	 * @param xml_file
+	 * @return
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	public ValidationReport validate(File xml_file) throws IOException, SAXException, ParserConfigurationException {
+
+		ProjectSource source = ProjectSource.single(xml_file.toPath());
+
+		String document_uri = source.getSystemId();
+
+		CompactTreeBuilder builder = new CompactTreeBuilder(document_uri);
+
+		SchemaErrors schema_errors = new SchemaErrors(builder);
+
+		ValidatorHandler schema_handler = SchemaCache.getSchema(xsd_file).newValidatorHandler();
+
+		schema_handler.setContentHandler(builder);
+
+		schema_handler.setErrorHandler(new BudgetErrorHandler(schema_errors, budget));
+
+		SAXParserFactory parser_factory = SAXParserFactory.newInstance();
+
+		parser_factory.setNamespaceAware(true);
+
+		XMLReader reader = parser_factory.newSAXParser().getXMLReader();
+
+		reader.setContentHandler(schema_handler);
+
+		reader.setErrorHandler(schema_handler.getErrorHandler());
+
+		boolean checks = true;
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("parse");
+
+		try (InputStream in = source.open()) {
+
+			reader.parse(source.getInputSource(in));
+
+		} catch (ErrorBudgetExceededException e) {
+
+			checks = false;
+
+		} catch (SAXParseException e) {
+
+			// Not well-formed. The error handler has already recorded it.
+			checks = false;
+
+		} finally {
+
+			ValidationMetrics.endPhase(phase);
+
+		}
+
+		CompactTree tree = builder.build();
+
+		ArrayList<Located> located = new ArrayList<Located>();
+
+		boolean[] skipped = new boolean[tree.size()];
+
+		for (int i = 0; i < schema_errors.elements.size(); i++) {
+
+			int element = schema_errors.elements.get(i);
+
+			String path = element == NONE ? "/" : tree.getPath(element);
+
+			located.add(new Located(element, new Diagnostic(Rules.SCHEMA, Diagnostic.ERROR, path, schema_errors.messages.get(i), null)));
+
+			int checked = element == NONE ? NONE : get_checked_element(tree, element);
+
+			if (checked == NONE) {
+
+				checks = false;
+
+			} else {
+
+				skipped[checked] = true;
+
+			}
+		}
+
+		if (checks && tree.getRoot() != NONE) {
+
+			new NameChecks(tree, skipped, located).run();
+
+		}
+
+		// Stable, so on the same element schema errors stay first.
+		located.sort(Comparator.comparingInt(entry -> entry.element));
+
+		ValidationReport report = new ValidationReport(document_uri);
+
+		for (Located entry : located) {
+
+			report.add(entry.diagnostic);
+
+		}
+
+		report.setTruncated(budget.isExhausted());
+
+		return report;
+
+	}
+
+	/**
+	 * Validate a tree that was already built, e.g. without a schema.
+	 *
+	 * @param tree
+	 * @return
+	 */
+	public ValidationReport validate(CompactTree tree) {
+
+		ArrayList<Located> located = new ArrayList<Located>();
+
+		if (tree.getRoot() != NONE) {
+
+			new NameChecks(tree, new boolean[tree.size()], located).run();
+
+		}
+
+		ValidationReport report = new ValidationReport(tree.getDocumentUri());
+
+		for (Located entry : located) {
+
+			report.add(entry.diagnostic);
+
+		}
+
+		report.setTruncated(budget.isExhausted());
+
+		return report;
+
+	}
+
+	/**
+	 * Get the data type or pou the given element is in.
+	 *
+	 * @param tree
+	 * @param element
+	 * @return the data type or pou, or NONE.
+	 */
+	private static int get_checked_element(TreeNavigator tree, int element) {
+
+		for (int current = element; current != NONE; current = tree.getParent(current)) {
+
+			int parent = tree.getParent(current);
+
+			if (parent == NONE) {
+
+				break;
+
+			}
+
+			String tag_name = tree.getTagName(current);
+
+			String parent_tag_name = tree.getTagName(parent);
+
+			if ((tag_name.equals("dataType") && parent_tag_name.equals("dataTypes")) || (tag_name.equals("pou") && parent_tag_name.equals("pous"))) {
+
+				return current;
+
+			}
+		}
+
+		return NONE;
+
+	}
+
+	/**
+	 * The naming rules, run over any TreeNavigator.
+	 */
+	private class NameChecks {
+
+		private TreeNavigator tree;
+		private boolean[] skipped;
+		private List<Located> located;
+
+		NameChecks(TreeNavigator tree, boolean[] skipped, List<Located> located) {
+
+			this.tree = tree;
+
+			this.skipped = skipped;
+
+			this.located = located;
+
+		}
+
+		void run() {
+
+			ValidationPhaseEvent phase = ValidationMetrics.beginPhase("names");
+
+			int root = tree.getRoot();
+
+			int content_header = tree.findChild(root, "contentHeader");
+
+			if (content_header != NONE && rules.isEnabled(Rules.HEADER_NAME)) {
+
+				report(Rules.HEADER_NAME, content_header, NameRules.header_name_error(tree.getAttribute(content_header, "name")));
+
+			}
+
+			int types = tree.findChild(root, "types");
+
+			int data_types = types == NONE ? NONE : tree.findChild(types, "dataTypes");
+
+			int pous = types == NONE ? NONE : tree.findChild(types, "pous");
+
+			LibraryCatalog library = LibraryCatalog.getDefault();
+
+			SymbolTable symbols = new SymbolTable(count_names(data_types, "dataType"), count_names(pous, "pou"), library == null ? null : library.getSymbols());
+
+			if (data_types != NONE && rules.isEnabled(Rules.DATA_TYPE_NAME)) {
+
+				for (int data_type = tree.getFirstChild(data_types); data_type != NONE && ! budget.isExhausted(); data_type = tree.getNextSibling(data_type)) {
+
+					if (skipped[data_type] || ! tree.getTagName(data_type).equals("dataType")) {
+
+						continue;
+
+					}
+
+					ValidationMetrics.visit("dataType");
+
+					report(Rules.DATA_TYPE_NAME, data_type, NameRules.data_type_name_error(tree.getAttribute(data_type, "name"), symbols));
+
+				}
+			}
+
+			if (pous != NONE && rules.isAnyEnabled(Rules.POU_NAME, Rules.VARIABLE_NAME)) {
+
+				for (int pou = tree.getFirstChild(pous); pou != NONE && ! budget.isExhausted(); pou = tree.getNextSibling(pou)) {
+
+					if (skipped[pou] || ! tree.getTagName(pou).equals("pou")) {
+
+						continue;
+
+					}
+
+					ValidationMetrics.visit("pou");
+
+					if (rules.isEnabled(Rules.POU_NAME)) {
+
+						report(Rules.POU_NAME, pou, NameRules.pou_name_error(tree.getAttribute(pou, "name"), symbols));
+
+					}
+
+					if (rules.isEnabled(Rules.VARIABLE_NAME)) {
+
+						check_variables(pou, symbols);
+
+					}
+				}
+			}
+
+			ValidationMetrics.endPhase(phase);
+
+		}
+
+		/**
+		 * Check the names of the variables of a pou, which must be unique across
+		 * all its variable lists.
+		 *
+		 * @param pou
+		 * @param symbols
+		 */
+		private void check_variables(int pou, SymbolTable symbols) {
+
+			int pou_interface = tree.findChild(pou, "interface");
+
+			if (pou_interface == NONE) {
+
+				return;
+
+			}
+
+			ArrayList<Integer> variables = new ArrayList<Integer>();
+
+			for (int list = tree.getFirstChild(pou_interface); list != NONE; list = tree.getNextSibling(list)) {
+
+				if (! tree.getTagName(list).endsWith("Vars")) {
+
+					continue;
+
+				}
+
+				for (int variable = tree.getFirstChild(list); variable != NONE; variable = tree.getNextSibling(variable)) {
+
+					if (tree.getTagName(variable).equals("variable")) {
+
+						variables.add(variable);
+
+					}
+				}
+			}
+
+			NameCounts variable_names = new NameCounts(variables.size());
+
+			for (int variable : variables) {
+
+				variable_names.add(tree.getAttribute(variable, "name"));
+
+			}
+
+			for (int variable : variables) {
+
+				if (budget.isExhausted()) {
+
+					return;
+
+				}
+
+				ValidationMetrics.visit("variable");
+
+				report(Rules.VARIABLE_NAME, variable, NameRules.variable_name_error(tree.getAttribute(variable, "name"), symbols, variable_names));
+
+			}
+
+		}
+
+		private NameCounts count_names(int list, String tag_name) {
+
+			NameCounts names = new NameCounts(64);
+
+			if (list == NONE) {
+
+				return names;
+
+			}
+
+			for (int child = tree.getFirstChild(list); child != NONE; child = tree.getNextSibling(child)) {
+
+				if (tree.getTagName(child).equals(tag_name)) {
+
+					names.add(tree.getAttribute(child, "name"));
+
+				}
+			}
+
+			return names;
+
+		}
+
+		private void report(String rule_id, int element, String error) {
+
+			if (error == null) {
+
+				return;
+
+			}
+
+			ValidationMetrics.diagnostic(rule_id);
+
+			budget.charge();
+
+			located.add(new Located(element, new Diagnostic(rule_id, Diagnostic.ERROR, tree.getPath(element), error, null)));
+
+		}
+
+	}
+
+	/**
+	 * A diagnostic and the element it is on, for sorting in document order.
+	 */
+	private static class Located {
+
+		int element;
+		Diagnostic diagnostic;
+
+		Located(int element, Diagnostic diagnostic) {
+
+			this.element = element;
+
+			this.diagnostic = diagnostic;
+
+		}
+
+	}
+
+	/**
+	 * Records schema errors with the element the builder was in. Paths are
+	 * computed once the tree is built.
+	 */
+	private static class SchemaErrors implements ErrorHandler {
+
+		private CompactTreeBuilder builder;
+
+		ArrayList<Integer> elements = new ArrayList<Integer>();
+		ArrayList<String> messages = new ArrayList<String>();
+
+		SchemaErrors(CompactTreeBuilder builder) {
+
+			this.builder = builder;
+
+		}
+
+		@Override
+		public void warning(SAXParseException exception) {
+
+			// Warnings don't affect the checks.
+
+		}
+
+		@Override
+		public void error(SAXParseException exception) {
+
+			record(builder.getCurrent(), exception);
+
+		}
+
+		@Override
+		public void fatalError(SAXParseException exception) {
+
+			// Recorded on no element, so the checks don't run.
+			record(NONE, exception);
+
+		}
+
+		private void record(int element, SAXParseException exception) {
+
+			elements.add(element);
+
+			messages.add("Line " + exception.getLineNumber() + ", column " + exception.getColumnNumber() + ": " + exception.getMessage());
+
+			ValidationMetrics.diagnostic(Rules.SCHEMA);
+
+		}
+
+	}
+
+}
@@ -1,23 +1,37 @@
 package validator;
 
-import java.util.Locale;
-
 import org.w3c.dom.Element;
 
 public class DataTypeValidation {
 	
+	private ValidationContext context;
 	private Project project;
+	private SymbolTable symbols;
+	private TypeGraph types;
 	private DataTypeHandler data_type_handler;
 	private InitialValueParser initial_value_parser;
+	private InitialValueCache initial_values;
+	private DiagnosticCollector diagnostics;
 	
 	/**
 	 * Constructor
 	 * 
-	 * @param project
+	 * @param context
+	 * @param diagnostics
 	 */
-	public DataTypeValidation(Project project) {
+	public DataTypeValidation(ValidationContext context, DiagnosticCollector diagnostics) {
+		
+		this.context = context;
+		
+		this.project = context.getProject();
+		
+		this.symbols = context.getSymbols();
+		
+		this.types = context.getTypes();
+		
+		this.initial_values = context.getInitialValues();
 		
-		this.project = project;
+		this.diagnostics = diagnostics;
 		
 		this.data_type_handler = project.getDataTypeHandler();
 		
@@ -25,6 +39,18 @@ public class DataTypeValidation {
 		
 	}
 	
+	/**
+	 * Check if any rule checks data types, i.e. if the data types need to be visited at all.
+	 * 
+	 * @param rules
+	 * @return
+	 */
+	public static boolean hasRules(RuleSet rules) {
+		
+		return rules.isAnyEnabled(Rules.DATA_TYPE_NAME, Rules.DATA_TYPE_BASE_TYPE, Rules.DATA_TYPE_INITIAL_VALUE) || ! rules.getRules(ValidationRule.DATA_TYPE).isEmpty();
+		
+	}
+	
 	/**
 	 * Validate data type elements of the given project.
 	 * 
@@ -33,18 +59,73 @@ public class DataTypeValidation {
 	        
 		initial_value_parser.resetConstants();
 
-	    for (int i = 0; i < data_type_handler.getNumberOfDataTypes(); i++) {
+	    for (int i = 0; i < data_type_handler.getNumberOfDataTypes() && ! context.getBudget().isExhausted(); i++) {
 	        	
-	    	Element data_type_element = data_type_handler.getDataTypeElement(i);        
-	            
-	    	validate_data_type_name_attribute(data_type_element);
-	    
-	    	validate_base_type(data_type_element);
+	    	Element data_type_element = data_type_handler.getDataTypeElement(i);
+	    	
+	    	if (context.isSkipped(data_type_element)) {
+	    		
+	    		continue;
+	    		
+	    	}
 	    	
-	    	validate_initial_value(data_type_element);
+	    	ValidationCache.run(context, data_type_element, diagnostics, () -> validate(data_type_element));
 	    
 	    }
 	}
+	
+	/**
+	 * Validate a single data type element of the project.
+	 * 
+	 * @param data_type_element
+	 */
+	public void validate(Element data_type_element) {
+		
+		ValidationMetrics.visit("dataType");
+		
+		RuleSet rules = context.getRules();
+		
+		if (rules.isEnabled(Rules.DATA_TYPE_NAME)) {
+		
+			ValidationRuleEvent rule = ValidationMetrics.beginRule();
+		
+			validate_data_type_name_attribute(data_type_element);
+		
+			ValidationMetrics.endRule(rule, Rules.DATA_TYPE_NAME);
+			
+		}
+		
+		if (rules.isEnabled(Rules.DATA_TYPE_BASE_TYPE)) {
+		
+			ValidationRuleEvent rule = ValidationMetrics.beginRule();
+	    
+			validate_base_type(data_type_element);
+    	
+			ValidationMetrics.endRule(rule, Rules.DATA_TYPE_BASE_TYPE);
+			
+		}
+		
+		if (rules.isEnabled(Rules.DATA_TYPE_INITIAL_VALUE)) {
+    	
+			ValidationRuleEvent rule = ValidationMetrics.beginRule();
+    	
+			validate_initial_value(data_type_element);
+    	
+			ValidationMetrics.endRule(rule, Rules.DATA_TYPE_INITIAL_VALUE);
+			
+		}
+		
+		for (ValidationRule plugged_in : rules.getRules(ValidationRule.DATA_TYPE)) {
+			
+			ValidationRuleEvent rule = ValidationMetrics.beginRule();
+			
+			plugged_in.check(data_type_element, context, diagnostics);
+			
+			ValidationMetrics.endRule(rule, plugged_in.getId());
+			
+		}
+		
+	}
 
 	/**
      * Validate the data types name attribute.
@@ -53,33 +134,13 @@ public class DataTypeValidation {
      */
     private void validate_data_type_name_attribute(Element data_type_element) { 
     	
-    	String data_type_name = data_type_element.getAttribute("name").trim();
-
-        if (data_type_name.trim().equals("")) {
-        	
-        	Validator.createErrorNode(data_type_element, "The data type name cannot be empty.");
-            
-        } else if (!IECUtilities.isValidIdentifier(data_type_name)) {
-        	
-        	Validator.createErrorNode(data_type_element, "The data type name must be a valid identifier.");
-           
-        } else if (CommonLexer.isKeyword(data_type_name)) {
-        	
-        	Validator.createErrorNode(data_type_element, "The data type name cannot be a reserved word.");
-            
-        } else if (IECUtilities.isStandardPouName(data_type_name)){
-        	
-        	Validator.createErrorNode(data_type_element, "A data type cannot have the same name as a standard POU.");
-            
-        } else if (project.getPouTypeHandler().isUserPou(data_type_name)) {
-            
-        	Validator.createErrorNode(data_type_element, "A data type cannot have the same name as a user defined POU.");
-            
-        } else if (! data_type_handler.isUniqueTypeName(data_type_name)) {
-        	
-        	Validator.createErrorNode(data_type_element, "The data type name is not unique.");
-            
-        }
+    	String error = NameRules.data_type_name_error(data_type_element.getAttribute("name"), symbols);
+    	
+    	if (error != null) {
+    		
+    		diagnostics.error(Rules.DATA_TYPE_NAME, data_type_element, error);
+    		
+    	}
         
     }
     
@@ -98,7 +159,7 @@ public class DataTypeValidation {
         
         String s = base_type_element.getTagName();
         
-        if ( ! IECUtilities.isAnyElementary(s) ) {
+        if ( ! IECWords.ELEMENTARY_TYPES.contains(s) ) {
         	
             if (s.equals("derived")) {
             	
@@ -106,34 +167,34 @@ public class DataTypeValidation {
                 
                 if (s.equals("")) {
                 	
-                	Validator.createErrorNode(base_type_element, "Base type name of user defined type cannot be empty.");
+                	diagnostics.error(Rules.DATA_TYPE_BASE_TYPE, base_type_element, "Base type name of user defined type cannot be empty.");
                 	
                 } else {
                     
-                    if (! data_type_handler.isUserType(s)) {
+                    if (! types.isUserType(s)) {
                     	
-                    	Validator.createErrorNode(base_type_element, "Unknown base type name: " + s + ".");
+                    	diagnostics.error(Rules.DATA_TYPE_BASE_TYPE, base_type_element, "Unknown base type name: " + s + ".");
                     	
                     } else {
                     	
-                        s = s.toUpperCase(Locale.ENGLISH);
-                        
                         //We know that the following attribute exists (XML Schema)
-                        String dataTypeName = ((Element)base_type_element.getParentNode().getParentNode()).getAttribute("name");
+                        String dataTypeName = ((Element)base_type_element.getParentNode().getParentNode()).getAttribute("name").trim();
                         
-                        dataTypeName = dataTypeName.trim().toUpperCase(Locale.ENGLISH);
-                        
-                        if (s.equals(dataTypeName)) {
+                        if (s.equalsIgnoreCase(dataTypeName)) {
                         	
-                        	Validator.createErrorNode(base_type_element, "A user defined type cannot have the same name as its base type.");
+                        	diagnostics.error(Rules.DATA_TYPE_BASE_TYPE, base_type_element, "A user defined type cannot have the same name as its base type.");
 
+                        } else if (types.getCycle(dataTypeName) != null) {
+                        	
+                        	diagnostics.error(Rules.DATA_TYPE_BASE_TYPE, base_type_element, "The base types of user defined types form a cycle: " + types.getCycle(dataTypeName) + ".");
+                        	
                         }
                     }
                 }    
                 
             } else {
             	
-            	Validator.createErrorNode(base_type_element, "Unsupported base type: " + s + ".");
+            	diagnostics.error(Rules.DATA_TYPE_BASE_TYPE, base_type_element, "Unsupported base type: " + s + ".");
 
             }
         }
@@ -157,19 +218,19 @@ public class DataTypeValidation {
                             
     		if (!initialValue_child.getTagName().equals("simpleValue")) {
                             	
-    			Validator.createErrorNode(initialValue_child,"Unsupported type of initial value.");
+    			diagnostics.error(Rules.DATA_TYPE_INITIAL_VALUE, initialValue_child,"Unsupported type of initial value.");
 
     		} else {
     			
-    			 boolean validationResponse = validate_simple_value(initialValue_child, data_type_element);
+    			SimpleValueResult result = validate_simple_value(initialValue_child, data_type_element);
                                 
-    			if (validationResponse) {
+    			if (result.isValid()) {
                                 	
-    				Validator.createInfoNode(initialValue_child, Validator.infoValue);
+    				diagnostics.info(Rules.DATA_TYPE_INITIAL_VALUE, initialValue_child, result.getValue());
                                     
     			} else {
                                 	
-    				Validator.createErrorNode(initialValue_child, Validator.errorMessage);
+    				diagnostics.error(Rules.DATA_TYPE_INITIAL_VALUE, initialValue_child, result.getMessage());
     			}
     		}
     	}
@@ -180,61 +241,61 @@ public class DataTypeValidation {
      * Simple initial value validation.
      * 
      * @param initialValue element
+     * @return
      */
-    private boolean validate_simple_value(Element simple_value, Element data_type) {
-        
-        initial_value_parser.clear();
+    private SimpleValueResult validate_simple_value(Element simple_value, Element data_type) {
         
         String svalue = simple_value.getAttribute("value");
         
-        boolean retval = initial_value_parser.parseExpr(svalue);
+        //The calling routine must have made sure that initial_value name attribute is either an IEC type
+        //or an existing user type, not necessarily correctly defined.
+        String baseTypeName = types.getBaseType(data_type.getAttribute("name"));
+        
+        SimpleValueResult cached = initial_values.get(svalue, baseTypeName);
         
-        if (!retval) {
+        if (cached != null) {
         	
-            Validator.createErrorNode(simple_value, initial_value_parser.getErrorMessage());
+        	return cached;
+        	
+        }
+        
+        initial_value_parser.clear();
+        
+        if (!initial_value_parser.parseExpr(svalue)) {
+        	
+        	SimpleValueResult result = SimpleValueResult.invalid(initial_value_parser.getErrorMessage());
+        	
+            return initial_value_parser.hasExternalDependencies() ? result : initial_values.put(svalue, baseTypeName, result);
             
-        } else {
-            //The calling routine must have made sure that initial_value name attribute is either an IEC type
-            //or an existing user type, not necessarily correctly defined.
-            String baseTypeName = data_type.getAttribute("name").trim().toUpperCase(Locale.ENGLISH);
+        }
+        
+        if (baseTypeName.equals("")) {
+            //If baseTypeName.equals("") then some anchestor of targetTypeName is not a well-defined data type. 
+            //We can't set the infoValue because we can't check whether the provided value is appropriate for the
+            //given data type. Initially we thougth of not reporting the error here, since it is reported in validateBaseType.
+            //But if the user fixes the base type definition then the error will be eliminated there
+            //and there will still be no initial value here. This may confuse the compilation process. Therefore,
+            //we prefer to add an error here as well.
+        	return SimpleValueResult.invalid("Can't check suitability of the initial value. The base type is not well defined.");
+        	
+        }
+        
+        if (initial_value_parser.hasExternalDependencies()) {
+            //This can happen when validating the initial value of a
+            //variable and not of a data type.
+            return SimpleValueResult.valid("");
             
-            if (data_type_handler.isUserType(baseTypeName)) {
-            	
-                baseTypeName = data_type_handler.getBaseType(baseTypeName);
-                
-            }
+        }
+        
+        String javaValue = initial_value_parser.makeJavaExp(baseTypeName);
+        
+        if (javaValue == null) {
+        	
+            return initial_values.put(svalue, baseTypeName, SimpleValueResult.invalid("The initial value \"" + initial_value_parser.getValue() + "\" is not appropriate for data type " + baseTypeName));
             
-            if (!baseTypeName.equals("")) {
-
-				if (initial_value_parser.hasExternalDependencies()) {
-                    //This can happen when validating the initial value of a
-                    //variable and not of a data type.
-                    Validator.infoValue = "";
-                    
-                } else {
-                	
-                    String javaValue = initial_value_parser.makeJavaExp(baseTypeName);
-                    
-                    if (javaValue == null) {
-                    	
-                        Validator.errorMessage = "The initial value \"" + initial_value_parser.getValue() + "\" is not appropriate for data type " + baseTypeName;
-                        retval = false;                    
-                    } else {
-                    	Validator.infoValue = javaValue;
-                    }
-                }
-            } else {
-                //If baseTypeName.equals("") then some anchestor of targetTypeName is not a well-defined data type. 
-                //We can't set the infoValue because we can't check whether the provided value is appropriate for the
-                //given data type. Initially we thougth of not reporting the error here, since it is reported in validateBaseType.
-                //But if the user fixes the base type definition then the error will be eliminated there
-                //and there will still be no initial value here. This may confuse the compilation process. Therefore,
-                //we prefer to add an error here as well.
-            	Validator.errorMessage = "Can't check suitability of the initial value. The base type is not well defined.";
-                retval = false;
-            }
         }
-        return retval;
+        
+        return initial_values.put(svalue, baseTypeName, SimpleValueResult.valid(javaValue));
         
     }
 	
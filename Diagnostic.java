@@ -0,0 +1,79 @@
+package validator;
+
+import org.w3c.dom.Element;
+
+/**
+ * A single error or info produced by a rule. It keeps the path of the element
+ * it refers to, so it stays meaningful after the element is gone, and the
+ * element itself for annotating the DOM.
+ */
+public class Diagnostic {
+
+	public static final String ERROR = "error";
+	public static final String INFO = "info";
+
+	private String rule_id;
+	private String severity;
+	private String path;
+	private String message;
+	private Element element;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param rule_id
+	 * @param severity
+	 * @param path
+	 * @param message
+	 * @param element the element the diagnostic refers to, or null.
+	 */
+	public Diagnostic(String rule_id, String severity, String path, String message, Element element) {
+
+		this.rule_id = rule_id;
+
+		this.severity = severity;
+
+		this.path = path;
+
+		this.message = message;
+
+		this.element = element;
+
+	}
+
+	public String getRuleId() {
+		return rule_id;
+	}
+
+	public String getSeverity() {
+		return severity;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	public boolean isError() {
+		return severity.equals(ERROR);
+	}
+
+	/**
+	 * Drop the reference to the element, so that keeping the diagnostic doesn't
+	 * keep the tree it came from.
+	 * 
+	 */
+	public void detach() {
+
+		element = null;
+
+	}
+
+}
@@ -0,0 +1,255 @@
+package validator;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Collects the diagnostics of one validation task. Checks never touch the DOM
+ * while they run; the collected diagnostics end up in a ValidationReport. A
+ * collector is used by one thread at a time, so tasks that run in parallel
+ * each get their own and are merged in a fixed order.
+ *
+ * Parallel tasks check copies of their subtrees, since a Xerces DOM is not
+ * safe to read from several threads. Diagnostics on a copy report the path of
+ * the original and are pointed at the original elements by restoreOriginals().
+ *
+ * A collector given a rule set drops the diagnostics of rules it doesn't
+ * enable, so a check that reports for several rules can't leak the ones a
+ * profile turned off.
+ */
+public class DiagnosticCollector {
+
+	private ArrayList<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+	private ElementPaths paths = new ElementPaths();
+	private IdentityHashMap<Element, Element> originals = new IdentityHashMap<Element, Element>();
+	private ErrorBudget budget;
+	private RuleSet rules;
+
+	/**
+	 * Constructor for a collector that doesn't count its errors.
+	 * 
+	 */
+	public DiagnosticCollector() {
+
+		this(null);
+
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param budget the budget every error is charged to, or null.
+	 */
+	public DiagnosticCollector(ErrorBudget budget) {
+
+		this(budget, null);
+
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param budget the budget every error is charged to, or null.
+	 * @param rules the enabled rules, or null to keep every diagnostic.
+	 */
+	public DiagnosticCollector(ErrorBudget budget, RuleSet rules) {
+
+		this.budget = budget;
+
+		this.rules = rules;
+
+	}
+
+	/**
+	 * Report an error of the given rule on the given element.
+	 * 
+	 * @param rule_id
+	 * @param element
+	 * @param message
+	 */
+	public void error(String rule_id, Element element, String message) {
+
+		if (rules != null && ! rules.isEnabled(rule_id)) {
+
+			return;
+
+		}
+
+		ValidationMetrics.diagnostic(rule_id);
+
+		if (budget != null) {
+
+			budget.charge();
+
+		}
+
+		diagnostics.add(new Diagnostic(rule_id, Diagnostic.ERROR, paths.getPath(element), message, element));
+
+	}
+
+	/**
+	 * Report an info value of the given rule on the given element.
+	 * 
+	 * @param rule_id
+	 * @param element
+	 * @param value
+	 */
+	public void info(String rule_id, Element element, String value) {
+
+		if (rules != null && ! rules.isEnabled(rule_id)) {
+
+			return;
+
+		}
+
+		ValidationMetrics.diagnostic(rule_id);
+
+		diagnostics.add(new Diagnostic(rule_id, Diagnostic.INFO, paths.getPath(element), value, element));
+
+	}
+
+	/**
+	 * Report a diagnostic of the given severity.
+	 * 
+	 * @param rule_id
+	 * @param severity
+	 * @param element
+	 * @param message
+	 */
+	public void add(String rule_id, String severity, Element element, String message) {
+
+		if (rules != null && ! rules.isEnabled(rule_id)) {
+
+			return;
+
+		}
+
+		ValidationMetrics.diagnostic(rule_id);
+
+		if (budget != null && severity.equals(Diagnostic.ERROR)) {
+
+			budget.charge();
+
+		}
+
+		diagnostics.add(new Diagnostic(rule_id, severity, paths.getPath(element), message, element));
+
+	}
+
+	/**
+	 * Append the diagnostics of another collector after the ones of this one.
+	 * 
+	 * @param other
+	 */
+	public void addAll(DiagnosticCollector other) {
+
+		diagnostics.addAll(other.diagnostics);
+
+		for (Element copy : other.originals.keySet()) {
+
+			addCopy(copy, other.originals.get(copy), other.paths.getPath(copy));
+
+		}
+
+	}
+
+	/**
+	 * Let diagnostics on a copied subtree report as diagnostics on the original.
+	 * 
+	 * @param copy root of the copy.
+	 * @param original
+	 * @param path path of the original.
+	 */
+	public void addCopy(Element copy, Element original, String path) {
+
+		paths.setPath(copy, path);
+
+		originals.put(copy, original);
+
+	}
+
+	/**
+	 * Point the diagnostics reported on copies at the original elements. Reads
+	 * the original document, so no other thread may read it meanwhile.
+	 * 
+	 */
+	public void restoreOriginals() {
+
+		if (originals.isEmpty()) {
+
+			return;
+
+		}
+
+		for (int i = 0; i < diagnostics.size(); i++) {
+
+			Diagnostic diagnostic = diagnostics.get(i);
+
+			Node root = diagnostic.getElement();
+
+			while (root != null && ! originals.containsKey(root)) {
+
+				root = root.getParentNode();
+
+			}
+
+			if (root == null) {
+
+				continue;
+
+			}
+
+			Element original = originals.get(root);
+
+			Element target = ElementPaths.resolve(original, diagnostic.getPath().substring(paths.getPath((Element) root).length()));
+
+			diagnostics.set(i, new Diagnostic(diagnostic.getRuleId(), diagnostic.getSeverity(), diagnostic.getPath(), diagnostic.getMessage(), target == null ? original : target));
+
+		}
+
+		originals.clear();
+
+	}
+
+	/**
+	 * Get the path of the given element, as diagnostics on it report it.
+	 * 
+	 * @param element
+	 * @return
+	 */
+	public String getPath(Element element) {
+
+		return paths.getPath(element);
+
+	}
+
+	public ArrayList<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+
+	/**
+	 * Count the collected errors.
+	 * 
+	 * @return
+	 */
+	public int getErrorCount() {
+
+		int count = 0;
+
+		for (Diagnostic diagnostic : diagnostics) {
+
+			if (diagnostic.isError()) {
+
+				count++;
+
+			}
+		}
+
+		return count;
+
+	}
+
+}
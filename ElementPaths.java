@@ -0,0 +1,148 @@
+package validator;
+
+import java.util.IdentityHashMap;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Computes positional paths such as /project[1]/types[1]/pous[1]/pou[3] for
+ * the elements diagnostics refer to. Positions are memoized, so reporting on
+ * many siblings in document order only walks each sibling list once. Not
+ * thread-safe; every DiagnosticCollector has its own.
+ */
+public class ElementPaths {
+
+	private IdentityHashMap<Node, String> paths = new IdentityHashMap<Node, String>();
+	private IdentityHashMap<Node, Integer> positions = new IdentityHashMap<Node, Integer>();
+
+	/**
+	 * Get the path of the given element.
+	 * 
+	 * @param element
+	 * @return
+	 */
+	public String getPath(Element element) {
+
+		String path = paths.get(element);
+
+		if (path == null) {
+
+			Node parent = element.getParentNode();
+
+			String parent_path = (parent instanceof Element) ? getPath((Element) parent) : "";
+
+			path = parent_path + "/" + element.getTagName() + "[" + get_position(element) + "]";
+
+			paths.put(element, path);
+
+		}
+
+		return path;
+
+	}
+
+	/**
+	 * Set the path an element reports, e.g. the path of the original for a copy
+	 * of a subtree. The elements below it report paths relative to it.
+	 * 
+	 * @param element
+	 * @param path
+	 */
+	public void setPath(Element element, String path) {
+
+		paths.put(element, path);
+
+	}
+
+	/**
+	 * Find the element at the given relative path, e.g. /interface[1]/localVars[2].
+	 *
+	 * @param root
+	 * @param relative_path
+	 * @return the element, or null if there is none at the path.
+	 */
+	static Element resolve(Element root, String relative_path) {
+
+		Element current = root;
+
+		int start = 1;
+
+		while (current != null && start < relative_path.length()) {
+
+			int open = relative_path.indexOf('[', start);
+
+			int close = relative_path.indexOf(']', open);
+
+			String tag_name = relative_path.substring(start, open);
+
+			int position = Integer.parseInt(relative_path.substring(open + 1, close));
+
+			Element next = null;
+
+			for (Node child = current.getFirstChild(); child != null && next == null; child = child.getNextSibling()) {
+
+				if (child instanceof Element && ((Element) child).getTagName().equals(tag_name) && --position == 0) {
+
+					next = (Element) child;
+
+				}
+			}
+
+			current = next;
+
+			start = close + 2;
+
+		}
+
+		return current;
+
+	}
+
+	/**
+	 * Get the 1-based position of the element among its siblings with the same
+	 * tag name. The walk stops at the first sibling whose position is known.
+	 * 
+	 * @param element
+	 * @return
+	 */
+	private int get_position(Element element) {
+
+		Integer known = positions.get(element);
+
+		if (known != null) {
+
+			return known;
+
+		}
+
+		String tag_name = element.getTagName();
+
+		int position = 1;
+
+		for (Node sibling = element.getPreviousSibling(); sibling != null; sibling = sibling.getPreviousSibling()) {
+
+			if (sibling instanceof Element && ((Element) sibling).getTagName().equals(tag_name)) {
+
+				Integer sibling_position = positions.get(sibling);
+
+				if (sibling_position != null) {
+
+					position += sibling_position;
+
+					break;
+
+				}
+
+				position++;
+
+			}
+		}
+
+		positions.put(element, position);
+
+		return position;
+
+	}
+
+}
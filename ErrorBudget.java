@@ -0,0 +1,81 @@
+package validator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The number of errors after which a run stops. Schema errors are counted by
+ * BudgetErrorHandler, which aborts the parse; semantic errors are counted by
+ * the DiagnosticCollector, and the validators stop before the next data type,
+ * pou or variable once the budget is exhausted. Parallel pou tasks share the
+ * budget, so a run may report a few more errors than the limit.
+ */
+public class ErrorBudget {
+
+	private int limit;
+	private AtomicInteger errors = new AtomicInteger();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param limit the number of errors that ends the run.
+	 */
+	public ErrorBudget(int limit) {
+
+		if (limit < 1) {
+
+			throw new IllegalArgumentException("The error budget must be at least 1.");
+
+		}
+
+		this.limit = limit;
+
+	}
+
+	/**
+	 * Get a budget that is never exhausted.
+	 * 
+	 * @return
+	 */
+	public static ErrorBudget unlimited() {
+
+		return new ErrorBudget(Integer.MAX_VALUE);
+
+	}
+
+	/**
+	 * Get a new budget with the limit of the system property validator.max-errors,
+	 * or an unlimited one if it is not set.
+	 * 
+	 * @return
+	 */
+	public static ErrorBudget fromSystemProperty() {
+
+		String limit = System.getProperty("validator.max-errors");
+
+		return limit == null ? unlimited() : new ErrorBudget(Integer.parseInt(limit.trim()));
+
+	}
+
+	/**
+	 * Count one error.
+	 * 
+	 */
+	public void charge() {
+
+		errors.incrementAndGet();
+
+	}
+
+	public boolean isExhausted() {
+		return errors.get() >= limit;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getErrors() {
+		return errors.get();
+	}
+
+}
@@ -0,0 +1,24 @@
+package validator;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Thrown by BudgetErrorHandler to abort a parse once the error budget is
+ * exhausted.
+ */
+public class ErrorBudgetExceededException extends SAXException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param budget
+	 */
+	public ErrorBudgetExceededException(ErrorBudget budget) {
+
+		super("Stopped after " + budget.getErrors() + " schema errors, the error budget is " + budget.getLimit() + ".");
+
+	}
+
+}
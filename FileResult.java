@@ -0,0 +1,60 @@
+package validator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * The outcome of validating one file in batch mode.
+ */
+public class FileResult {
+
+	public static final String OK = "ok";
+	public static final String INVALID = "invalid";
+	public static final String SCHEMA_ERROR = "schema-error";
+	public static final String FAILED = "failed";
+
+	private Path file;
+	private String status;
+	private ArrayList<String> messages = new ArrayList<String>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param file
+	 */
+	public FileResult(Path file) {
+
+		this.file = file;
+
+		this.status = OK;
+
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public ArrayList<String> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Add a message to the result.
+	 * 
+	 * @param message
+	 */
+	public void addMessage(String message) {
+
+		messages.add(message);
+
+	}
+
+}
@@ -0,0 +1,117 @@
+package validator;
+
+/**
+ * The word sets of IEC 61131-3 as minimal perfect hash tables.
+ *
+ * Generated by WordTableGenerator, do not edit.
+ */
+public final class IECWords {
+
+	// Reserved words, including the elementary and generic type names.
+	public static final WordTable KEYWORDS = new WordTable(new String[] {
+		"RETURN", "VAR", "WORD", "VAR_CONFIG", "R_EDGE", "END_TRANSITION", "AT", "END_STEP",
+		"END_CONFIGURATION", "ELSE", "TIME", "LREAL", "OR", "INITIAL_STEP", "ANY_INT", "BOOL",
+		"END_REPEAT", "VAR_EXTERNAL", "ANY_STRING", "VAR_IN_OUT", "MOD", "RESOURCE", "FUNCTION", "REPEAT",
+		"F_EDGE", "ANY_MAGNITUDE", "ON", "TO", "TRANSITION", "ANY_BIT", "LWORD", "CONFIGURATION",
+		"READ_ONLY", "ULINT", "FROM", "WSTRING", "FOR", "END_WHILE", "UDINT", "ANY",
+		"UINT", "CASE", "END_PROGRAM", "END_FUNCTION_BLOCK", "STEP", "ANY_DERIVED", "TYPE", "LINT",
+		"END_VAR", "DWORD", "SINT", "FUNCTION_BLOCK", "END_ACTION", "ELSIF", "END_STRUCT", "TRUE",
+		"FALSE", "THEN", "PROGRAM", "DT", "OF", "ANY_DATE", "XOR", "TIME_OF_DAY",
+		"ARRAY", "END_CASE", "VAR_OUTPUT", "END_FUNCTION", "VAR_TEMP", "RETAIN", "END_TYPE", "DATE_AND_TIME",
+		"END_FOR", "DO", "BY", "ANY_ELEMENTARY", "WITH", "END_RESOURCE", "USINT", "NOT",
+		"VAR_INPUT", "DINT", "END_IF", "DATE", "TASK", "VAR_GLOBAL", "WHILE", "CONSTANT",
+		"AND", "NON_RETAIN", "BYTE", "VAR_ACCESS", "REAL", "STRING", "ANY_NUM", "STRUCT",
+		"ANY_REAL", "INT", "IF", "ACTION", "READ_WRITE", "TOD", "EXIT", "UNTIL"
+	}, new int[] {
+		40, 192, 1, 4, 2, 17, 4, 2, 30, 56, 59, 7, 37, 64, 15, 8,
+		47, 30, 77, 513, 12, 19, 5, 74, 244, 15
+	});
+
+	// Elementary type names, which are also the tag names of elementary types in TC6.
+	public static final WordTable ELEMENTARY_TYPES = new WordTable(new String[] {
+		"ULINT", "LINT", "USINT", "DWORD", "STRING", "DATE", "BYTE", "LREAL",
+		"TOD", "INT", "DATE_AND_TIME", "SINT", "WSTRING", "TIME", "DINT", "UDINT",
+		"TIME_OF_DAY", "LWORD", "DT", "UINT", "REAL", "WORD", "BOOL"
+	}, new int[] {
+		14, 52, 51, 6392, 2
+	});
+
+	// Standard functions and function blocks.
+	public static final WordTable STANDARD_POUS = new WordTable(new String[] {
+		"WORD_TO_REAL", "DWORD_TO_ULINT", "ASIN", "LINT_TO_USINT", "R_TRIG", "LINT_TO_DINT", "BYTE_TO_UDINT", "LINT_TO_LREAL",
+		"ULINT_TO_INT", "UDINT_TO_ULINT", "USINT_TO_REAL", "CTD_DINT", "WSTRING_TO_UINT", "INT_TO_USINT", "STRING_TO_UINT", "ULINT_TO_USINT",
+		"WSTRING_TO_TOD", "CTU", "DATE_TO_STRING", "SIN", "SINT_TO_ULINT", "SEMA", "STRING_TO_LINT", "CTD_SINT",
+		"UINT_TO_REAL", "BOOL_TO_STRING", "ROL", "ULINT_TO_SINT", "WSTRING_TO_LINT", "UINT_TO_STRING", "BOOL_TO_WSTRING", "UDINT_TO_REAL",
+		"INT_TO_STRING", "WSTRING_TO_DINT", "UINT_TO_BCD", "BOOL_TO_LINT", "LEN", "SINT_TO_UINT", "DWORD_TO_REAL", "WSTRING_TO_BYTE",
+		"TIME_TO_STRING", "INT_TO_BCD", "CTU_ULINT", "DWORD_TO_USINT", "BOOL_TO_SINT", "WSTRING_TO_DATE", "STRING_TO_LWORD", "SINT_TO_BCD",
+		"WSTRING_TO_SINT", "CTD", "BOOL_TO_DWORD", "SINT_TO_BYTE", "DWORD_TO_BOOL", "STRING_TO_DWORD", "UINT_TO_ULINT", "UDINT_TO_INT",
+		"USINT_TO_DWORD", "LREAL_TO_STRING", "DINT_TO_BYTE", "DINT_TO_WSTRING", "BOOL_TO_INT", "SUB_DATE_DATE", "WSTRING_TO_USINT", "BYTE_TO_INT",
+		"LINT_TO_REAL", "REPLACE", "BYTE_TO_LINT", "ULINT_TO_STRING", "STRING_TO_WORD", "DATE_AND_TIME_TO_DATE", "LWORD_TO_WORD", "REAL_TO_UINT",
+		"ADD_TIME", "ULINT_TO_LINT", "WSTRING_TO_STRING", "DATE_AND_TIME_TO_TIME_OF_DAY", "LINT_TO_UINT", "WSTRING_TO_TIME", "CTUD_LINT", "UDINT_TO_BCD_DWORD",
+		"DINT_TO_UDINT", "ABS", "BYTE_TO_WSTRING", "DWORD_TO_LINT", "UDINT_TO_LREAL", "DINT_TO_REAL", "DWORD_TO_DINT", "WORD_TO_UDINT",
+		"BOOL_TO_ULINT", "CONCAT_DATE_TOD", "RIGHT", "LREAL_TO_WSTRING", "STRING_TO_BYTE", "WORD_TO_BYTE", "MUX", "EXP",
+		"DATE_TO_WSTRING", "INT_TO_DINT", "USINT_TO_BYTE", "STRING_TO_REAL", "MAX", "ULINT_TO_WSTRING", "BOOL_TO_UDINT", "DWORD_TO_INT",
+		"MULTIME", "UDINT_TO_SINT", "BCD_TO_UDINT", "LREAL_TO_INT", "EQ", "LWORD_TO_SINT", "UDINT_TO_DINT", "MOVE",
+		"WSTRING_TO_WORD", "INT_TO_REAL", "SUB_TIME", "STRING_TO_WSTRING", "TON", "DINT_TO_WORD", "USINT_TO_UDINT", "SUB_DT_DT",
+		"DINT_TO_UINT", "LREAL_TO_BYTE", "REAL_TO_BOOL", "ULINT_TO_UINT", "BYTE_TO_REAL", "USINT_TO_UINT", "BYTE_TO_USINT", "ULINT_TO_LWORD",
+		"UINT_TO_BCD_WORD", "WORD_TO_STRING", "LN", "LINT_TO_DWORD", "REAL_TO_UDINT", "BCD_TO_DINT", "STRING_TO_DATE", "ROR",
+		"CTU_USINT", "LWORD_TO_STRING", "USINT_TO_BCD", "LINT_TO_ULINT", "RTC", "MID", "DINT_TO_SINT", "ULINT_TO_UDINT",
+		"GT", "LREAL_TO_WORD", "STRING_TO_USINT", "LOG", "LREAL_TO_UDINT", "CTUD_SINT", "DWORD_TO_UINT", "UINT_TO_WSTRING",
+		"WSTRING_TO_INT", "LT", "DWORD_TO_WSTRING", "LWORD_TO_ULINT", "LINT_TO_BOOL", "BYTE_TO_BOOL", "UINT_TO_USINT", "DINT_TO_BOOL",
+		"LREAL_TO_BOOL", "STRING_TO_UDINT", "WSTRING_TO_UDINT", "USINT_TO_SINT", "BCD_TO_LINT", "EXPT", "SR", "BYTE_TO_DINT",
+		"GE", "WSTRING_TO_BOOL", "UDINT_TO_WSTRING", "TIME_TO_WSTRING", "REAL_TO_LINT", "BOOL_TO_BYTE", "DIVTIME", "SUB_TOD_TIME",
+		"REAL_TO_INT", "LREAL_TO_USINT", "BYTE_TO_LWORD", "SQRT", "BCD_TO_ULINT", "UINT_TO_BYTE", "TOF", "LWORD_TO_BYTE",
+		"USINT_TO_LWORD", "CTUD_UDINT", "LINT_TO_SINT", "BCD_TO_SINT", "TRUNC", "USINT_TO_BOOL", "WSTRING_TO_LREAL", "SUB_TOD_TOD",
+		"INT_TO_LWORD", "UDINT_TO_USINT", "LREAL_TO_DINT", "DWORD_TO_LREAL", "INSERT", "WSTRING_TO_DWORD", "SINT_TO_BOOL", "DINT_TO_DWORD",
+		"SINT_TO_STRING", "SINT_TO_LWORD", "WORD_TO_ULINT", "REAL_TO_WSTRING", "UINT_TO_WORD", "SINT_TO_DWORD", "BOOL_TO_LREAL", "LINT_TO_LWORD",
+		"LWORD_TO_UDINT", "DT_TO_DATE", "SINT_TO_UDINT", "BCD_TO_INT", "BYTE_TO_SINT", "UINT_TO_INT", "REAL_TO_SINT", "DWORD_TO_BYTE",
+		"BOOL_TO_DINT", "WORD_TO_DWORD", "REAL_TO_USINT", "CTD_INT", "CTU_DINT", "UINT_TO_SINT", "UDINT_TO_WORD", "BYTE_TO_LREAL",
+		"BYTE_TO_UINT", "STRING_TO_INT", "CTUD_USINT", "COS", "REAL_TO_LWORD", "ADD_TOD_TIME", "LWORD_TO_DWORD", "DINT_TO_LINT",
+		"SUB_DT_TIME", "ULINT_TO_REAL", "AND", "LREAL_TO_LINT", "UDINT_TO_LWORD", "CTD_UDINT", "REAL_TO_LREAL", "ULINT_TO_DWORD",
+		"REAL_TO_WORD", "LWORD_TO_WSTRING", "DWORD_TO_WORD", "USINT_TO_WORD", "ACOS", "FIND", "UDINT_TO_LINT", "SUB",
+		"INT_TO_WORD", "INT_TO_LINT", "CTD_LINT", "DINT_TO_LWORD", "LREAL_TO_UINT", "WORD_TO_BOOL", "INT_TO_UDINT", "INT_TO_DWORD",
+		"INT_TO_SINT", "ATAN", "DWORD_TO_SINT", "LREAL_TO_DWORD", "WSTRING_TO_ULINT", "MOD", "WORD_TO_LINT", "CTU_INT",
+		"LREAL_TO_LWORD", "DINT_TO_STRING", "STRING_TO_DT", "LWORD_TO_DINT", "CTU_UINT", "OR", "CTUD", "UDINT_TO_UINT",
+		"STRING_TO_LREAL", "TOD_TO_WSTRING", "LWORD_TO_USINT", "SINT_TO_WORD", "CTD_USINT", "SINT_TO_WSTRING", "LREAL_TO_ULINT", "SINT_TO_INT",
+		"DINT_TO_ULINT", "USINT_TO_INT", "DWORD_TO_UDINT", "WSTRING_TO_DT", "UINT_TO_LINT", "DELETE", "BOOL_TO_UINT", "ULINT_TO_DINT",
+		"WORD_TO_DINT", "UINT_TO_DWORD", "DINT_TO_INT", "WORD_TO_UINT", "LWORD_TO_REAL", "UDINT_TO_BYTE", "INT_TO_LREAL", "MUL",
+		"ADD", "UINT_TO_UDINT", "XOR", "REAL_TO_DINT", "LINT_TO_UDINT", "LINT_TO_STRING", "BOOL_TO_REAL", "BYTE_BCD_TO_USINT",
+		"WORD_TO_LREAL", "CTU_UDINT", "CTU_SINT", "LREAL_TO_SINT", "CONCAT", "BYTE_TO_ULINT", "MIN", "UDINT_TO_BOOL",
+		"USINT_TO_ULINT", "USINT_TO_WSTRING", "BYTE_TO_STRING", "LREAL_TO_REAL", "ADD_DT_TIME", "INT_TO_WSTRING", "DWORD_BCD_TO_UDINT", "WORD_TO_USINT",
+		"SINT_TO_LREAL", "TAN", "UDINT_TO_STRING", "DT_TO_STRING", "LE", "BYTE_TO_DWORD", "CTUD_INT", "USINT_TO_BCD_BYTE",
+		"WSTRING_TO_REAL", "ULINT_TO_WORD", "TP", "UINT_TO_BOOL", "DT_TO_WSTRING", "BOOL_TO_USINT", "LINT_TO_WORD", "LINT_TO_BCD",
+		"DINT_TO_BCD", "CTD_ULINT", "TOD_TO_STRING", "STRING_TO_DINT", "STRING_TO_SINT", "ULINT_TO_BCD_LWORD", "ULINT_TO_BOOL", "STRING_TO_ULINT",
+		"LWORD_TO_LINT", "INT_TO_BYTE", "STRING_TO_TOD", "UINT_TO_DINT", "CTUD_UINT", "INT_TO_ULINT", "LINT_TO_WSTRING", "WSTRING_TO_LWORD",
+		"RS", "DINT_TO_USINT", "LIMIT", "LWORD_TO_BOOL", "DIV", "SEL", "BOOL_TO_WORD", "USINT_TO_DINT",
+		"UDINT_TO_DWORD", "LWORD_TO_INT", "SINT_TO_USINT", "BCD_TO_USINT", "STRING_TO_BOOL", "INT_TO_BOOL", "F_TRIG", "WORD_BCD_TO_UINT",
+		"WORD_TO_WSTRING", "DWORD_TO_LWORD", "LWORD_BCD_TO_ULINT", "LINT_TO_INT", "LWORD_TO_UINT", "REAL_TO_BYTE", "LINT_TO_BYTE", "CTD_UINT",
+		"INT_TO_UINT", "SINT_TO_REAL", "BOOL_TO_LWORD", "WORD_TO_LWORD", "WORD_TO_SINT", "CTUD_DINT", "SINT_TO_LINT", "SINT_TO_DINT",
+		"DT_TO_TOD", "REAL_TO_STRING", "UINT_TO_LREAL", "NOT", "NE", "USINT_TO_LREAL", "LWORD_TO_LREAL", "UDINT_TO_BCD",
+		"USINT_TO_LINT", "REAL_TO_ULINT", "ULINT_TO_BYTE", "STRING_TO_TIME", "REAL_TO_DWORD", "SHL", "USINT_TO_STRING", "ULINT_TO_LREAL",
+		"LEFT", "SHR", "BCD_TO_UINT", "DWORD_TO_STRING", "WORD_TO_INT", "ULINT_TO_BCD", "UINT_TO_LWORD", "CTU_LINT",
+		"BYTE_TO_WORD", "DINT_TO_LREAL", "CTUD_ULINT"
+	}, new int[] {
+		23, 5, 72, 18, 10, 146, 42, 268, 57, 43, 191, 15, 2, 1, 11, 75,
+		5, 1, 18, 265, 67, 1, 20, 15, 27, 68, 89, 8, 23, 13, 87, 86,
+		3, 9, 391, 6, 130, 43, 45, 20, 11, 12, 70, 96, 95, 213, 350, 1,
+		39, 376, 136, 1, 1, 12, 132, 32, 6, 176, 1, 16, 119, 70, 311, 8,
+		2, 263, 32, 35, 104, 20, 64, 2, 94, 115, 2, 1, 17, 6, 7, 1055,
+		187, 3, 75, 766, 138, 334, 980, 39, 128, 585, 386, 4, 962, 4, 30, 834,
+		33, 275, 886, 13, 157, 75
+	});
+
+	// Standard function blocks.
+	public static final WordTable STANDARD_FUNCTION_BLOCKS = new WordTable(new String[] {
+		"CTU_LINT", "CTUD_USINT", "CTU_ULINT", "CTUD_SINT", "CTD_SINT", "CTU_UDINT", "CTU_USINT", "CTD_DINT",
+		"SEMA", "CTU_SINT", "CTU", "CTU_UINT", "CTD_UINT", "CTUD", "CTD_USINT", "F_TRIG",
+		"CTUD_DINT", "CTUD_UDINT", "RS", "CTD_ULINT", "CTD_UDINT", "TOF", "CTD", "CTUD_UINT",
+		"CTU_DINT", "CTUD_LINT", "CTUD_ULINT", "R_TRIG", "RTC", "CTD_INT", "TP", "CTU_INT",
+		"CTUD_INT", "CTD_LINT", "SR", "TON"
+	}, new int[] {
+		21, 62, 348, 36, 1, 38, 55, 2, 39
+	});
+
+	private IECWords() {
+	}
+
+}
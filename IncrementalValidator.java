@@ -0,0 +1,430 @@
+package validator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Keeps the diagnostics of a project per data type and per pou, and reruns
+ * only the checks affected when one of them changes.
+ *
+ * A changed element is revalidated together with every data type or pou that
+ * mentions its old or its new name: elements sharing the name (uniqueness),
+ * derived types and variables using it, and, transitively, everything that
+ * mentions a data type whose base type chain goes through it. The work is
+ * proportional to the size of the change and of its dependents, not to the
+ * size of the project.
+ *
+ * Inserting or removing an element moves the elements after it without
+ * changing their diagnostics, so the diagnostics keep their elements and get
+ * their paths when the report is built.
+ */
+public class IncrementalValidator {
+
+	private ValidationContext context;
+	private DiagnosticCollector header_diagnostics = new DiagnosticCollector();
+
+	// Data types and pous in document order, with the state of their last validation.
+	private ArrayList<Element> data_types = new ArrayList<Element>();
+	private ArrayList<Element> pous = new ArrayList<Element>();
+	private IdentityHashMap<Element, List<Diagnostic>> diagnostics = new IdentityHashMap<Element, List<Diagnostic>>();
+	private IdentityHashMap<Element, String> declared_names = new IdentityHashMap<Element, String>();
+	private IdentityHashMap<Element, Set<String>> mentions = new IdentityHashMap<Element, Set<String>>();
+
+	// Name key to the elements mentioning it.
+	private HashMap<String, Set<Element>> mentioned_by = new HashMap<String, Set<Element>>();
+
+	/**
+	 * Constructor. Validates the whole project once.
+	 *
+	 * @param project an initialized project.
+	 */
+	public IncrementalValidator(Project project) {
+
+		this.context = new ValidationContext(project);
+
+		Element root = project.getDom().getDocumentElement();
+
+		Validator.validate_content_header((Element)root.getElementsByTagName("contentHeader").item(0), header_diagnostics);
+
+		project.getInitialValueParser().resetConstants();
+
+		DataTypeHandler data_type_handler = project.getDataTypeHandler();
+
+		for (int i = 0; i < data_type_handler.getNumberOfDataTypes(); i++) {
+
+			Element data_type = data_type_handler.getDataTypeElement(i);
+
+			data_types.add(data_type);
+
+			index(data_type, false);
+
+			validate_element(data_type);
+
+		}
+
+		PouTypeHandler pou_type_handler = project.getPouTypeHandler();
+
+		for (int i = 0; i < pou_type_handler.getNumberOfPouTypes(); i++) {
+
+			Element pou = pou_type_handler.getPouTypeElement(i);
+
+			pous.add(pou);
+
+			index(pou, false);
+
+			validate_element(pou);
+
+		}
+
+	}
+
+	/**
+	 * Revalidate a data type or pou that was edited in place.
+	 *
+	 * @param element
+	 * @return the elements that were revalidated.
+	 */
+	public List<Element> revalidate(Element element) {
+
+		return revalidate(element, element);
+
+	}
+
+	/**
+	 * Revalidate after a data type or pou was replaced, added (old_element is
+	 * null) or removed (new_element is null).
+	 *
+	 * @param old_element
+	 * @param new_element
+	 * @return the elements that were revalidated.
+	 */
+	public List<Element> revalidate(Element old_element, Element new_element) {
+
+		ArrayDeque<String> changed_names = new ArrayDeque<String>();
+
+		if (old_element != null && declared_names.containsKey(old_element)) {
+
+			changed_names.add(declared_names.get(old_element));
+
+			unindex(old_element);
+
+		}
+
+		if (new_element != null) {
+
+			replace_in_order(old_element, new_element);
+
+			index(new_element, true);
+
+			changed_names.add(declared_names.get(new_element));
+
+		} else if (old_element != null) {
+
+			data_types.remove(old_element);
+
+			pous.remove(old_element);
+
+		}
+
+		Set<Element> affected = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+
+		if (new_element != null) {
+
+			affected.add(new_element);
+
+		}
+
+		// Follow name mentions. A data type's dependents are followed further, since
+		// initial values and base types resolve through the whole derived chain.
+		HashMap<String, Boolean> seen = new HashMap<String, Boolean>();
+
+		while (! changed_names.isEmpty()) {
+
+			String name = changed_names.poll();
+
+			if (seen.put(name, Boolean.TRUE) != null) {
+
+				continue;
+
+			}
+
+			Set<Element> dependents = mentioned_by.get(name);
+
+			if (dependents == null) {
+
+				continue;
+
+			}
+
+			for (Element dependent : dependents) {
+
+				if (affected.add(dependent) && dependent.getTagName().equals("dataType")) {
+
+					changed_names.add(declared_names.get(dependent));
+
+				}
+			}
+		}
+
+		// Each element's diagnostics only depend on the symbols, so the order doesn't matter.
+		ArrayList<Element> revalidated = new ArrayList<Element>(affected);
+
+		for (Element element : revalidated) {
+
+			validate_element(element);
+
+		}
+
+		return revalidated;
+
+	}
+
+	/**
+	 * Get the current diagnostics of the whole project, in document order, with
+	 * the paths of their elements in the current document.
+	 *
+	 * @return
+	 */
+	public ValidationReport getReport() {
+
+		ValidationReport report = new ValidationReport(context.getProject().getDom().getDocumentURI());
+
+		ElementPaths paths = new ElementPaths();
+
+		add_all(report, header_diagnostics.getDiagnostics(), paths);
+
+		for (Element element : data_types) {
+
+			add_all(report, diagnostics.get(element), paths);
+
+		}
+
+		for (Element element : pous) {
+
+			add_all(report, diagnostics.get(element), paths);
+
+		}
+
+		return report;
+
+	}
+
+	/**
+	 * Add diagnostics to a report with the current paths of their elements.
+	 *
+	 * @param report
+	 * @param stored
+	 * @param paths
+	 */
+	private static void add_all(ValidationReport report, List<Diagnostic> stored, ElementPaths paths) {
+
+		for (Diagnostic diagnostic : stored) {
+
+			Element element = diagnostic.getElement();
+
+			if (element == null) {
+
+				report.add(diagnostic);
+
+			} else {
+
+				report.add(new Diagnostic(diagnostic.getRuleId(), diagnostic.getSeverity(), paths.getPath(element), diagnostic.getMessage(), element));
+
+			}
+		}
+
+	}
+
+	/**
+	 * Run the checks of a single data type or pou and keep their diagnostics.
+	 *
+	 * @param element
+	 */
+	private void validate_element(Element element) {
+
+		DiagnosticCollector collector = new DiagnosticCollector(null, context.getRules());
+
+		if (element.getTagName().equals("dataType")) {
+
+			new DataTypeValidation(context, collector).validate(element);
+
+		} else {
+
+			new PouValidation(context, collector).validate(element);
+
+		}
+
+		diagnostics.put(element, collector.getDiagnostics());
+
+	}
+
+	/**
+	 * Record the declared name and the mentioned names of an element.
+	 *
+	 * @param element
+	 * @param count_declaration whether the symbol table must count the element,
+	 *        i.e. it was not there when the table was built.
+	 */
+	private void index(Element element, boolean count_declaration) {
+
+		String name = element.getAttribute("name");
+
+		declared_names.put(element, NameCounts.key(name));
+
+		if (count_declaration && element.getTagName().equals("dataType")) {
+
+			context.getSymbols().addDataType(name);
+
+			context.getTypes().add(element);
+
+		} else if (count_declaration) {
+
+			context.getSymbols().addPou(name);
+
+		}
+
+		Set<String> names = new HashSet<String>();
+
+		collect_mentions(element, names);
+
+		mentions.put(element, names);
+
+		for (String key : names) {
+
+			Set<Element> elements = mentioned_by.get(key);
+
+			if (elements == null) {
+
+				elements = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+
+				mentioned_by.put(key, elements);
+
+			}
+
+			elements.add(element);
+
+		}
+
+	}
+
+	/**
+	 * Undo index() for an element that is about to change or go away.
+	 *
+	 * @param element
+	 */
+	private void unindex(Element element) {
+
+		String key = declared_names.remove(element);
+
+		if (element.getTagName().equals("dataType")) {
+
+			context.getSymbols().removeDataType(key);
+
+			context.getTypes().remove(key, element);
+
+		} else {
+
+			context.getSymbols().removePou(key);
+
+		}
+
+		for (String name : mentions.remove(element)) {
+
+			Set<Element> elements = mentioned_by.get(name);
+
+			elements.remove(element);
+
+			if (elements.isEmpty()) {
+
+				mentioned_by.remove(name);
+
+			}
+		}
+
+		diagnostics.remove(element);
+
+	}
+
+	/**
+	 * Put the new element where the old one was, or where it is in the
+	 * document among the others.
+	 *
+	 * @param old_element
+	 * @param new_element
+	 */
+	private void replace_in_order(Element old_element, Element new_element) {
+
+		if (old_element == new_element) {
+
+			return;
+
+		}
+
+		ArrayList<Element> list = new_element.getTagName().equals("dataType") ? data_types : pous;
+
+		int position = old_element == null ? -1 : list.indexOf(old_element);
+
+		if (position >= 0) {
+
+			list.set(position, new_element);
+
+		} else if (! list.contains(new_element)) {
+
+			int index = 0;
+
+			while (index < list.size() && (list.get(index).compareDocumentPosition(new_element) & Node.DOCUMENT_POSITION_FOLLOWING) != 0) {
+
+				index++;
+
+			}
+
+			list.add(index, new_element);
+
+		}
+
+	}
+
+	/**
+	 * Collect the keys of every name attribute in the subtree: the declared
+	 * name, derived type names, variable names and initial value type names.
+	 *
+	 * @param node
+	 * @param names
+	 */
+	private static void collect_mentions(Node node, Set<String> names) {
+
+		if (node instanceof Element) {
+
+			NamedNodeMap attributes = node.getAttributes();
+
+			Node name = attributes.getNamedItem("name");
+
+			if (name != null) {
+
+				names.add(NameCounts.key(name.getNodeValue()));
+
+			}
+		}
+
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+
+			if (child.getNodeType() == Node.ELEMENT_NODE) {
+
+				collect_mentions(child, names);
+
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,70 @@
+package validator;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Results of checking simpleValue literals, keyed by the value text and the
+ * resolved elementary base type. Generated projects repeat the same few
+ * literals over and over, so most values are parsed only once per project.
+ *
+ * Values with external dependencies are never cached, nor are values whose
+ * base type could not be resolved. The cache stops growing at MAX_ENTRIES;
+ * later values are simply not remembered. It is shared by parallel tasks.
+ */
+public class InitialValueCache {
+
+	private static final int MAX_ENTRIES = 4096;
+
+	private ConcurrentHashMap<String, SimpleValueResult> results = new ConcurrentHashMap<String, SimpleValueResult>();
+
+	/**
+	 * Get the cached result of a value.
+	 * 
+	 * @param value the value attribute, as written.
+	 * @param base_type the resolved elementary base type, upper case.
+	 * @return null if the value was not cached.
+	 */
+	public SimpleValueResult get(String value, String base_type) {
+
+		if (base_type.equals("")) {
+
+			return null;
+
+		}
+
+		return results.get(key(value, base_type));
+
+	}
+
+	/**
+	 * Remember the result of a value that does not depend on external
+	 * constants.
+	 * 
+	 * @param value
+	 * @param base_type
+	 * @param result
+	 * @return the given result.
+	 */
+	public SimpleValueResult put(String value, String base_type, SimpleValueResult result) {
+
+		if (! base_type.equals("") && results.size() < MAX_ENTRIES) {
+
+			results.putIfAbsent(key(value, base_type), result);
+
+		}
+
+		return result;
+
+	}
+
+	public int size() {
+		return results.size();
+	}
+
+	private static String key(String value, String base_type) {
+
+		return base_type + '\u0000' + value;
+
+	}
+
+}
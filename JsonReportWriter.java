@@ -0,0 +1,86 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a ValidationReport as JSON, one diagnostic at a time.
+ */
+public class JsonReportWriter {
+
+	private Writer out;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param out
+	 */
+	public JsonReportWriter(Writer out) {
+
+		this.out = out;
+
+	}
+
+	/**
+	 * Write the given report.
+	 * 
+	 * @param report
+	 * @throws IOException
+	 */
+	public void write(ValidationReport report) throws IOException {
+
+		out.write("{\"source\":");
+
+		JsonUtilities.writeString(out, report.getSource());
+
+		out.write(",\"errors\":");
+
+		out.write(Integer.toString(report.getErrorCount()));
+
+		if (report.isTruncated()) {
+
+			out.write(",\"truncated\":true");
+
+		}
+
+		out.write(",\"diagnostics\":[");
+
+		boolean first = true;
+
+		for (Diagnostic diagnostic : report.getDiagnostics()) {
+
+			if (! first) {
+
+				out.write(',');
+
+			}
+
+			first = false;
+
+			out.write("\n{\"rule\":");
+
+			JsonUtilities.writeString(out, diagnostic.getRuleId());
+
+			out.write(",\"severity\":");
+
+			JsonUtilities.writeString(out, diagnostic.getSeverity());
+
+			out.write(",\"path\":");
+
+			JsonUtilities.writeString(out, diagnostic.getPath());
+
+			out.write(",\"message\":");
+
+			JsonUtilities.writeString(out, diagnostic.getMessage());
+
+			out.write('}');
+
+		}
+
+		out.write("]}\n");
+
+		out.flush();
+
+	}
+
+}
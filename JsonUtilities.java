@@ -0,0 +1,77 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Helpers for the JSON the report and metrics writers produce.
+ */
+public class JsonUtilities {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Write the given value as a quoted JSON string.
+	 * 
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	public static void writeString(Writer out, String value) throws IOException {
+
+		if (value == null) {
+
+			out.write("null");
+
+			return;
+
+		}
+
+		out.write('"');
+
+		for (int i = 0; i < value.length(); i++) {
+
+			char c = value.charAt(i);
+
+			switch (c) {
+
+			case '"':
+				out.write("\\\"");
+				break;
+
+			case '\\':
+				out.write("\\\\");
+				break;
+
+			case '\n':
+				out.write("\\n");
+				break;
+
+			case '\r':
+				out.write("\\r");
+				break;
+
+			case '\t':
+				out.write("\\t");
+				break;
+
+			default:
+				if (c < 0x20) {
+
+					out.write("\\u00");
+					out.write(HEX[c >> 4]);
+					out.write(HEX[c & 0xF]);
+
+				} else {
+
+					out.write(c);
+
+				}
+			}
+		}
+
+		out.write('"');
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power of two buckets: bucket i counts the
+ * samples of 2^(i-1) to 2^i - 1 nanoseconds.
+ */
+public class LatencyHistogram {
+
+	private AtomicLongArray buckets = new AtomicLongArray(64);
+	private AtomicLong count = new AtomicLong();
+	private AtomicLong total_nanos = new AtomicLong();
+	private AtomicLong max_nanos = new AtomicLong();
+
+	/**
+	 * Record one sample.
+	 * 
+	 * @param nanos
+	 */
+	public void record(long nanos) {
+
+		if (nanos < 0) {
+
+			nanos = 0;
+
+		}
+
+		buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+
+		count.incrementAndGet();
+
+		total_nanos.addAndGet(nanos);
+
+		max_nanos.accumulateAndGet(nanos, Math::max);
+
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Write the histogram as a JSON object. Only non-empty buckets are listed,
+	 * keyed by their upper bound in nanoseconds.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeJson(Writer out) throws IOException {
+
+		out.write("{\"count\":" + count.get() + ",\"totalNanos\":" + total_nanos.get() + ",\"maxNanos\":" + max_nanos.get() + ",\"buckets\":{");
+
+		boolean first = true;
+
+		for (int i = 0; i < buckets.length(); i++) {
+
+			long bucket = buckets.get(i);
+
+			if (bucket == 0) {
+
+				continue;
+
+			}
+
+			if (! first) {
+
+				out.write(',');
+
+			}
+
+			first = false;
+
+			long upper_bound = i == 63 ? Long.MAX_VALUE : (1L << i) - 1;
+
+			out.write("\"" + upper_bound + "\":" + bucket);
+
+		}
+
+		out.write("}}");
+
+	}
+
+}
@@ -0,0 +1,247 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+/**
+ * The data types and pous of the vendor libraries every project includes,
+ * loaded and checked once and then frozen. The symbols and types of every
+ * ValidationContext are layered on it, so a project's own declarations are
+ * looked up first and the libraries' after them, without loading or indexing
+ * the libraries again per project.
+ *
+ * A name declared by several libraries resolves through the first one. Once
+ * loaded, a catalog never changes, so concurrent validations can share it.
+ */
+public class LibraryCatalog {
+
+	private static volatile LibraryCatalog default_catalog;
+
+	private List<Project> projects;
+	private SymbolTable symbols;
+	private TypeGraph types;
+	private List<ValidationReport> reports;
+
+	private LibraryCatalog(List<Project> projects, SymbolTable symbols, TypeGraph types) {
+
+		this.projects = projects;
+
+		this.symbols = symbols;
+
+		this.types = types;
+
+	}
+
+	/**
+	 * Get the catalog every new ValidationContext is layered on.
+	 *
+	 * @return the catalog, or null if there is none.
+	 */
+	public static LibraryCatalog getDefault() {
+
+		return default_catalog;
+
+	}
+
+	public static void setDefault(LibraryCatalog catalog) {
+		default_catalog = catalog;
+	}
+
+	/**
+	 * Load the libraries listed by the system property validator.libraries,
+	 * separated by the path separator.
+	 *
+	 * @param xsd_file
+	 * @return the catalog, or null if the property is not set.
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	public static LibraryCatalog fromSystemProperty(File xsd_file) throws IOException, SAXException, ParserConfigurationException {
+
+		String value = System.getProperty("validator.libraries", "").trim();
+
+		if (value.isEmpty()) {
+
+			return null;
+
+		}
+
+		ArrayList<Path> files = new ArrayList<Path>();
+
+		for (String file : value.split(File.pathSeparator)) {
+
+			if (! file.trim().isEmpty()) {
+
+				files.add(Paths.get(file.trim()));
+
+			}
+		}
+
+		return load(xsd_file, files);
+
+	}
+
+	/**
+	 * Load, check and freeze the given library files. A file can be a zip of
+	 * several libraries.
+	 *
+	 * @param xsd_file
+	 * @param files
+	 * @return
+	 * @throws IOException if a library can't be read or does not conform to the schema.
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	public static LibraryCatalog load(File xsd_file, List<Path> files) throws IOException, SAXException, ParserConfigurationException {
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("libraries");
+
+		ParserPool pool = ParserPool.forSchema(xsd_file);
+
+		ArrayList<Project> projects = new ArrayList<Project>();
+
+		for (Path file : files) {
+
+			for (ProjectSource source : ProjectSource.list(file)) {
+
+				projects.add(load_project(pool, source));
+
+			}
+		}
+
+		NameCounts data_type_names = new NameCounts(256);
+
+		NameCounts pou_names = new NameCounts(256);
+
+		ArrayList<Element> data_types = new ArrayList<Element>();
+
+		for (Project project : projects) {
+
+			DataTypeHandler data_type_handler = project.getDataTypeHandler();
+
+			for (int i = 0; i < data_type_handler.getNumberOfDataTypes(); i++) {
+
+				data_types.add(data_type_handler.getDataTypeElement(i));
+
+				data_type_names.add(data_type_handler.getDataTypeElement(i).getAttribute("name"));
+
+			}
+
+			PouTypeHandler pou_type_handler = project.getPouTypeHandler();
+
+			for (int i = 0; i < pou_type_handler.getNumberOfPouTypes(); i++) {
+
+				pou_names.add(pou_type_handler.getPouTypeElement(i).getAttribute("name"));
+
+			}
+		}
+
+		SymbolTable symbols = new SymbolTable(data_type_names, pou_names);
+
+		symbols.freeze();
+
+		TypeGraph types = new TypeGraph(data_types, null);
+
+		types.freeze();
+
+		LibraryCatalog catalog = new LibraryCatalog(Collections.unmodifiableList(projects), symbols, types);
+
+		// Each library is checked once, against the others, before the catalog is shared.
+		ArrayList<ValidationReport> reports = new ArrayList<ValidationReport>();
+
+		for (Project project : projects) {
+
+			reports.add(Validator.validate(new ValidationContext(project, catalog)));
+
+		}
+
+		catalog.reports = Collections.unmodifiableList(reports);
+
+		ValidationMetrics.endPhase(phase);
+
+		return catalog;
+
+	}
+
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	public TypeGraph getTypes() {
+		return types;
+	}
+
+	public List<Project> getProjects() {
+		return projects;
+	}
+
+	/**
+	 * Get the diagnostics of the libraries, one report per library.
+	 *
+	 * @return
+	 */
+	public List<ValidationReport> getReports() {
+
+		return reports;
+
+	}
+
+	/**
+	 * Parse and initialize a single library.
+	 *
+	 * @param pool
+	 * @param source
+	 * @return
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	private static Project load_project(ParserPool pool, ProjectSource source) throws IOException, SAXException, ParserConfigurationException {
+
+		PooledParser parser = pool.acquire();
+
+		Document doc;
+
+		try {
+
+			doc = parser.parse(source, ErrorBudget.unlimited());
+
+			if (! parser.getErrorLogger().everythingOk()) {
+
+				throw new IOException("The library " + source + " does not conform to the PLCOpen TC6 Schema definition.");
+
+			}
+
+		} finally {
+
+			pool.release(parser);
+
+		}
+
+		doc.getDocumentElement().normalize();
+
+		Project project = new Project();
+
+		project.setDom(doc);
+
+		project.init();
+
+		project.setFile(source.getFile());
+
+		return project;
+
+	}
+
+}
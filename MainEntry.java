@@ -1,12 +1,20 @@
 package validator;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
@@ -22,25 +30,188 @@ public class MainEntry {
 		
 		File xsd_file = new File("src/assets/tc6_xml_v201.xsd");
 		
+		// Vendor libraries shared by every project, loaded and checked once: -Dvalidator.libraries=<files>
+		try {
+			
+			LibraryCatalog library = LibraryCatalog.fromSystemProperty(xsd_file);
+			
+			if (library != null) {
+				
+				for (ValidationReport report : library.getReports()) {
+					
+					report.print();
+					
+				}
+				
+				LibraryCatalog.setDefault(library);
+				
+			}
+			
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+			
+			UIelements.reportException(e);
+			
+			return;
+			
+		}
+		
+		// Validate directories or globs of files: --batch <output directory> <inputs...>
+		if (args.length > 2 && args[0].equals("--batch")) {
+			
+			try {
+				
+				BatchValidator batch = new BatchValidator(xsd_file, Paths.get(args[1]));
+				
+				// Unchanged data types and pous are taken from the cache of earlier runs.
+				batch.setCache(new ValidationCache(Paths.get(args[1], "cache"), xsd_file.getName(), 500000));
+				
+				ArrayList<FileResult> results = batch.validate(Arrays.copyOfRange(args, 2, args.length));
+				
+				UIelements.println("Validated " + results.size() + " files. Results written to " + args[1] + ".");
+				
+				ValidationMetrics.dump();
+				
+			} catch (IOException | InterruptedException e) {
+				
+				UIelements.reportException(e);
+				
+			}
+			
+			return;
+			
+		}
+		
+		// Revalidate the xml files of a directory as they change: --watch <directory>
+		if (args.length > 1 && args[0].equals("--watch")) {
+			
+			try {
+				
+				new WatchValidator(xsd_file, Paths.get(args[1])).run();
+				
+			} catch (IOException | InterruptedException e) {
+				
+				UIelements.reportException(e);
+				
+			}
+			
+			return;
+			
+		}
+		
+		// Keep a warm JVM serving validations over HTTP: --serve [port]
+		if (args.length > 0 && args[0].equals("--serve")) {
+			
+			try {
+				
+				new ValidationService(xsd_file, args.length > 1 ? Integer.parseInt(args[1]) : 8080).start();
+				
+			} catch (IOException | SAXException | ParserConfigurationException e) {
+				
+				UIelements.reportException(e);
+				
+			}
+			
+			return;
+			
+		}
+		
+		// Schema and semantic checks in one read of the file, diagnostics in document order.
+		if (args.length > 0 && args[0].equals("--sax")) {
+			
+			try {
+				
+				SaxPipelineValidator pipeline = new SaxPipelineValidator(xsd_file);
+				
+				pipeline.setBudget(ErrorBudget.fromSystemProperty());
+				
+				pipeline.validate(xml_file).print();
+				
+			} catch (IOException | SAXException | ParserConfigurationException e) {
+				
+				UIelements.reportException(e);
+				
+			}
+			
+			ValidationMetrics.dump();
+			
+			return;
+			
+		}
+		
+		// The naming rules on a compact tree, for projects too large for a DOM.
+		if (args.length > 0 && args[0].equals("--compact")) {
+			
+			try {
+				
+				CompactValidator validator = new CompactValidator(xsd_file);
+				
+				// Only the pre-commit rules, unless -Dvalidator.rules asks for others, which fails below.
+				if (System.getProperty("validator.rules") != null) {
+					
+					validator.setRules(RuleSet.getDefault());
+					
+				}
+				
+				validator.setBudget(ErrorBudget.fromSystemProperty());
+				
+				UIelements.println("--compact checks the schema and the names only: " + String.join(", ", CompactValidator.RULES) + ".");
+				
+				validator.validate(xml_file).print();
+				
+			} catch (IllegalArgumentException e) {
+				
+				UIelements.println(e.getMessage());
+				
+				System.exit(2);
+				
+			} catch (IOException | SAXException | ParserConfigurationException e) {
+				
+				UIelements.reportException(e);
+				
+			}
+			
+			ValidationMetrics.dump();
+			
+			return;
+			
+		}
+		
+		// Large projects can be validated without loading the whole DOM.
+		if (args.length > 0 && args[0].equals("--stream")) {
+			
+			StreamingValidator.validate(xml_file, xsd_file);
+			
+			ValidationMetrics.dump();
+			
+			return;
+			
+		}
+		
 		 try {            
-	            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+	            ParserPool pool = ParserPool.forSchema(xsd_file);
 	            
-	            dbFactory.setValidating(true);
+	            PooledParser parser = pool.acquire();
 	            
-	            dbFactory.setNamespaceAware(true);
+	            Document doc;
 	            
-	            dbFactory.setAttribute("http://java.sun.com/xml/jaxp/properties/schemaLanguage",
-	                     "http://www.w3.org/2001/XMLSchema");
-	     
-	            dbFactory.setAttribute( "http://java.sun.com/xml/jaxp/properties/schemaSource", xsd_file);
+	            XMLErrorLogger eh;
 	            
-	            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+	            ValidationPhaseEvent phase = ValidationMetrics.beginPhase("parse");
 	            
-	            XMLErrorLogger eh = new XMLErrorLogger();
-	            
-	            dBuilder.setErrorHandler(eh);
-	            
-	            Document doc = dBuilder.parse(xml_file);
+	            try {
+	            	
+	            	// Plain, .gz or single project .zip. Badly broken files stop at the first -Dvalidator.max-errors schema errors.
+	            	doc = parser.parse(ProjectSource.single(xml_file.toPath()), ErrorBudget.fromSystemProperty());
+	            	
+	            	eh = parser.getErrorLogger();
+	            	
+	            } finally {
+	            	
+	            	pool.release(parser);
+	            	
+	            	ValidationMetrics.endPhase(phase);
+	            	
+	            }
 	            
 	            if (eh.everythingOk()) {
 	            	
@@ -50,11 +221,37 @@ public class MainEntry {
 	               
 	               project.setDom(doc);
 	               
+	               phase = ValidationMetrics.beginPhase("project-init");
+	               
 	               project.init();
 	               
+	               ValidationMetrics.endPhase(phase);
+	               
 	               project.setFile(xml_file);
 	               
-	               Validator.validateProject(project);
+	               if (args.length > 1 && args[0].equals("--report")) {
+	            	   
+	            	   // Write the diagnostics out of band (.sarif or .json) and leave the DOM as it is.
+	            	   write_report(Validator.validate(project), args[1]);
+	            	   
+	               } else if (args.length > 1 && args[0].equals("--annotate")) {
+	            	   
+	            	   ValidationReport report = Validator.validate(project);
+	            	   
+	            	   // The annotated file is copied from the original, so the DOM can go before writing it.
+	            	   report.detach();
+	            	   
+	            	   project = null;
+	            	   
+	            	   doc = null;
+	            	   
+	            	   write_annotated(report, xml_file, args[1]);
+	            	   
+	               } else {
+	            	   
+	            	   Validator.validateProject(project);
+	            	   
+	               }
 	               
 	            } else {
 	               
@@ -65,12 +262,67 @@ public class MainEntry {
 		 		}
 	        }
 		 
-		 catch (IOException | ParserConfigurationException | DOMException | SAXException e){
+		 catch (ErrorBudgetExceededException e) {
+			 
+			 UIelements.println(e.getMessage());
+			 
+		 }
+		 
+		 catch (IOException | ParserConfigurationException | DOMException | SAXException | XMLStreamException e){
 	        	
 	            UIelements.reportException(e);
 	            
 	        }
+		 
+		 // Written only when -Dvalidator.metrics=<file> is set.
+		 ValidationMetrics.dump();
 
 	}
+	
+	/**
+	 * Write a copy of the given project file with the diagnostics of the report
+	 * as SidValidationError nodes.
+	 * 
+	 * @param report
+	 * @param xml_file
+	 * @param file_name
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 */
+	private static void write_annotated(ValidationReport report, File xml_file, String file_name) throws IOException, XMLStreamException {
+		
+		ProjectSource source = ProjectSource.single(xml_file.toPath());
+		
+		try (InputStream in = source.open(); OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(file_name)), 1 << 16)) {
+			
+			new AnnotatedOutputWriter(out).write(in, source.getSystemId(), report);
+			
+		}
+		
+	}
+	
+	/**
+	 * Write the given report as SARIF if the file name ends in .sarif, as JSON otherwise.
+	 * 
+	 * @param report
+	 * @param file_name
+	 * @throws IOException
+	 */
+	private static void write_report(ValidationReport report, String file_name) throws IOException {
+		
+		try (Writer out = Files.newBufferedWriter(Paths.get(file_name), StandardCharsets.UTF_8)) {
+			
+			if (file_name.endsWith(".sarif")) {
+				
+				new SarifReportWriter(out).write(report);
+				
+			} else {
+				
+				new JsonReportWriter(out).write(report);
+				
+			}
+		}
+		
+	}
 
 }
@@ -0,0 +1,159 @@
+package validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through memory-mapped windows of its FileChannel, so the
+ * parser copies straight from the page cache instead of going through small
+ * buffered reads. Windows are mapped one after the other, which keeps the
+ * access sequential and lets files larger than 2 GB be read. Not thread-safe.
+ *
+ * Java can't unmap a buffer explicitly: a window stays mapped until its
+ * buffer is garbage collected, even after close(). A stream holds one window
+ * at a time, but a long --batch run that reads many files can keep the
+ * windows of files it finished reading mapped until the next collection.
+ * That costs address space and map entries, e.g. against vm.max_map_count on
+ * Linux, not heap or resident memory, as the pages are the page cache's.
+ * --serve reads request bodies and maps nothing.
+ */
+public class MappedInputStream extends InputStream {
+
+	static final long WINDOW = 1L << 26;
+
+	private FileChannel channel;
+	private long window;
+	private long size;
+	private long position;
+	private MappedByteBuffer buffer;
+
+	/**
+	 * Constructor
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public MappedInputStream(Path file) throws IOException {
+
+		this(file, WINDOW);
+
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param file
+	 * @param window the number of bytes mapped at a time.
+	 * @throws IOException
+	 */
+	MappedInputStream(Path file, long window) throws IOException {
+
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+
+		this.size = channel.size();
+
+		this.window = window;
+
+	}
+
+	@Override
+	public int read() throws IOException {
+
+		return next_window() ? buffer.get() & 0xFF : -1;
+
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+
+		if (length == 0) {
+
+			return 0;
+
+		}
+
+		if (! next_window()) {
+
+			return -1;
+
+		}
+
+		int count = Math.min(length, buffer.remaining());
+
+		buffer.get(bytes, offset, count);
+
+		return count;
+
+	}
+
+	@Override
+	public long skip(long count) throws IOException {
+
+		if (count <= 0 || ! next_window()) {
+
+			return 0;
+
+		}
+
+		int skipped = (int) Math.min(count, buffer.remaining());
+
+		buffer.position(buffer.position() + skipped);
+
+		return skipped;
+
+	}
+
+	@Override
+	public int available() {
+
+		long remaining = (buffer == null ? 0 : buffer.remaining()) + size - position;
+
+		return (int) Math.min(remaining, Integer.MAX_VALUE);
+
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		// The mapping itself goes away when the buffer is collected, see above.
+		buffer = null;
+
+		channel.close();
+
+	}
+
+	/**
+	 * Make sure the current window has bytes left, mapping the next one if needed.
+	 *
+	 * @return false at the end of the file.
+	 * @throws IOException
+	 */
+	private boolean next_window() throws IOException {
+
+		if (buffer != null && buffer.hasRemaining()) {
+
+			return true;
+
+		}
+
+		if (position >= size) {
+
+			return false;
+
+		}
+
+		long length = Math.min(window, size - position);
+
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+		position += length;
+
+		return true;
+
+	}
+
+}
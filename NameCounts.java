@@ -0,0 +1,94 @@
+package validator;
+
+/**
+ * Counts declarations by name. Names are compared the IEC 61131-3 way, case
+ * insensitively, through a NameMap: keys are made once when a name is first
+ * added, and counting or looking up a name allocates nothing.
+ */
+public class NameCounts {
+
+	private NameMap<Integer> counts;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param expected_size
+	 */
+	public NameCounts(int expected_size) {
+
+		counts = new NameMap<Integer>(expected_size);
+
+	}
+
+	/**
+	 * Normalize a name to its lookup key, for the maps and sets that hold keys.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public static String key(String name) {
+
+		return NameMap.key(name);
+
+	}
+
+	/**
+	 * Count one declaration of the given name.
+	 * 
+	 * @param name
+	 */
+	public void add(String name) {
+
+		Integer count = counts.get(name);
+
+		counts.put(name, count == null ? 1 : count + 1);
+
+	}
+
+	/**
+	 * Forget one declaration of the given name.
+	 * 
+	 * @param name
+	 */
+	public void remove(String name) {
+
+		Integer count = counts.get(name);
+
+		if (count != null) {
+
+			if (count == 1) {
+
+				counts.remove(name);
+
+			} else {
+
+				counts.put(name, count - 1);
+
+			}
+		}
+
+	}
+
+	/**
+	 * Get the number of declarations of the given name.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public int count(String name) {
+
+		Integer count = counts.get(name);
+
+		return count == null ? 0 : count;
+
+	}
+
+	public boolean contains(String name) {
+		return count(name) > 0;
+	}
+
+	public boolean isUnique(String name) {
+		return count(name) == 1;
+	}
+
+}
@@ -0,0 +1,364 @@
+package validator;
+
+import java.util.ArrayList;
+
+/**
+ * A hash map from names to values that compares names the IEC 61131-3 way,
+ * ignoring case and surrounding whitespace. The normalized key is made once
+ * when a name is added; a lookup hashes and compares the given name as it is,
+ * so it allocates nothing.
+ *
+ * Not thread-safe for writers. Any number of readers may share a map nobody
+ * changes any more.
+ *
+ * @param <V>
+ */
+public class NameMap<V> {
+
+	private static class Entry<V> {
+
+		String key;
+		int hash;
+		V value;
+		Entry<V> next;
+
+	}
+
+	private Entry<V>[] table;
+	private int size;
+
+	/**
+	 * Constructor
+	 *
+	 * @param expected_size
+	 */
+	public NameMap(int expected_size) {
+
+		table = new_table(Integer.highestOneBit(Math.max(16, expected_size * 4 / 3 + 1) - 1) << 1);
+
+	}
+
+	/**
+	 * Normalize a name to its key: trimmed and upper case, character by
+	 * character, the way lookups compare.
+	 *
+	 * @param name
+	 * @return the name itself if it is a key already.
+	 */
+	public static String key(String name) {
+
+		int end = trimmed_end(name);
+
+		int start = trimmed_start(name, end);
+
+		char[] key = null;
+
+		for (int i = start; i < end; i++) {
+
+			char c = fold(name.charAt(i));
+
+			if (key == null && c != name.charAt(i)) {
+
+				key = name.substring(start, end).toCharArray();
+
+			}
+
+			if (key != null) {
+
+				key[i - start] = c;
+
+			}
+		}
+
+		return key != null ? new String(key) : name.substring(start, end);
+
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean containsKey(CharSequence name) {
+		return find(name) != null;
+	}
+
+	/**
+	 * Get the value of a name.
+	 *
+	 * @param name
+	 * @return null if the name is not in the map.
+	 */
+	public V get(CharSequence name) {
+
+		Entry<V> entry = find(name);
+
+		return entry == null ? null : entry.value;
+
+	}
+
+	/**
+	 * Set the value of a name, adding the name if it is new.
+	 *
+	 * @param name
+	 * @param value
+	 * @return the previous value, or null.
+	 */
+	public V put(String name, V value) {
+
+		Entry<V> entry = find(name);
+
+		if (entry != null) {
+
+			V previous = entry.value;
+
+			entry.value = value;
+
+			return previous;
+
+		}
+
+		if (size >= table.length * 3 / 4) {
+
+			resize();
+
+		}
+
+		entry = new Entry<V>();
+
+		entry.key = key(name);
+
+		entry.hash = hash(name);
+
+		entry.value = value;
+
+		int slot = entry.hash & (table.length - 1);
+
+		entry.next = table[slot];
+
+		table[slot] = entry;
+
+		size++;
+
+		return null;
+
+	}
+
+	/**
+	 * Set the value of a name unless it already has one.
+	 *
+	 * @param name
+	 * @param value
+	 * @return the current value, or null if the given one was added.
+	 */
+	public V putIfAbsent(String name, V value) {
+
+		V current = get(name);
+
+		return current != null ? current : put(name, value);
+
+	}
+
+	/**
+	 * Get the keys of the map, in no particular order.
+	 *
+	 * @return
+	 */
+	public ArrayList<String> keys() {
+
+		ArrayList<String> keys = new ArrayList<String>(size);
+
+		for (Entry<V> head : table) {
+
+			for (Entry<V> entry = head; entry != null; entry = entry.next) {
+
+				keys.add(entry.key);
+
+			}
+		}
+
+		return keys;
+
+	}
+
+	/**
+	 * Remove a name.
+	 *
+	 * @param name
+	 * @return its value, or null if it was not in the map.
+	 */
+	public V remove(CharSequence name) {
+
+		int hash = hash(name);
+
+		int slot = hash & (table.length - 1);
+
+		Entry<V> previous = null;
+
+		for (Entry<V> entry = table[slot]; entry != null; previous = entry, entry = entry.next) {
+
+			if (entry.hash == hash && matches(entry.key, name)) {
+
+				if (previous == null) {
+
+					table[slot] = entry.next;
+
+				} else {
+
+					previous.next = entry.next;
+
+				}
+
+				size--;
+
+				return entry.value;
+
+			}
+		}
+
+		return null;
+
+	}
+
+	private Entry<V> find(CharSequence name) {
+
+		int hash = hash(name);
+
+		for (Entry<V> entry = table[hash & (table.length - 1)]; entry != null; entry = entry.next) {
+
+			if (entry.hash == hash && matches(entry.key, name)) {
+
+				return entry;
+
+			}
+		}
+
+		return null;
+
+	}
+
+	private void resize() {
+
+		Entry<V>[] old_table = table;
+
+		table = new_table(old_table.length * 2);
+
+		for (Entry<V> head : old_table) {
+
+			for (Entry<V> entry = head, next; entry != null; entry = next) {
+
+				next = entry.next;
+
+				int slot = entry.hash & (table.length - 1);
+
+				entry.next = table[slot];
+
+				table[slot] = entry;
+
+			}
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> Entry<V>[] new_table(int length) {
+
+		return (Entry<V>[]) new Entry<?>[length];
+
+	}
+
+	/**
+	 * Hash a name as its key would hash, without making the key.
+	 *
+	 * @param name
+	 * @return
+	 */
+	static int hash(CharSequence name) {
+
+		int end = trimmed_end(name);
+
+		int h = 0;
+
+		for (int i = trimmed_start(name, end); i < end; i++) {
+
+			h = 31 * h + fold(name.charAt(i));
+
+		}
+
+		return h ^ (h >>> 16);
+
+	}
+
+	/**
+	 * Compare a key with a name, ignoring the case and surrounding whitespace of the name.
+	 *
+	 * @param key
+	 * @param name
+	 * @return
+	 */
+	private static boolean matches(String key, CharSequence name) {
+
+		int end = trimmed_end(name);
+
+		int start = trimmed_start(name, end);
+
+		if (end - start != key.length()) {
+
+			return false;
+
+		}
+
+		for (int i = 0; i < key.length(); i++) {
+
+			if (fold(name.charAt(start + i)) != key.charAt(i)) {
+
+				return false;
+
+			}
+		}
+
+		return true;
+
+	}
+
+	private static char fold(char c) {
+
+		if (c >= 'a' && c <= 'z') {
+
+			return (char) (c - ('a' - 'A'));
+
+		}
+
+		return c < 0x80 ? c : Character.toUpperCase(c);
+
+	}
+
+	// The bounds String.trim() keeps.
+	private static int trimmed_end(CharSequence name) {
+
+		int end = name.length();
+
+		while (end > 0 && name.charAt(end - 1) <= ' ') {
+
+			end--;
+
+		}
+
+		return end;
+
+	}
+
+	private static int trimmed_start(CharSequence name, int end) {
+
+		int start = 0;
+
+		while (start < end && name.charAt(start) <= ' ') {
+
+			start++;
+
+		}
+
+		return start;
+
+	}
+
+}
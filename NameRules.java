@@ -0,0 +1,149 @@
+package validator;
+
+/**
+ * The naming checks of the header, data types, pous and variables. They only
+ * look at the name and the project symbols, so the DOM validators and
+ * CompactValidator share them. Every check returns the error message, or null
+ * if the name is fine.
+ */
+public class NameRules {
+
+	/**
+	 * Check the name attribute of the content header.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static String header_name_error(String name) {
+
+		if (name.trim().equals("")) {
+
+			return "Attribute \"name\" of element \"project\\contentHeader\" cannot be empty.";
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Check the name attribute of a data type.
+	 *
+	 * @param name
+	 * @param symbols
+	 * @return
+	 */
+	public static String data_type_name_error(String name, SymbolTable symbols) {
+
+		name = name.trim();
+
+		if (name.equals("")) {
+
+			return "The data type name cannot be empty.";
+
+		} else if (! IECUtilities.isValidIdentifier(name)) {
+
+			return "The data type name must be a valid identifier.";
+
+		} else if (IECWords.KEYWORDS.contains(name)) {
+
+			return "The data type name cannot be a reserved word.";
+
+		} else if (IECWords.STANDARD_POUS.contains(name)) {
+
+			return "A data type cannot have the same name as a standard POU.";
+
+		} else if (symbols.isUserPou(name)) {
+
+			return "A data type cannot have the same name as a user defined POU.";
+
+		} else if (! symbols.isUniqueTypeName(name)) {
+
+			return "The data type name is not unique.";
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Check the name attribute of a pou.
+	 *
+	 * @param name
+	 * @param symbols
+	 * @return
+	 */
+	public static String pou_name_error(String name, SymbolTable symbols) {
+
+		name = name.trim();
+
+		if (name.equals("")) {
+
+			return "The pou name attribute cannot be empty.";
+
+		} else if (! IECUtilities.isValidIdentifier(name)) {
+
+			return "The pou name attribute must be a valid identifier.";
+
+		} else if (IECWords.KEYWORDS.contains(name)) {
+
+			return "The pou name attribute cannot be a reserved word.";
+
+		} else if (IECWords.STANDARD_POUS.contains(name)) {
+
+			return "A pou name attribute cannot have the same name as a standard POU.";
+
+		} else if (! symbols.isUniquePouTypeName(name)) {
+
+			return "Pou name attribute must be uniqune amongst all the pou elements.";
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Check the name attribute of a variable.
+	 *
+	 * @param name
+	 * @param symbols
+	 * @param variable_names the names of the variables of the same pou.
+	 * @return
+	 */
+	public static String variable_name_error(String name, SymbolTable symbols, NameCounts variable_names) {
+
+		name = name.trim();
+
+		if (name.equals("")) {
+
+			return "The variable name attribute cannot be empty.";
+
+		} else if (! IECUtilities.isValidIdentifier(name)) {
+
+			return "The variable name attribute must be a valid identifier.";
+
+		} else if (IECWords.KEYWORDS.contains(name)) {
+
+			return "The variable name attribute cannot be a reserved word.";
+
+		} else if (IECWords.STANDARD_POUS.contains(name)) {
+
+			return "A variable name attribute cannot have the same name as a standard POU.";
+
+		} else if (symbols.isUserPou(name)) {
+
+			return "A variable name attribute cannot have the same name as a user dedined POU.";
+
+		} else if (! variable_names.isUnique(name)) {
+
+			return "The variable name attribute is not unique.";
+
+		}
+
+		return null;
+
+	}
+
+}
@@ -0,0 +1,133 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.validation.Schema;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Thread-safe pool of schema validating parsers. There is one pool per
+ * compiled schema. The factory is looked up once, and parsers are reset and
+ * reused between documents instead of being created for every file.
+ */
+public class ParserPool {
+
+	private static final int MAX_IDLE_PARSERS = Runtime.getRuntime().availableProcessors() * 2;
+
+	private static final ConcurrentHashMap<Schema, ParserPool> pools = new ConcurrentHashMap<Schema, ParserPool>();
+
+	private DocumentBuilderFactory factory;
+	private ConcurrentLinkedQueue<PooledParser> idle = new ConcurrentLinkedQueue<PooledParser>();
+	private AtomicInteger idle_count = new AtomicInteger();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param schema
+	 */
+	public ParserPool(Schema schema) {
+
+		factory = DocumentBuilderFactory.newInstance();
+
+		factory.setNamespaceAware(true);
+
+		factory.setSchema(schema);
+
+		// Validation reads every node, so expanding them lazily only adds work. This
+		// does not make the DOM safe to read from several threads; see PouValidationTask.
+		try {
+
+			factory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+
+		} catch (ParserConfigurationException e) {
+
+			// Not a Xerces based parser, its nodes are not deferred.
+
+		}
+
+	}
+
+	/**
+	 * Get the shared pool of the given xsd file.
+	 * 
+	 * @param xsd_file
+	 * @return
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public static ParserPool forSchema(File xsd_file) throws SAXException, IOException {
+
+		Schema schema = SchemaCache.getSchema(xsd_file);
+
+		ParserPool pool = pools.get(schema);
+
+		if (pool == null) {
+
+			pools.putIfAbsent(schema, new ParserPool(schema));
+
+			pool = pools.get(schema);
+
+		}
+
+		return pool;
+
+	}
+
+	/**
+	 * Take a parser out of the pool, creating one if none is idle.
+	 * 
+	 * @return
+	 * @throws ParserConfigurationException
+	 */
+	public PooledParser acquire() throws ParserConfigurationException {
+
+		PooledParser parser = idle.poll();
+
+		if (parser == null) {
+
+			synchronized (factory) {
+
+				// DocumentBuilderFactory is not thread-safe.
+				parser = new PooledParser(factory.newDocumentBuilder());
+
+			}
+
+		} else {
+
+			idle_count.decrementAndGet();
+
+		}
+
+		return parser;
+
+	}
+
+	/**
+	 * Reset the given parser and return it to the pool.
+	 * 
+	 * @param parser
+	 */
+	public void release(PooledParser parser) {
+
+		if (idle_count.incrementAndGet() > MAX_IDLE_PARSERS) {
+
+			idle_count.decrementAndGet();
+
+			return;
+
+		}
+
+		parser.reset();
+
+		idle.offer(parser);
+
+	}
+
+}
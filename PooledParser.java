@@ -0,0 +1,129 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.parsers.DocumentBuilder;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * A DocumentBuilder and the XMLErrorLogger that collects its schema errors.
+ * Instances are handed out by ParserPool and must be used by one thread at a
+ * time.
+ */
+public class PooledParser {
+
+	private DocumentBuilder builder;
+	private XMLErrorLogger error_logger;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param builder
+	 */
+	public PooledParser(DocumentBuilder builder) {
+
+		this.builder = builder;
+
+		reset();
+
+	}
+
+	/**
+	 * Parse the given file, reporting schema errors to the error logger.
+	 * 
+	 * @param xml_file
+	 * @return
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public Document parse(File xml_file) throws SAXException, IOException {
+
+		return builder.parse(xml_file);
+
+	}
+
+	/**
+	 * Parse the given file, aborting with an ErrorBudgetExceededException once
+	 * the schema errors exhaust the budget.
+	 * 
+	 * @param xml_file
+	 * @param budget
+	 * @return
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public Document parse(File xml_file, ErrorBudget budget) throws SAXException, IOException {
+
+		// reset() puts the plain error logger back.
+		builder.setErrorHandler(new BudgetErrorHandler(error_logger, budget));
+
+		return builder.parse(xml_file);
+
+	}
+
+	/**
+	 * Parse the document of the given source, plain, gzipped or in a zip,
+	 * aborting with an ErrorBudgetExceededException once the schema errors
+	 * exhaust the budget.
+	 *
+	 * @param source
+	 * @param budget
+	 * @return
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public Document parse(ProjectSource source, ErrorBudget budget) throws SAXException, IOException {
+
+		builder.setErrorHandler(new BudgetErrorHandler(error_logger, budget));
+
+		try (InputStream in = source.open()) {
+
+			return builder.parse(source.getInputSource(in));
+
+		}
+
+	}
+
+	/**
+	 * Parse a document read from a stream, e.g. a request body.
+	 * 
+	 * @param in
+	 * @param system_id the URI the document is reported under.
+	 * @return
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public Document parse(InputStream in, String system_id) throws SAXException, IOException {
+
+		return builder.parse(in, system_id);
+
+	}
+
+	public DocumentBuilder getBuilder() {
+		return builder;
+	}
+
+	public XMLErrorLogger getErrorLogger() {
+		return error_logger;
+	}
+
+	/**
+	 * Bring the pair back to its initial state. The builder keeps its compiled
+	 * schema, only the error logger of the previous document is discarded.
+	 * 
+	 */
+	public void reset() {
+
+		builder.reset();
+
+		error_logger = new XMLErrorLogger();
+
+		builder.setErrorHandler(error_logger);
+
+	}
+
+}
@@ -1,42 +1,85 @@
 package validator;
 
 import java.util.ArrayList;
-import java.util.Locale;
+import java.util.List;
 
 import org.w3c.dom.Element;
-
-import jdk.nashorn.internal.runtime.regexp.joni.Regex;
+import org.w3c.dom.Node;
 
 public class PouValidation {
 	
+	private ValidationContext context;
 	private Project project;
+	private SymbolTable symbols;
+	private TypeGraph types;
 	private PouTypeHandler pou_type_handler;
-	private DataTypeHandler data_type_handler;
-	private VarListHandler var_list_handler;
+	private ArrayList<VariableView> variables = new ArrayList<VariableView>();
+	private NameCounts variable_names;
+	private InitialValueParser initial_value_parser;
+	private InitialValueCache initial_values;
+	private DiagnosticCollector diagnostics;
+	private RuleSet rules;
+	private boolean interface_rules;
+	private boolean variable_rules;
 
-	/**
-     * Initialize the variable list handler class with the given pou interface element.
+    /**
+     * Constructor
      * 
-     * @param pou_interface
+     * @param context
+     * @param diagnostics
      */
-    private void set_var_list_handler(Element pou_interface) {
-    	
-    	this.var_list_handler = new VarListHandler(pou_interface);
-
+	public PouValidation(ValidationContext context, DiagnosticCollector diagnostics) {
+		
+		this(context, diagnostics, context.getProject().getInitialValueParser());
+		
 	}
-
-    /**
-     * Constructor
+	
+	/**
+     * Constructor for validations that must not share the project's initial value parser,
+     * e.g. when pous are validated in parallel.
      * 
-     * @param project
+     * @param context
+     * @param diagnostics
+     * @param initial_value_parser
      */
-	public PouValidation(Project project) {
+	public PouValidation(ValidationContext context, DiagnosticCollector diagnostics, InitialValueParser initial_value_parser) {
+		
+		this.context = context;
+		
+		this.project = context.getProject();
+		
+		this.symbols = context.getSymbols();
 		
-		this.project = project;
+		this.types = context.getTypes();
+		
+		this.initial_values = context.getInitialValues();
+		
+		this.diagnostics = diagnostics;
+		
+		this.initial_value_parser = initial_value_parser;
 		
 		this.pou_type_handler = project.getPouTypeHandler();
 		
-		this.data_type_handler = project.getDataTypeHandler();
+		this.rules = context.getRules();
+		
+		this.variable_rules = rules.isAnyEnabled(Rules.VARIABLE_NAME, Rules.VARIABLE_EN, Rules.VARIABLE_ENO, Rules.VARIABLE_ADDRESS, Rules.ADDRESS_PARTIAL, Rules.ADDRESS_FULL,
+				Rules.VARIABLE_TYPE, Rules.VARIABLE_INITIAL_VALUE, Rules.VARIABLE_STRUCT_VALUE) || ! rules.getRules(ValidationRule.VARIABLE).isEmpty();
+		
+		this.interface_rules = variable_rules || rules.isAnyEnabled(Rules.POU_RETURN_TYPE, Rules.POU_LIST_TYPE, Rules.POU_LIST_CONSTANT);
+		
+	}
+	
+	/**
+	 * Check if any rule checks pous or their variables, i.e. if the pous need to be visited at all.
+	 * 
+	 * @param rules
+	 * @return
+	 */
+	public static boolean hasRules(RuleSet rules) {
+		
+		return rules.isAnyEnabled(Rules.POU_NAME, Rules.POU_RETURN_TYPE, Rules.POU_LIST_TYPE, Rules.POU_LIST_CONSTANT, Rules.VARIABLE_NAME, Rules.VARIABLE_EN,
+				Rules.VARIABLE_ENO, Rules.VARIABLE_ADDRESS, Rules.ADDRESS_PARTIAL, Rules.ADDRESS_FULL, Rules.VARIABLE_TYPE, Rules.VARIABLE_INITIAL_VALUE,
+				Rules.VARIABLE_STRUCT_VALUE) || ! rules.getRules(ValidationRule.POU).isEmpty() || ! rules.getRules(ValidationRule.VARIABLE).isEmpty();
 		
 	}
     
@@ -46,22 +89,64 @@ public class PouValidation {
 	 */
 	public void validate() {
         
-        for (int i = 0; i < pou_type_handler.getNumberOfPouTypes() ; i++) {
+        for (int i = 0; i < pou_type_handler.getNumberOfPouTypes() && ! context.getBudget().isExhausted(); i++) {
         	
             Element pou = pou_type_handler.getPouTypeElement(i);
             
-            validate_pou_name_attribute(pou);
+            if (context.isSkipped(pou)) {
+            	
+            	continue;
+            	
+            }
             
-            Element pouInterface = XMLUtilities.findChildElement(pou, "interface");
+            ValidationCache.run(context, pou, diagnostics, () -> validate(pou));
+            
+        }
+		
+	}
+	
+	/**
+	 * Validate a single pou element of the project.
+	 * 
+	 * @param pou
+	 */
+	public void validate(Element pou) {
+		
+		ValidationMetrics.visit("pou");
+		
+		if (rules.isEnabled(Rules.POU_NAME)) {
+			
+			ValidationRuleEvent rule = ValidationMetrics.beginRule();
+			
+			validate_pou_name_attribute(pou);
+			
+			ValidationMetrics.endRule(rule, Rules.POU_NAME);
+			
+		}
+		
+		for (ValidationRule plugged_in : rules.getRules(ValidationRule.POU)) {
+			
+			ValidationRuleEvent rule = ValidationMetrics.beginRule();
+			
+			plugged_in.check(pou, context, diagnostics);
+			
+			ValidationMetrics.endRule(rule, plugged_in.getId());
+			
+		}
+		
+		if (! interface_rules) {
+			
+			return;
+			
+		}
+        
+        Element pouInterface = XMLUtilities.findChildElement(pou, "interface");
+        
+        // if interface element was found inside the pou element
+        if (pouInterface != null) {
+            
+            visit_interface(pou, pouInterface);
             
-            // if interface element was found inside the pou element
-            if (pouInterface != null) {
-                
-                validate_child_return_type(pou, pouInterface);
-                
-                validate_child_list_types(pou, pouInterface);
-                
-            }
         }
 		
 	}
@@ -73,33 +158,13 @@ public class PouValidation {
      */
     private void validate_pou_name_attribute(Element pou_element) {
         
-        String name_attribute = pou_element.getAttribute("name").trim();
-        
-        if (name_attribute.equals("")) {
-        	
-            Validator.createErrorNode(pou_element, "The pou name attribute cannot be empty.");
-            
-        } else if ( ! IECUtilities.isValidIdentifier(name_attribute)) {
-        	
-        	Validator.createErrorNode(pou_element, "The pou name attribute must be a valid identifier.");
-         
-        } else if (CommonLexer.isKeyword(name_attribute)) {
-        	
-        	Validator.createErrorNode(pou_element, "The pou name attribute cannot be a reserved word.");
-           
-        } else if (IECUtilities.isStandardPouName(name_attribute)){
-        	
-        	Validator.createErrorNode(pou_element, "A pou name attribute cannot have the same name as a standard POU.");
-            
-        } else if (project.getPouTypeHandler().isUserPou(name_attribute)) {
-        	
-        	Validator.createErrorNode(pou_element, "A pou name attribute cannot have the same name as a user dedined POU.");
-
-        } else if (! project.getPouTypeHandler().isUniquePouTypeName(name_attribute)) {
-        	
-        	Validator.createErrorNode(pou_element, "Pou name attribute must be uniqune amongst all the pou elements.");
-        	
-        }
+    	String error = NameRules.pou_name_error(pou_element.getAttribute("name"), symbols);
+    	
+    	if (error != null) {
+    		
+    		diagnostics.error(Rules.POU_NAME, pou_element, error);
+    		
+    	}
         
     }
     
@@ -107,28 +172,22 @@ public class PouValidation {
      * Validate interface child element returnType.
      * 
      * @param pou
-     * @param pou_interface
+     * @param returnType
      */
-    private void validate_child_return_type(Element pou, Element pou_interface) {
+    private void validate_child_return_type(Element pou, Element returnType) {
     	
-    	Element returnType = XMLUtilities.findChildElement(pou_interface, "returnType");
-        
-        // if returnType element was found inside the parent interface element.
-        if (returnType != null) {
-        	
-        	// The pouType of the interface element must only be of function type.
-            if (! pou.getAttribute("pouType").equals("function")) {
-            	
-            	Validator.createErrorNode(pou, "Only pou elements with pouType function can have a return type.");
-                
-            } else {
-            	
-                // Get the child element of the returnType element ( must only be one )
-                Element returnType_child = XMLUtilities.getSingleChildElement(returnType);
-                
-                validate_return_type_child_element(returnType_child);
-            }
-        }
+    	// The pouType of the interface element must only be of function type.
+    	if (! pou.getAttribute("pouType").equals("function")) {
+    		
+    		diagnostics.error(Rules.POU_RETURN_TYPE, pou, "Only pou elements with pouType function can have a return type.");
+    		
+    	} else {
+    		
+    		// Get the child element of the returnType element ( must only be one )
+    		Element returnType_child = XMLUtilities.getSingleChildElement(returnType);
+    		
+    		validate_return_type_child_element(returnType_child);
+    	}
     }
     
     /**
@@ -140,21 +199,21 @@ public class PouValidation {
         
         String element_tag_name = return_type_child.getTagName();
         
-        if (! IECUtilities.isAnyElementary(element_tag_name)) {
+        if (! IECWords.ELEMENTARY_TYPES.contains(element_tag_name)) {
         	
         	if (element_tag_name.equals("derived")) {
         		
         		String attribute_name_value = return_type_child.getAttribute("name").trim();
         		
-        		if (! data_type_handler.isUserType(attribute_name_value)) {
+        		if (! types.isUserType(attribute_name_value)) {
         			
-        			Validator.createErrorNode(return_type_child, "Unknown data type name: " + attribute_name_value + ".");
+        			diagnostics.error(Rules.POU_RETURN_TYPE, return_type_child, "Unknown data type name: " + attribute_name_value + ".");
                     
                 }
         		
         	} else {
         		
-        		Validator.createErrorNode(return_type_child, "Unknown return type child element:" + element_tag_name + ".");
+        		diagnostics.error(Rules.POU_RETURN_TYPE, return_type_child, "Unknown return type child element:" + element_tag_name + ".");
         		
         	}
         }
@@ -162,97 +221,250 @@ public class PouValidation {
     }
    
     /**
-     * Validate interface child list types.
+     * Walk the interface children once: check the return type and every variable
+     * list as they come, and collect a view of every variable for the variable rules.
+     * 
+     * @param pou
+     * @param pou_interface
+     */
+    private void visit_interface(Element pou, Element pou_interface) {
+    	
+    	variables.clear();
+    	
+    	for (Node child = pou_interface.getFirstChild(); child != null; child = child.getNextSibling()) {
+    		
+    		if (child.getNodeType() != Node.ELEMENT_NODE) {
+    			
+    			continue;
+    			
+    		}
+    		
+    		Element active = (Element) child;
+    		
+    		String active_element_tag_name = active.getTagName();
+    		
+    		if (active_element_tag_name.equals("returnType")) {
+    			
+    			if (rules.isEnabled(Rules.POU_RETURN_TYPE)) {
+    				
+    				ValidationRuleEvent rule = ValidationMetrics.beginRule();
+    				
+    				validate_child_return_type(pou, active);
+    				
+    				ValidationMetrics.endRule(rule, Rules.POU_RETURN_TYPE);
+    				
+    			}
+    			
+    		} else if (active_element_tag_name.endsWith("Vars")) {
+    			
+    			if (rules.isEnabled(Rules.POU_LIST_TYPE)) {
+    				
+    				ValidationRuleEvent rule = ValidationMetrics.beginRule();
+    				
+    				validate_unsupported_list_type(active);
+    				
+    				ValidationMetrics.endRule(rule, Rules.POU_LIST_TYPE);
+    				
+    			}
+    			
+    			if (rules.isEnabled(Rules.POU_LIST_CONSTANT)) {
+    				
+    				ValidationRuleEvent rule = ValidationMetrics.beginRule();
+    				
+    				validate_list_type_attributes(active);
+    				
+    				ValidationMetrics.endRule(rule, Rules.POU_LIST_CONSTANT);
+    				
+    			}
+    			
+    			if (variable_rules) {
+    				
+    				collect_variables(active);
+    				
+    			}
+    		}
+    	}
+    	
+    	if (variable_rules) {
+    		
+    		validate_variables(pou);
+    		
+    	}
+    }
+    
+    /**
+     * Add a view of every variable of the given list.
      * 
-     * @param pou_type
-     * @param pouInterface
+     * @param list
      */
-    private void validate_child_list_types(Element pou, Element pou_interface) {
+    private void collect_variables(Element list) {
     	
-    	set_var_list_handler(pou_interface);
+    	for (Node child = list.getFirstChild(); child != null; child = child.getNextSibling()) {
+    		
+    		if (child.getNodeType() == Node.ELEMENT_NODE && ((Element) child).getTagName().equals("variable")) {
+    			
+    			variables.add(new VariableView((Element) child, list, types));
+    			
+    		}
+    	}
+    	
+    }
+    
+    /**
+     * Send every collected variable to the enabled variable rules.
+     * 
+     * @param pou
+     */
+    private void validate_variables(Element pou) {
+    	
+    	if (rules.isEnabled(Rules.VARIABLE_NAME)) {
+    		
+    		variable_names = new NameCounts(variables.size());
+    		
+    		for (VariableView variable : variables) {
+    			
+    			variable_names.add(variable.getName());
+    			
+    		}
+    	}
+    	
+    	boolean check_address = rules.isAnyEnabled(Rules.VARIABLE_ADDRESS, Rules.ADDRESS_PARTIAL, Rules.ADDRESS_FULL);
+    	
+    	boolean check_initial_value = rules.isAnyEnabled(Rules.VARIABLE_INITIAL_VALUE, Rules.VARIABLE_STRUCT_VALUE);
     	
-    	validate_unsupported_list_types(pou_interface);
+    	List<ValidationRule> plugged_in_rules = rules.getRules(ValidationRule.VARIABLE);
     	
-        validate_list_type_attributes(pou_interface);
+    	String pou_name = pou.getAttribute("name").trim();
+    	
+    	String pou_type = pou.getAttribute("pouType").trim();
+    	
+    	ErrorBudget budget = context.getBudget();
         
-        for (int j = 0; j < var_list_handler.getNumberOfVariables(); j++) {
+        for (VariableView variable : variables) {
         	
-        	// Interface Child element
-            Element variable_element = var_list_handler.getVariableElement(j);
+        	if (budget.isExhausted()) {
+        		
+        		return;
+        		
+        	}
+            
+            ValidationMetrics.visit("variable");
+            
+            if (rules.isEnabled(Rules.VARIABLE_NAME)) {
             
-            validate_variable_name_attribute(variable_element);
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
+            
+            	validate_variable_name_attribute(variable);
+            
+            	ValidationMetrics.endRule(rule, Rules.VARIABLE_NAME);
+            	
+            }
+            
+            if (rules.isEnabled(Rules.VARIABLE_EN)) {
+            
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
+        	
+            	validate_variable_en(variable);
+        	
+            	ValidationMetrics.endRule(rule, Rules.VARIABLE_EN);
+            	
+            }
+            
+            if (rules.isEnabled(Rules.VARIABLE_ENO)) {
+            
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
+        	
+            	validate_variable_eno(variable);
+        	
+            	ValidationMetrics.endRule(rule, Rules.VARIABLE_ENO);
+            	
+            }
+        	
+            if (check_address) {
+            	
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
         	
-        	validate_variable_en(variable_element);
+            	validate_variable_address_attributes(variable, pou_type);
         	
-        	validate_variable_eno(variable_element);
+            	ValidationMetrics.endRule(rule, Rules.VARIABLE_ADDRESS);
+            	
+            }
+        	
+            if (rules.isEnabled(Rules.VARIABLE_TYPE)) {
+            	
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
         	
-        	validate_variable_address_attributes(variable_element, pou);
+            	validate_variable_child_type(variable, pou_name);
         	
-        	validate_variable_child_type(variable_element, pou);
+            	ValidationMetrics.endRule(rule, Rules.VARIABLE_TYPE);
+            	
+            }
         	
-        	validate_variable_child_initialValue(variable_element, pou);
+            if (check_initial_value && variable.getInitialValue() != null) {
+            	
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
+        	
+            	validate_variable_child_initialValue(variable);
+        	
+            	ValidationMetrics.endRule(rule, Rules.VARIABLE_INITIAL_VALUE);
+            	
+            }
+            
+            for (ValidationRule plugged_in : plugged_in_rules) {
+            	
+            	ValidationRuleEvent rule = ValidationMetrics.beginRule();
+            	
+            	if (plugged_in instanceof VariableRule) {
+            		
+            		((VariableRule) plugged_in).check(variable, context, diagnostics);
+            		
+            	} else {
+            	
+            		plugged_in.check(variable.getElement(), context, diagnostics);
+            		
+            	}
+            	
+            	ValidationMetrics.endRule(rule, plugged_in.getId());
+            	
+            }
              
         }
     }
 
 	/**
-     * Validate unssoported list_type elements.
+     * Validate an unsupported list type element.
      * 
-     * @param interface_element
+     * @param list
      */
-    private void validate_unsupported_list_types(Element interface_element) {
+    private void validate_unsupported_list_type(Element list) {
     	
-    	 ArrayList<Element> interface_element_childs = XMLUtilities.getChildrenElements(interface_element);
-    	 
-    	 for (int i = 0; i < interface_element_childs.size(); i++ ) {
-    		 
-    		 Element active = interface_element_childs.get(i);
-    		 
-    		 String active_element_tag_name = active.getTagName().trim();
-    		 
-    		 if (active_element_tag_name.matches("accessVars|globalVars")) {
-    			 
-    			 Element active_element_child = XMLUtilities.getSingleChildElement(active);
-    			 
-    			 if (active_element_child != null) {
-    				 
-    				 Validator.createErrorNode(active, "List types AccessVars or GlobalVars inside an interface element are only supported without child elements.");
-    				 
-    			 }
-    			 
-    		 }
-    		 
-    	 }
+    	if (list.getTagName().matches("accessVars|globalVars")) {
+    		
+    		Element list_child = XMLUtilities.getSingleChildElement(list);
+    		
+    		if (list_child != null) {
+    			
+    			diagnostics.error(Rules.POU_LIST_TYPE, list, "List types AccessVars or GlobalVars inside an interface element are only supported without child elements.");
+    			
+    		}
+    		
+    	}
     }
     
     /**
      * Validate list element constant attribute.
      * 
-     * @param interface_element
+     * @param list
      */
-    private void validate_list_type_attributes(Element interface_element) {
-    	
-    	ArrayList<Element> interface_element_childs = XMLUtilities.getChildrenElements(interface_element);
+    private void validate_list_type_attributes(Element list) {
     	
-    	for (int i = 0; i < interface_element_childs.size(); i++ ) {
-   		 
-    		Element active = interface_element_childs.get(i);
-   		 		
-   		 	String active_element_constant_attribute = active.getAttribute("constant").trim();
-   		 		
-   		 	if (active_element_constant_attribute != null) {
-   		    	
-   		 		if (active_element_constant_attribute.equals("true")) {
-   		 			
-   		 			String active_element_tag_name = active.getTagName().trim();
-   	    			
-   		 			if (! active_element_tag_name.matches("localVars|externalVars")) {
-   	        	     	
-   		 				Validator.createErrorNode(active, "Constant attribute value can only be false or null");
-   		 			}
-   	    			   			
-   		 		}
-   		 	}
+    	if (list.getAttribute("constant").trim().equals("true")) {
+    		
+    		if (! list.getTagName().matches("localVars|externalVars")) {
+    			
+    			diagnostics.error(Rules.POU_LIST_CONSTANT, list, "Constant attribute value can only be false or null");
+    		}
+    		
     	}
 
     }
@@ -260,62 +472,38 @@ public class PouValidation {
     /**
      * Validate the variable name attribute.
      * 
-     * @param variable_element
+     * @param variable
      */
-    private void validate_variable_name_attribute(Element variable_element) {
+    private void validate_variable_name_attribute(VariableView variable) {
     	
-    	String variable_element_name_attribute = variable_element.getAttribute("name").trim();
-        
-        if (variable_element_name_attribute.equals("")) {
-        	
-            Validator.createErrorNode(variable_element,"The variable name attribute cannot be empty.");
-            
-        } else if (!IECUtilities.isValidIdentifier(variable_element_name_attribute)) {
-        	
-        	Validator.createErrorNode(variable_element,"The variable name attribute must be a valid identifier.");
-         
-        } else if (CommonLexer.isKeyword(variable_element_name_attribute)) {
-        	
-        	Validator.createErrorNode(variable_element,"The variable name attribute cannot be a reserved word.");
-           
-        } else if (IECUtilities.isStandardPouName(variable_element_name_attribute)){
-        	
-        	Validator.createErrorNode(variable_element,"A variable name attribute cannot have the same name as a standard POU.");
-            
-        } else if (project.getPouTypeHandler().isUserPou(variable_element_name_attribute)) {
-        	
-        	Validator.createErrorNode(variable_element,"A variable name attribute cannot have the same name as a user dedined POU.");
-
-        } else if (! var_list_handler.isUniqueVariableName(variable_element_name_attribute)) {
-        	
-        	Validator.createErrorNode(variable_element,"The variable name attribute is not unique.");
-           
-        }
+    	String error = NameRules.variable_name_error(variable.getName(), symbols, variable_names);
+    	
+    	if (error != null) {
+    		
+    		diagnostics.error(Rules.VARIABLE_NAME, variable.getElement(), error);
+    		
+    	}
 
     }
     
     /**
      * Validate EN variables.
      * 
-     * @param variable_element
+     * @param variable
      */
-    private void validate_variable_en(Element variable_element) {
+    private void validate_variable_en(VariableView variable) {
     	
-    	if (variable_element.getAttribute("name").trim().equals("EN")) {
-    		
-        	String variable_type = VarListHandler.getVariableDataType(variable_element);
+    	if (variable.getName().equals("EN")) {
         	
-        	Element parent_node = (Element) variable_element.getParentNode();
-        	
-        	if (! parent_node.getTagName().equals("inputVars")) {
+        	if (! variable.getListKind().equals("inputVars")) {
         		
-        		Validator.createErrorNode(variable_element, "The variable parent node can only be an inputVar element.");
+        		diagnostics.error(Rules.VARIABLE_EN, variable.getElement(), "The variable parent node can only be an inputVar element.");
         		
         	} else {
         		
-        		if (! variable_type.equals("boolean")) {
+        		if (! variable.getDataType().equals("boolean")) {
         			
-            		Validator.createErrorNode(variable_element, "The variable must be of type boolean.");
+            		diagnostics.error(Rules.VARIABLE_EN, variable.getElement(), "The variable must be of type boolean.");
             		
             	}
         		
@@ -327,25 +515,21 @@ public class PouValidation {
     /**
      * Validate ENO variables.
      * 
-     * @param variable_element
+     * @param variable
      */
-    private void validate_variable_eno(Element variable_element) {
+    private void validate_variable_eno(VariableView variable) {
     	
-    	if (variable_element.getAttribute("name").trim().equals("ENO")) {
-    		
-        	String variable_type = VarListHandler.getVariableDataType(variable_element);
-        	
-        	Element parent_node = (Element) variable_element.getParentNode();
+    	if (variable.getName().equals("ENO")) {
         	
-        	if (! parent_node.getTagName().equals("outputVars")) {
+        	if (! variable.getListKind().equals("outputVars")) {
         		
-        		Validator.createErrorNode(variable_element, "The variable parent node can only be an outputVars element.");
+        		diagnostics.error(Rules.VARIABLE_ENO, variable.getElement(), "The variable parent node can only be an outputVars element.");
         		
         	} else {
         		
-        		if (! variable_type.equals("boolean")) {
+        		if (! variable.getDataType().equals("boolean")) {
         			
-            		Validator.createErrorNode(variable_element, "The variable must be of type boolean.");
+            		diagnostics.error(Rules.VARIABLE_ENO, variable.getElement(), "The variable must be of type boolean.");
             		
             	}
         		
@@ -357,37 +541,39 @@ public class PouValidation {
     /**
      * Validate the variables attributes.
      * 
-     * @param variable_element
-     * @param pou
+     * @param variable
+     * @param pou_type the pouType attribute of the parent pou.
      */
-    private void validate_variable_address_attributes(Element variable_element, Element pou) {
-    	
-    	String address_attribute = variable_element.getAttribute("address").trim();
-
-    	String variable_type = VarListHandler.getVariableDataType(variable_element);
-    	
-    	Element variable_parent = (Element) variable_element.getParentNode();
+    private void validate_variable_address_attributes(VariableView variable, String pou_type) {
     	
-    	String pou_type = pou.getAttribute("pouType").trim();
+    	String address_attribute = variable.getAddress();
 
-    	if (address_attribute != null && variable_parent.getTagName().trim().equals("localVars") 
-    								  && pou_type.matches("program|functionBlock")) {
-
-    		if (! address_attribute.equals("")) {
+    	if (! address_attribute.equals("") && variable.getListKind().equals("localVars") && pou_type.matches("program|functionBlock")) {
     			
-    			if (IECUtilities.isStandardFunctionBlockName(variable_type)) {
-            		
-            		Validator.createErrorNode(variable_element, "The variable type can't be of function block type.");
-            		
-            	} else if (pou_type.matches("program|functionBlock") && AddressUtilities.is_partial_address(address_attribute)) {
+    		if (IECWords.STANDARD_FUNCTION_BLOCKS.contains(variable.getDataType())) {
+    			
+    			if (rules.isEnabled(Rules.VARIABLE_ADDRESS)) {
+    				
+    				diagnostics.error(Rules.VARIABLE_ADDRESS, variable.getElement(), "The variable type can't be of function block type.");
+    				
+    			}
+    			
+    		} else if (AddressUtilities.is_partial_address(address_attribute)) {
 
-            		AddressUtilities.validate_partial_address(variable_element);
-                	
-            	} else if (pou_type.equals("program") && AddressUtilities.is_full_address(address_attribute)) {
-            		
-            		AddressUtilities.validate_full_address(variable_element, address_attribute);
-        			
-        		}
+    			if (rules.isEnabled(Rules.ADDRESS_PARTIAL)) {
+    				
+    				AddressUtilities.validate_partial_address(variable.getElement(), diagnostics);
+    				
+    			}
+    			
+    		} else if (pou_type.equals("program") && AddressUtilities.is_full_address(address_attribute)) {
+    			
+    			if (rules.isEnabled(Rules.ADDRESS_FULL)) {
+    				
+    				AddressUtilities.validate_full_address(variable.getElement(), address_attribute, diagnostics);
+    				
+    			}
+    			
     		}
 
     	}
@@ -397,19 +583,16 @@ public class PouValidation {
     /**
      * Validate the variable child types.
      * 
-     * @param variable_element
-     * @param pou witch is the parent pou element of the node.
+     * @param variable
+     * @param pou_name the trimmed name of the parent pou.
      */
-    private void validate_variable_child_type(Element variable_element, Element pou) {
-    	
-    	Element type_child_element = XMLUtilities.findChildElement(variable_element, "type");
+    private void validate_variable_child_type(VariableView variable, String pou_name) {
     	
-    	// Can only containt one element
-    	type_child_element = XMLUtilities.getSingleChildElement(type_child_element);
+    	Element type_child_element = variable.getType();
     	
     	String child_element_tag_name = type_child_element.getTagName();
     	
-    	if ( ! IECUtilities.isAnyElementary(child_element_tag_name) ) {
+    	if ( ! IECWords.ELEMENTARY_TYPES.contains(child_element_tag_name) ) {
         	
     		// If derived name attribute must be a user defined type.
             if (child_element_tag_name.equals("derived")) {
@@ -418,31 +601,24 @@ public class PouValidation {
                 
                 if (child_element_tag_name.equals("")) {
                 	
-                	Validator.createErrorNode(type_child_element, "Variable child type name of user defined type cannot be empty.");
+                	diagnostics.error(Rules.VARIABLE_TYPE, type_child_element, "Variable child type name of user defined type cannot be empty.");
                 	
                 } else {
                     
-                    if (! data_type_handler.isUserType(child_element_tag_name) && ! IECUtilities.isStandardFunctionBlockName("child_element_tag_name")) {
-                    	
-                    	Validator.createErrorNode(type_child_element, "Unknown variable type name: " + child_element_tag_name + ".");
+                    if (! types.isUserType(child_element_tag_name) && ! IECWords.STANDARD_FUNCTION_BLOCKS.contains(child_element_tag_name)) {
                     	
-                    } else {
+                    	diagnostics.error(Rules.VARIABLE_TYPE, type_child_element, "Unknown variable type name: " + child_element_tag_name + ".");
                     	
-                    	child_element_tag_name = child_element_tag_name.toUpperCase(Locale.ENGLISH);
-                        
-                        String pou_name_attribute = pou.getAttribute("name").trim().toUpperCase(Locale.ENGLISH);
-                        
-                        if (child_element_tag_name.equals(pou_name_attribute)) {
+                    } else if (child_element_tag_name.equalsIgnoreCase(pou_name)) {
                         	
-                        	Validator.createErrorNode(type_child_element, "A derived type child cannot have the same name as it pou parent element.");
+                    	diagnostics.error(Rules.VARIABLE_TYPE, type_child_element, "A derived type child cannot have the same name as it pou parent element.");
 
-                        }
                     }
                 }    
                 
             } else {
             	
-            	Validator.createErrorNode(type_child_element, "Unsupported variable child type: " + child_element_tag_name + ".");
+            	diagnostics.error(Rules.VARIABLE_TYPE, type_child_element, "Unsupported variable child type: " + child_element_tag_name + ".");
             	
             }
         }
@@ -452,62 +628,71 @@ public class PouValidation {
     /**
      * Validate child initialValue element.
      * 
-     * @param variable_element
-     * @param pou witch is the parent pou element of the node.
+     * @param variable a variable with an initialValue child.
      */
-    private void validate_variable_child_initialValue(Element variable_element, Element pou) {
+    private void validate_variable_child_initialValue(VariableView variable) {
     	
-    	Element initialValue = XMLUtilities.findChildElement(variable_element, "initialValue");
+    	Element initialValue = variable.getInitialValue();
     	
-    	// Max one element.
-    	if (initialValue != null) {
+    	boolean initial_value_rule = rules.isEnabled(Rules.VARIABLE_INITIAL_VALUE);
     		
-    		Element variable_parent = (Element) variable_element.getParentNode();
+    	if (variable.getListKind().matches("inOutVars|externalVars")) {
     		
-    		if (variable_parent.getTagName().matches("inOutVars|externalVars")) {
+    		if (initial_value_rule) {
     			
-    			Validator.createErrorNode(variable_element, "Variable with a initialValue child element can't have inOutVars or externalVars parent elements.");
+    			diagnostics.error(Rules.VARIABLE_INITIAL_VALUE, variable.getElement(), "Variable with a initialValue child element can't have inOutVars or externalVars parent elements.");
     			
-    		} else {
+    		}
     		
-    			String variable_type = VarListHandler.getVariableDataType(variable_element);
-    			
-    			Element initialValue_child = XMLUtilities.getSingleChildElement(initialValue);
+    	} else {
     		
-    			if (IECUtilities.isAnyElementary(variable_type)) {
+    		String variable_type = variable.getDataType();
+    		
+    		Element initialValue_child = XMLUtilities.getSingleChildElement(initialValue);
+    		
+    		if (IECWords.ELEMENTARY_TYPES.contains(variable_type)) {
+    			
+    			if (! initial_value_rule) {
+    				
+    				return;
+    				
+    			}
 
-    				if (initialValue_child.getTagName().equals("simpleValue")) {
+    			if (initialValue_child.getTagName().equals("simpleValue")) {
+    				
+    				SimpleValueResult result = validate_simple_value(initialValue_child, variable.getBaseType());
+    				
+    				if (result.isValid()) {
     					
-    					boolean validationResponse = validate_simple_value(initialValue);
-        				
-    					if (validationResponse) {
-                    	
-	    					Validator.createInfoNode(initialValue, Validator.infoValue);
-	                                    
-	    				} else {
-	                                	
-	    					Validator.createErrorNode(initialValue, Validator.errorMessage);
-	    				}
+    					diagnostics.info(Rules.VARIABLE_INITIAL_VALUE, initialValue, result.getValue());
     					
     				} else {
+    					
+    					diagnostics.error(Rules.VARIABLE_INITIAL_VALUE, initialValue, result.getMessage());
+    				}
     				
-    					Validator.createErrorNode(initialValue, "Variable of any type can only have a simpleValue as intialValues child element.");
+    			} else {
     				
-    				}
+    				diagnostics.error(Rules.VARIABLE_INITIAL_VALUE, initialValue, "Variable of any type can only have a simpleValue as intialValues child element.");
+    				
+    			}
     			
-    			} else if (IECUtilities.isStandardFunctionBlockName(variable_type)) {
+    		} else if (IECWords.STANDARD_FUNCTION_BLOCKS.contains(variable_type) || types.isStructType(variable_type)) {
     			
-    				if (initialValue_child.getTagName().equals("structValue")) {
+    			if (initialValue_child.getTagName().equals("structValue")) {
+    				
+    				if (rules.isEnabled(Rules.VARIABLE_STRUCT_VALUE)) {
     					
-    					validate_struct_value(initialValue_child, variable_element);
- 
-    				} else {
+    					validate_struct_value(initialValue_child, variable_type);
+    					
+    				}
     				
-    					Validator.createErrorNode(initialValue, "Variable of function block type can only have structValue as intialValues child element.");
+    			} else if (initial_value_rule) {
+    				
+    				diagnostics.error(Rules.VARIABLE_INITIAL_VALUE, initialValue, "Variable of function block or struct type can only have structValue as intialValues child element.");
     				
-    				}
-    			
     			}
+    			
     		}
     	}
 
@@ -516,132 +701,128 @@ public class PouValidation {
     /**
      * Simple initial value validation.
      * 
-     * @param initial_value
+     * @param simple_value
+     * @param baseTypeName the resolved elementary type the value must suit.
      * @return
      */
-    private boolean validate_simple_value(Element initial_value) {
+    private SimpleValueResult validate_simple_value(Element simple_value, String baseTypeName) {
+        
+        String svalue = simple_value.getAttribute("value");
         
-        InitialValueParser initialValueParser = project.getInitialValueParser();
+        SimpleValueResult cached = initial_values.get(svalue, baseTypeName);
         
-        initialValueParser.clear();
+        if (cached != null) {
+        	
+        	return cached;
+        	
+        }
         
-        String svalue = initial_value.getAttribute("value");
+        initial_value_parser.clear();
         
-        boolean retval = initialValueParser.parseExpr(svalue);
+        if (!initial_value_parser.parseExpr(svalue)) {
+        	
+        	SimpleValueResult result = SimpleValueResult.invalid(initial_value_parser.getErrorMessage());
+        	
+            return initial_value_parser.hasExternalDependencies() ? result : initial_values.put(svalue, baseTypeName, result);
+            
+        }
         
-        if (!retval) {
+        if (baseTypeName.equals("")) {
         	
-            Validator.createErrorNode(initial_value, initialValueParser.getErrorMessage());
+            return SimpleValueResult.invalid("Can't check suitability of the initial value. The base type is not well defined.");
             
-        } else {
+        }
+        
+        if (initial_value_parser.hasExternalDependencies()) {
 
-            String baseTypeName = initial_value.getAttribute("name").trim().toUpperCase(Locale.ENGLISH);
+            return SimpleValueResult.valid("");
             
-            if (data_type_handler.isUserType(baseTypeName)) {
-            	
-                baseTypeName = data_type_handler.getBaseType(baseTypeName);
-                
-            }
+        }
+        	
+        String javaValue = initial_value_parser.makeJavaExp(baseTypeName);
+        
+        if (javaValue == null) {
+        	
+            return initial_values.put(svalue, baseTypeName, SimpleValueResult.invalid("The initial value \"" + initial_value_parser.getValue() + "\" is not appropriate for data type " + baseTypeName));
             
-            if (!baseTypeName.equals("")) {
-
-				if (initialValueParser.hasExternalDependencies()) {
-
-                    Validator.infoValue = "";
-                    
-                } else {
-                	
-                    String javaValue = initialValueParser.makeJavaExp(baseTypeName);
-                    
-                    if (javaValue == null) {
-                    	
-                        Validator.errorMessage = "The initial value \"" + initialValueParser.getValue() + "\" is not appropriate for data type " + baseTypeName;
-                        retval = false;                    
-                    } else {
-                    	Validator.infoValue = javaValue;
-                    }
-                }
-            } else {
-                Validator.errorMessage = "Can't check suitability of the initial value. The base type is not well defined.";
-                
-                retval = false;
-            }
         }
-        return retval;
+        
+        return initial_values.put(svalue, baseTypeName, SimpleValueResult.valid(javaValue));
         
     }
 
     /**
-     * Validate the strucValue element.
+     * Validate the strucValue element against the members of the given type.
      * 
      * @param initialValue_child
-     * @param variable_element
+     * @param type_name a struct type or a standard function block.
      */
-    private void validate_struct_value(Element initialValue_child, Element variable_element) {
+    private void validate_struct_value(Element initialValue_child, String type_name) {
     	
     	ArrayList<Element> children_elements = XMLUtilities.getChildrenElements(initialValue_child);
     	
-    	if (children_elements.size() > 0) {
+    	for (int i = 0; i < children_elements.size(); i++) {
     		
-    		for (int i = 0; i < children_elements.size(); i++) {
-        		
-    			Element active = children_elements.get(i);
+    		Element active = children_elements.get(i);
+    		
+    		if (! active.getTagName().equals("value")) {
+    			
+    			diagnostics.error(Rules.VARIABLE_STRUCT_VALUE, active, "Valid child are only value elements.");
+    			
+    			continue;
+    			
+    		}
+    		
+    		String member_attribute = active.getAttribute("member").trim();
+    		
+    		if (member_attribute.isEmpty()) {
+    			
+    			diagnostics.error(Rules.VARIABLE_STRUCT_VALUE, active, "The member attribute is required.");
+    			
+    			continue;
     			
-    			if (active.getTagName().equals("value")) {
+    		}
+    		
+    		// Variables of inOutVars and externalVars never get here, validate_variable_child_initialValue rejects them.
+    		Element value_child_element = XMLUtilities.getSingleChildElement(active);
+    		
+    		String member_type = types.getMemberType(type_name, member_attribute);
+    		
+    		if (member_type == null) {
+    			
+    			diagnostics.error(Rules.VARIABLE_STRUCT_VALUE, active, type_name + " has no member " + member_attribute + ".");
+    			
+    		} else if (IECWords.STANDARD_FUNCTION_BLOCKS.contains(member_type) || types.isStructType(member_type)) {
+    			
+    			if (value_child_element.getTagName().equals("structValue")) {
     				
-    				String member_attribute = active.getAttribute("member").trim();
+    				validate_struct_value(value_child_element, member_type);
     				
-    				if (member_attribute != null) {
-    					
-    					Element variable_parent = (Element) variable_element.getParentNode();
-    					
-    					String variable_parent_tag = variable_parent.getTagName().trim();
-    					
-    					Element value_child_element = XMLUtilities.getSingleChildElement(active);
-    					
-    					if (variable_parent_tag.matches("inOutVars|externalVars")) {
-    						
-    						Validator.createErrorNode(initialValue_child, "Member attribute can't be inOutVars or externalVars");
-    						
-    					}
-    					
-    					if (! IECUtilities.isStandardFunctionBlockName(member_attribute)) {
-    						
-    						if (value_child_element.getTagName().equals("simpleValue")) {
-        	    				
-        	    				boolean validationResponse = validate_simple_value(value_child_element);
-        	    				
-        	    				if (validationResponse) {
-        	                    	
-        		    				Validator.createInfoNode(value_child_element, Validator.infoValue);
-        		                                    
-        		    			} else {
-        		                                	
-        		    				Validator.createErrorNode(value_child_element, Validator.errorMessage);
-        		    			}
-        	    				
-        	    			} else {
-        	    				
-        	    				Validator.createErrorNode(value_child_element, "Value element must contain a simpleValue element.");
-        	    				
-        	    			}
-    						
-    					} else {
-    						
-    						if (! value_child_element.getTagName().equals("structValue")) {
-        	    				
-        	    				Validator.createErrorNode(value_child_element, "Value element must contain a structValue element.");
-            	    		}
-    						
-    					}
-    						
-    				} else {
-    					Validator.createErrorNode(active, "The member attribute is required.");	
-    				}
     			} else {
-    				Validator.createErrorNode(active, "Valid child are only value elements.");	
-    			}	
-        	}	
+    				
+    				diagnostics.error(Rules.VARIABLE_STRUCT_VALUE, value_child_element, "Value element must contain a structValue element.");
+    				
+    			}
+    			
+    		} else if (! value_child_element.getTagName().equals("simpleValue")) {
+    			
+    			diagnostics.error(Rules.VARIABLE_STRUCT_VALUE, value_child_element, "Value element must contain a simpleValue element.");
+    			
+    		} else if (! member_type.isEmpty()) {
+    			
+    			// Members of other kinds, e.g. arrays, are not checked.
+    			SimpleValueResult result = validate_simple_value(value_child_element, types.getBaseType(member_type));
+    			
+    			if (result.isValid()) {
+    				
+    				diagnostics.info(Rules.VARIABLE_STRUCT_VALUE, value_child_element, result.getValue());
+    				
+    			} else {
+    				
+    				diagnostics.error(Rules.VARIABLE_STRUCT_VALUE, value_child_element, result.getMessage());
+    			}
+    			
+    		}
     	}
     }
     
@@ -0,0 +1,181 @@
+package validator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Validates a range of the project's pous with fork/join. Ranges are split in
+ * halves until they are small enough, each leaf gets its own PouValidation,
+ * DiagnosticCollector and initial value parser, and the collectors are merged
+ * left before right, so the result is the same as a serial run.
+ *
+ * A Xerces DOM updates its node list caches on plain reads, so it can't be
+ * read by several threads. Each leaf imports its pous into a document of its
+ * own, holding the lock of the project's document, and checks the copies.
+ * Plugged in rules see these copies, which have no parent. The diagnostics are
+ * pointed back at the original elements once all leaves are done.
+ */
+public class PouValidationTask extends RecursiveTask<DiagnosticCollector> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int THRESHOLD = 32;
+
+	private ValidationContext context;
+	private String[] pou_paths;
+	private int from;
+	private int to;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param context
+	 * @param pou_paths the paths of all the project's pous.
+	 * @param from index of the first pou, inclusive.
+	 * @param to index of the last pou, exclusive.
+	 */
+	public PouValidationTask(ValidationContext context, String[] pou_paths, int from, int to) {
+
+		this.context = context;
+
+		this.pou_paths = pou_paths;
+
+		this.from = from;
+
+		this.to = to;
+
+	}
+
+	/**
+	 * Validate every pou of the given project on the common fork/join pool.
+	 * 
+	 * @param context
+	 * @return the diagnostics in pou order.
+	 */
+	public static DiagnosticCollector validate(ValidationContext context) {
+
+		PouTypeHandler pou_type_handler = context.getProject().getPouTypeHandler();
+
+		String[] pou_paths = new String[pou_type_handler.getNumberOfPouTypes()];
+
+		ElementPaths paths = new ElementPaths();
+
+		for (int i = 0; i < pou_paths.length; i++) {
+
+			pou_paths[i] = paths.getPath(pou_type_handler.getPouTypeElement(i));
+
+		}
+
+		DiagnosticCollector diagnostics = ForkJoinPool.commonPool().invoke(new PouValidationTask(context, pou_paths, 0, pou_paths.length));
+
+		// The leaves are done, so this thread is the only one reading the document.
+		diagnostics.restoreOriginals();
+
+		return diagnostics;
+
+	}
+
+	@Override
+	protected DiagnosticCollector compute() {
+
+		if (context.getBudget().isExhausted()) {
+
+			return new DiagnosticCollector();
+
+		}
+
+		if (to - from <= THRESHOLD) {
+
+			DiagnosticCollector diagnostics = new DiagnosticCollector(context.getBudget(), context.getRules());
+
+			// The parser keeps the state of the last parsed value, so every leaf needs its own.
+			InitialValueParser initial_value_parser = new InitialValueParser();
+
+			initial_value_parser.resetConstants();
+
+			PouValidation pou_validation = new PouValidation(context, diagnostics, initial_value_parser);
+
+			Element[] copies = copy_pous(diagnostics);
+
+			for (int i = 0; i < copies.length && ! context.getBudget().isExhausted(); i++) {
+
+				Element pou = copies[i];
+
+				if (pou == null) {
+
+					continue;
+
+				}
+
+				ValidationCache.run(context, pou, diagnostics, () -> pou_validation.validate(pou));
+
+			}
+
+			return diagnostics;
+
+		}
+
+		int middle = (from + to) >>> 1;
+
+		PouValidationTask left = new PouValidationTask(context, pou_paths, from, middle);
+
+		PouValidationTask right = new PouValidationTask(context, pou_paths, middle, to);
+
+		left.fork();
+
+		DiagnosticCollector right_diagnostics = right.compute();
+
+		DiagnosticCollector diagnostics = left.join();
+
+		diagnostics.addAll(right_diagnostics);
+
+		return diagnostics;
+
+	}
+
+	/**
+	 * Import the pous of the range into a document of this leaf. Skipped pous
+	 * are left out.
+	 * 
+	 * @param diagnostics the collector the copies report into.
+	 * @return the copies in pou order, null for a skipped pou.
+	 */
+	private Element[] copy_pous(DiagnosticCollector diagnostics) {
+
+		PouTypeHandler pou_type_handler = context.getProject().getPouTypeHandler();
+
+		Document document = context.getProject().getDom();
+
+		Element[] copies = new Element[to - from];
+
+		synchronized (document) {
+
+			Document copy_document = document.getImplementation().createDocument(null, null, null);
+
+			for (int i = from; i < to; i++) {
+
+				Element pou = pou_type_handler.getPouTypeElement(i);
+
+				if (context.isSkipped(pou)) {
+
+					continue;
+
+				}
+
+				Element copy = (Element) copy_document.importNode(pou, true);
+
+				diagnostics.addCopy(copy, pou, pou_paths[i]);
+
+				copies[i - from] = copy;
+
+			}
+		}
+
+		return copies;
+
+	}
+
+}
@@ -0,0 +1,572 @@
+package validator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes synthetic PLCopen TC6 projects for load and scaling tests. The output
+ * is streamed with an XMLStreamWriter, so projects of any size can be written
+ * without holding them in memory.
+ *
+ * The documents conform to the tc6_0201 schema. Injected defects are semantic
+ * only (reserved or duplicate names, unknown types, bad addresses and initial
+ * values), so they are caught by the custom checks and not by the schema.
+ */
+public class ProjectGenerator {
+
+	public static final String NAMESPACE = "http://www.plcopen.org/xml/tc6_0201";
+	private static final String XHTML_NAMESPACE = "http://www.w3.org/1999/xhtml";
+
+	private static final String[] ELEMENTARY_TYPES = { "BOOL", "INT", "DINT", "REAL", "WORD", "TIME" };
+	private static final String[] INITIAL_VALUES = { "FALSE", "0", "100", "1.5", "16#FF", "T#0s" };
+	private static final String[] ADDRESS_SIZES = { "X", "W", "D", "D", "W", "D" };
+
+	// Defects, each only drawn for elements it can be written to.
+	private static final String KEYWORD_NAME = "keyword-name";
+	private static final String DUPLICATE_NAME = "duplicate-name";
+	private static final String UNKNOWN_TYPE = "unknown-type";
+	private static final String BAD_ADDRESS = "bad-address";
+	private static final String BAD_INITIAL_VALUE = "bad-initial-value";
+	private static final String EMPTY_NAME = "empty-name";
+
+	private int pous = 100;
+	private int variables_per_interface = 10;
+	private int derived_depth = 3;
+	private double located_share = 0.1;
+	private int struct_depth = 1;
+	private double defect_rate = 0.0;
+	private long seed = 1;
+
+	private Random random;
+	private int defects_written;
+	private String previous_pou_name;
+	private String previous_variable_name;
+
+	public void setPous(int pous) {
+		this.pous = pous;
+	}
+
+	public void setVariablesPerInterface(int variables_per_interface) {
+		this.variables_per_interface = variables_per_interface;
+	}
+
+	public void setDerivedDepth(int derived_depth) {
+		this.derived_depth = derived_depth;
+	}
+
+	public void setLocatedShare(double located_share) {
+		this.located_share = located_share;
+	}
+
+	public void setStructDepth(int struct_depth) {
+		this.struct_depth = struct_depth;
+	}
+
+	public void setDefectRate(double defect_rate) {
+		this.defect_rate = defect_rate;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public int getDefectsWritten() {
+		return defects_written;
+	}
+
+	/**
+	 * Write a project to the given stream. The same settings and seed always
+	 * produce the same document.
+	 *
+	 * @param out
+	 * @throws XMLStreamException
+	 */
+	public void write(OutputStream out) throws XMLStreamException {
+
+		random = new Random(seed);
+
+		defects_written = 0;
+
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+
+		writer.writeStartDocument("UTF-8", "1.0");
+
+		writer.setDefaultNamespace(NAMESPACE);
+
+		writer.writeStartElement(NAMESPACE, "project");
+
+		writer.writeDefaultNamespace(NAMESPACE);
+
+		write_headers(writer);
+
+		writer.writeStartElement(NAMESPACE, "types");
+
+		write_data_types(writer);
+
+		writer.writeStartElement(NAMESPACE, "pous");
+
+		for (int i = 0; i < pous; i++) {
+
+			write_pou(writer, i);
+
+		}
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+		writer.writeStartElement(NAMESPACE, "instances");
+
+		writer.writeEmptyElement(NAMESPACE, "configurations");
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+		writer.writeEndDocument();
+
+		writer.flush();
+
+		writer.close();
+
+	}
+
+	/**
+	 * Write the file and content headers the schema requires.
+	 *
+	 * @param writer
+	 * @throws XMLStreamException
+	 */
+	private void write_headers(XMLStreamWriter writer) throws XMLStreamException {
+
+		writer.writeEmptyElement(NAMESPACE, "fileHeader");
+
+		writer.writeAttribute("companyName", "Generated");
+
+		writer.writeAttribute("productName", "ProjectGenerator");
+
+		writer.writeAttribute("productVersion", "1.0");
+
+		writer.writeAttribute("creationDateTime", "2000-01-01T00:00:00");
+
+		writer.writeStartElement(NAMESPACE, "contentHeader");
+
+		writer.writeAttribute("name", "Generated" + seed);
+
+		writer.writeStartElement(NAMESPACE, "coordinateInfo");
+
+		for (String language : new String[] { "fbd", "ld", "sfc" }) {
+
+			writer.writeStartElement(NAMESPACE, language);
+
+			writer.writeEmptyElement(NAMESPACE, "scaling");
+
+			writer.writeAttribute("x", "1");
+
+			writer.writeAttribute("y", "1");
+
+			writer.writeEndElement();
+
+		}
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+	}
+
+	/**
+	 * Write one derived type chain per elementary type: T_<type>_0 has the
+	 * elementary base type and T_<type>_<n> derives from T_<type>_<n-1>.
+	 *
+	 * @param writer
+	 * @throws XMLStreamException
+	 */
+	private void write_data_types(XMLStreamWriter writer) throws XMLStreamException {
+
+		writer.writeStartElement(NAMESPACE, "dataTypes");
+
+		for (int t = 0; t < ELEMENTARY_TYPES.length; t++) {
+
+			for (int level = 0; level < derived_depth; level++) {
+
+				writer.writeStartElement(NAMESPACE, "dataType");
+
+				writer.writeAttribute("name", chain_type_name(t, level));
+
+				writer.writeStartElement(NAMESPACE, "baseType");
+
+				if (level == 0) {
+
+					writer.writeEmptyElement(NAMESPACE, ELEMENTARY_TYPES[t]);
+
+				} else {
+
+					writer.writeEmptyElement(NAMESPACE, "derived");
+
+					writer.writeAttribute("name", chain_type_name(t, level - 1));
+
+				}
+
+				writer.writeEndElement();
+
+				writer.writeStartElement(NAMESPACE, "initialValue");
+
+				writer.writeEmptyElement(NAMESPACE, "simpleValue");
+
+				writer.writeAttribute("value", INITIAL_VALUES[t]);
+
+				writer.writeEndElement();
+
+				writer.writeEndElement();
+
+			}
+		}
+
+		writer.writeEndElement();
+
+	}
+
+	/**
+	 * Write a pou with its interface and a short ST body.
+	 *
+	 * @param writer
+	 * @param index
+	 * @throws XMLStreamException
+	 */
+	private void write_pou(XMLStreamWriter writer, int index) throws XMLStreamException {
+
+		boolean program = index % 3 == 0;
+
+		String name = "P_" + index;
+
+		String defect = index > 0 ? next_defect(KEYWORD_NAME, DUPLICATE_NAME) : next_defect(KEYWORD_NAME);
+
+		if (KEYWORD_NAME.equals(defect)) {
+
+			name = "IF";
+
+		} else if (DUPLICATE_NAME.equals(defect)) {
+
+			name = previous_pou_name;
+
+		}
+
+		previous_pou_name = name;
+
+		writer.writeStartElement(NAMESPACE, "pou");
+
+		writer.writeAttribute("name", name);
+
+		writer.writeAttribute("pouType", program ? "program" : "functionBlock");
+
+		writer.writeStartElement(NAMESPACE, "interface");
+
+		writer.writeStartElement(NAMESPACE, "localVars");
+
+		for (int j = 0; j < variables_per_interface; j++) {
+
+			write_variable(writer, index, j, program);
+
+		}
+
+		if (struct_depth > 0) {
+
+			write_timer_variable(writer);
+
+		}
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+		writer.writeStartElement(NAMESPACE, "body");
+
+		writer.writeStartElement(NAMESPACE, "ST");
+
+		writer.writeStartElement("", "xhtml", XHTML_NAMESPACE);
+
+		writer.writeDefaultNamespace(XHTML_NAMESPACE);
+
+		writer.writeCharacters("v_0 := v_0;");
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+	}
+
+	/**
+	 * Write one variable. Some are typed with a derived chain, some are located.
+	 *
+	 * @param writer
+	 * @param pou_index
+	 * @param index
+	 * @param program
+	 * @throws XMLStreamException
+	 */
+	private void write_variable(XMLStreamWriter writer, int pou_index, int index, boolean program) throws XMLStreamException {
+
+		int t = random.nextInt(ELEMENTARY_TYPES.length);
+
+		boolean derived = derived_depth > 0 && random.nextInt(4) == 0;
+
+		boolean located = program && random.nextDouble() < located_share;
+
+		String defect;
+
+		if (located && index > 0) {
+
+			defect = next_defect(KEYWORD_NAME, DUPLICATE_NAME, EMPTY_NAME, UNKNOWN_TYPE, BAD_ADDRESS, BAD_INITIAL_VALUE);
+
+		} else if (located) {
+
+			defect = next_defect(KEYWORD_NAME, EMPTY_NAME, UNKNOWN_TYPE, BAD_ADDRESS, BAD_INITIAL_VALUE);
+
+		} else if (index > 0) {
+
+			defect = next_defect(KEYWORD_NAME, DUPLICATE_NAME, EMPTY_NAME, UNKNOWN_TYPE, BAD_INITIAL_VALUE);
+
+		} else {
+
+			defect = next_defect(KEYWORD_NAME, EMPTY_NAME, UNKNOWN_TYPE, BAD_INITIAL_VALUE);
+
+		}
+
+		String name = "v_" + index;
+
+		if (KEYWORD_NAME.equals(defect)) {
+
+			name = "IF";
+
+		} else if (DUPLICATE_NAME.equals(defect)) {
+
+			name = previous_variable_name;
+
+		} else if (EMPTY_NAME.equals(defect)) {
+
+			name = " ";
+
+		}
+
+		previous_variable_name = name;
+
+		writer.writeStartElement(NAMESPACE, "variable");
+
+		writer.writeAttribute("name", name);
+
+		if (located) {
+
+			String address = "%" + (pou_index % 2 == 0 ? "I" : "Q") + ADDRESS_SIZES[t] + (pou_index + 1) + (t == 0 ? "." + random.nextInt(8) : "");
+
+			writer.writeAttribute("address", BAD_ADDRESS.equals(defect) ? "%IX1.9" : address);
+
+		}
+
+		writer.writeStartElement(NAMESPACE, "type");
+
+		if (UNKNOWN_TYPE.equals(defect)) {
+
+			writer.writeEmptyElement(NAMESPACE, "derived");
+
+			writer.writeAttribute("name", "MISSING_TYPE");
+
+		} else if (derived) {
+
+			writer.writeEmptyElement(NAMESPACE, "derived");
+
+			writer.writeAttribute("name", chain_type_name(t, random.nextInt(derived_depth)));
+
+		} else {
+
+			writer.writeEmptyElement(NAMESPACE, ELEMENTARY_TYPES[t]);
+
+		}
+
+		writer.writeEndElement();
+
+		writer.writeStartElement(NAMESPACE, "initialValue");
+
+		writer.writeEmptyElement(NAMESPACE, "simpleValue");
+
+		writer.writeAttribute("value", BAD_INITIAL_VALUE.equals(defect) ? "16#" : INITIAL_VALUES[t]);
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+	}
+
+	/**
+	 * Write a TON instance whose initial value is a structValue nested
+	 * struct_depth levels deep.
+	 *
+	 * @param writer
+	 * @throws XMLStreamException
+	 */
+	private void write_timer_variable(XMLStreamWriter writer) throws XMLStreamException {
+
+		writer.writeStartElement(NAMESPACE, "variable");
+
+		writer.writeAttribute("name", "timer");
+
+		writer.writeStartElement(NAMESPACE, "type");
+
+		writer.writeEmptyElement(NAMESPACE, "derived");
+
+		writer.writeAttribute("name", "TON");
+
+		writer.writeEndElement();
+
+		writer.writeStartElement(NAMESPACE, "initialValue");
+
+		write_struct_value(writer, struct_depth);
+
+		writer.writeEndElement();
+
+		writer.writeEndElement();
+
+	}
+
+	private void write_struct_value(XMLStreamWriter writer, int depth) throws XMLStreamException {
+
+		writer.writeStartElement(NAMESPACE, "structValue");
+
+		writer.writeStartElement(NAMESPACE, "value");
+
+		writer.writeAttribute("member", "PT");
+
+		writer.writeEmptyElement(NAMESPACE, "simpleValue");
+
+		writer.writeAttribute("value", "T#1s");
+
+		writer.writeEndElement();
+
+		if (depth > 1) {
+
+			writer.writeStartElement(NAMESPACE, "value");
+
+			writer.writeAttribute("member", "TON");
+
+			write_struct_value(writer, depth - 1);
+
+			writer.writeEndElement();
+
+		}
+
+		writer.writeEndElement();
+
+	}
+
+	/**
+	 * Draw whether the next element gets a defect, and which of the given ones.
+	 * The caller writes every defect it gets, so each one is counted.
+	 *
+	 * @param applicable the defects that can be written to the element.
+	 * @return the defect, or null.
+	 */
+	private String next_defect(String... applicable) {
+
+		if (defect_rate <= 0 || random.nextDouble() >= defect_rate) {
+
+			return null;
+
+		}
+
+		defects_written++;
+
+		return applicable[random.nextInt(applicable.length)];
+
+	}
+
+	private static String chain_type_name(int type, int level) {
+
+		return "T_" + ELEMENTARY_TYPES[type] + "_" + level;
+
+	}
+
+	/**
+	 * Command line entry:
+	 * --pous n --vars n --depth n --located share --struct n --defects rate --seed n output.xml
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+
+		ProjectGenerator generator = new ProjectGenerator();
+
+		String output = null;
+
+		for (int i = 0; i < args.length; i++) {
+
+			switch (args[i]) {
+
+			case "--pous":
+				generator.setPous(Integer.parseInt(args[++i]));
+				break;
+
+			case "--vars":
+				generator.setVariablesPerInterface(Integer.parseInt(args[++i]));
+				break;
+
+			case "--depth":
+				generator.setDerivedDepth(Integer.parseInt(args[++i]));
+				break;
+
+			case "--located":
+				generator.setLocatedShare(Double.parseDouble(args[++i]));
+				break;
+
+			case "--struct":
+				generator.setStructDepth(Integer.parseInt(args[++i]));
+				break;
+
+			case "--defects":
+				generator.setDefectRate(Double.parseDouble(args[++i]));
+				break;
+
+			case "--seed":
+				generator.setSeed(Long.parseLong(args[++i]));
+				break;
+
+			default:
+				output = args[i];
+
+			}
+		}
+
+		if (output == null) {
+
+			UIelements.println("Usage: ProjectGenerator [--pous n] [--vars n] [--depth n] [--located share] [--struct n] [--defects rate] [--seed n] output.xml");
+
+			return;
+
+		}
+
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(output)), 1 << 16)) {
+
+			generator.write(out);
+
+			UIelements.println("Wrote " + output + " with " + generator.getDefectsWritten() + " injected defects.");
+
+		} catch (IOException | XMLStreamException e) {
+
+			UIelements.reportException(e);
+
+		}
+
+	}
+
+}
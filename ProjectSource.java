@@ -0,0 +1,252 @@
+package validator;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.xml.sax.InputSource;
+
+/**
+ * Where a project document is read from: a plain xml file, a gzipped file or
+ * an xml entry of a zip archive, which may hold many projects. Plain files are
+ * read through MappedInputStream, gzipped files are inflated from one, and zip
+ * entries are inflated from the archive with reads as large as the entry
+ * allows. Nothing is unpacked to disk. Sources can be opened by several
+ * threads at once.
+ */
+public class ProjectSource {
+
+	private static final int GZIP_BUFFER = 1 << 16;
+
+	private Path file;
+	private String entry_name;
+
+	private ProjectSource(Path file, String entry_name) {
+
+		this.file = file;
+
+		this.entry_name = entry_name;
+
+	}
+
+	/**
+	 * Get the projects of the given file: the file itself, or every xml entry
+	 * of a zip archive, in archive order.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static List<ProjectSource> list(Path file) throws IOException {
+
+		ArrayList<ProjectSource> sources = new ArrayList<ProjectSource>();
+
+		if (! is_zip(file)) {
+
+			sources.add(new ProjectSource(file, null));
+
+			return sources;
+
+		}
+
+		try (ZipFile zip = new ZipFile(file.toFile())) {
+
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+
+			while (entries.hasMoreElements()) {
+
+				ZipEntry entry = entries.nextElement();
+
+				if (! entry.isDirectory() && entry.getName().toLowerCase(Locale.ENGLISH).endsWith(".xml")) {
+
+					sources.add(new ProjectSource(file, entry.getName()));
+
+				}
+			}
+		}
+
+		return sources;
+
+	}
+
+	/**
+	 * Get the only project of the given file.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException if the file is an archive without exactly one project.
+	 */
+	public static ProjectSource single(Path file) throws IOException {
+
+		List<ProjectSource> sources = list(file);
+
+		if (sources.size() != 1) {
+
+			throw new IOException(file + " contains " + sources.size() + " projects. Validate archives of several projects with --batch.");
+
+		}
+
+		return sources.get(0);
+
+	}
+
+	/**
+	 * Check if a file name is one of the inputs list() accepts.
+	 *
+	 * @param file
+	 * @return
+	 */
+	public static boolean isSupported(Path file) {
+
+		String name = file.getFileName().toString().toLowerCase(Locale.ENGLISH);
+
+		return name.endsWith(".xml") || name.endsWith(".gz") || name.endsWith(".zip");
+
+	}
+
+	/**
+	 * Open the document for reading. The caller closes the stream.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public InputStream open() throws IOException {
+
+		if (entry_name != null) {
+
+			ZipFile zip = new ZipFile(file.toFile());
+
+			try {
+
+				ZipEntry entry = zip.getEntry(entry_name);
+
+				if (entry == null) {
+
+					throw new IOException("No entry " + entry_name + " in " + file + ".");
+
+				}
+
+				// Closing the entry closes the archive it came from.
+				return new FilterInputStream(zip.getInputStream(entry)) {
+
+					@Override
+					public void close() throws IOException {
+
+						try {
+
+							super.close();
+
+						} finally {
+
+							zip.close();
+
+						}
+					}
+
+				};
+
+			} catch (IOException e) {
+
+				zip.close();
+
+				throw e;
+
+			}
+		}
+
+		if (file.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".gz")) {
+
+			MappedInputStream in = new MappedInputStream(file);
+
+			try {
+
+				return new GZIPInputStream(in, GZIP_BUFFER);
+
+			} catch (IOException e) {
+
+				in.close();
+
+				throw e;
+
+			}
+		}
+
+		return new MappedInputStream(file);
+
+	}
+
+	/**
+	 * Get an InputSource of the opened stream, with the system id set, for the parsers.
+	 *
+	 * @param in a stream of open().
+	 * @return
+	 */
+	public InputSource getInputSource(InputStream in) {
+
+		InputSource input = new InputSource(in);
+
+		input.setSystemId(getSystemId());
+
+		return input;
+
+	}
+
+	/**
+	 * Get the URI the document is reported under, a jar: URI for zip entries.
+	 *
+	 * @return
+	 */
+	public String getSystemId() {
+
+		String uri = file.toUri().toString();
+
+		return entry_name == null ? uri : "jar:" + uri + "!/" + entry_name;
+
+	}
+
+	/**
+	 * Get the path the document is shown under, e.g. exports/plant.zip/line1.xml
+	 * for a zip entry.
+	 *
+	 * @return
+	 */
+	public Path getPath() {
+
+		return entry_name == null ? file : file.resolve(entry_name);
+
+	}
+
+	/**
+	 * Get the file on disk, the archive for zip entries.
+	 *
+	 * @return
+	 */
+	public File getFile() {
+
+		return file.toFile();
+
+	}
+
+	private static boolean is_zip(Path file) {
+
+		return file.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".zip");
+
+	}
+
+	@Override
+	public String toString() {
+
+		return getPath().toString();
+
+	}
+
+}
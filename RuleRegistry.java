@@ -0,0 +1,74 @@
+package validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The rules plugged in through ServiceLoader. They are loaded once per JVM, on
+ * first use.
+ */
+public class RuleRegistry {
+
+	private static List<ValidationRule> rules;
+
+	/**
+	 * Get the plugged in rules.
+	 * 
+	 * @return
+	 * @throws IllegalStateException if two rules share an id or a rule uses the
+	 *         id of a built-in rule.
+	 */
+	public static synchronized List<ValidationRule> getRules() {
+
+		if (rules == null) {
+
+			ArrayList<ValidationRule> loaded = new ArrayList<ValidationRule>();
+
+			HashSet<String> ids = new HashSet<String>(Rules.getDescriptions().keySet());
+
+			for (ValidationRule rule : ServiceLoader.load(ValidationRule.class)) {
+
+				if (! ids.add(rule.getId())) {
+
+					throw new IllegalStateException("Rule id " + rule.getId() + " of " + rule.getClass().getName() + " is already used.");
+
+				}
+
+				loaded.add(rule);
+
+			}
+
+			rules = Collections.unmodifiableList(loaded);
+
+		}
+
+		return rules;
+
+	}
+
+	/**
+	 * Get the ids and descriptions of the built-in rules followed by the plugged
+	 * in ones.
+	 * 
+	 * @return
+	 */
+	public static Map<String, String> getDescriptions() {
+
+		LinkedHashMap<String, String> descriptions = new LinkedHashMap<String, String>(Rules.getDescriptions());
+
+		for (ValidationRule rule : getRules()) {
+
+			descriptions.put(rule.getId(), rule.getDescription());
+
+		}
+
+		return descriptions;
+
+	}
+
+}
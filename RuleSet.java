@@ -0,0 +1,225 @@
+package validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The rules enabled for a run. A rule set starts from a named profile and
+ * can turn single rules on or off, e.g. "pre-commit,+variable-type" or
+ * "release,-variable-initial-value".
+ *
+ * The validators ask the rule set before running a rule family, and skip the
+ * traversal of a whole level (data types, pous, variables) when no rule of
+ * that level is enabled.
+ */
+public class RuleSet {
+
+	public static final String RELEASE = "release";
+	public static final String PRE_COMMIT = "pre-commit";
+
+	private static final HashMap<String, List<String>> profiles = new HashMap<String, List<String>>();
+
+	static {
+		profiles.put(RELEASE, new ArrayList<String>(Rules.getDescriptions().keySet()));
+		profiles.put(PRE_COMMIT, Arrays.asList(Rules.HEADER_NAME, Rules.DATA_TYPE_NAME, Rules.POU_NAME, Rules.VARIABLE_NAME));
+	}
+
+	private static RuleSet default_rules;
+
+	private HashSet<String> enabled = new HashSet<String>();
+	private HashMap<String, List<ValidationRule>> plugged_in = new HashMap<String, List<ValidationRule>>();
+	private String signature;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param spec a profile name, optionally followed by +rule-id and -rule-id
+	 *        items, separated by commas.
+	 * @throws IllegalArgumentException if the profile or a rule is unknown.
+	 */
+	public RuleSet(String spec) {
+
+		String[] items = spec.split(",");
+
+		String profile = items[0].trim();
+
+		HashMap<String, ValidationRule> rules_by_id = new HashMap<String, ValidationRule>();
+
+		for (ValidationRule rule : RuleRegistry.getRules()) {
+
+			rules_by_id.put(rule.getId(), rule);
+
+			if (profile.equals(RELEASE) || Arrays.asList(rule.getProfiles()).contains(profile)) {
+
+				enabled.add(rule.getId());
+
+			}
+		}
+
+		if (profiles.containsKey(profile)) {
+
+			enabled.addAll(profiles.get(profile));
+
+		} else if (! is_plugged_in_profile(profile)) {
+
+			throw new IllegalArgumentException("Unknown rule profile: " + profile + ".");
+
+		}
+
+		for (int i = 1; i < items.length; i++) {
+
+			String item = items[i].trim();
+
+			String id = item.substring(1);
+
+			if (! Rules.getDescriptions().containsKey(id) && ! rules_by_id.containsKey(id)) {
+
+				throw new IllegalArgumentException("Unknown rule: " + id + ".");
+
+			}
+
+			if (item.startsWith("+")) {
+
+				enabled.add(id);
+
+			} else if (item.startsWith("-")) {
+
+				enabled.remove(id);
+
+			} else {
+
+				throw new IllegalArgumentException("Rule items must start with + or -: " + item + ".");
+
+			}
+		}
+
+		for (ValidationRule rule : RuleRegistry.getRules()) {
+
+			if (enabled.contains(rule.getId())) {
+
+				List<ValidationRule> rules = plugged_in.get(rule.getTarget());
+
+				if (rules == null) {
+
+					rules = new ArrayList<ValidationRule>();
+
+					plugged_in.put(rule.getTarget(), rules);
+
+				}
+
+				rules.add(rule);
+
+			}
+		}
+
+		signature = String.join(",", new TreeSet<String>(enabled));
+
+	}
+
+	/**
+	 * Get the rule set of runs that don't choose one: the value of the system
+	 * property validator.rules, or the release profile.
+	 * 
+	 * @return
+	 */
+	public static synchronized RuleSet getDefault() {
+
+		if (default_rules == null) {
+
+			default_rules = new RuleSet(System.getProperty("validator.rules", RELEASE));
+
+		}
+
+		return default_rules;
+
+	}
+
+	/**
+	 * Check if a rule is enabled.
+	 * 
+	 * @param rule_id
+	 * @return
+	 */
+	public boolean isEnabled(String rule_id) {
+
+		return enabled.contains(rule_id);
+
+	}
+
+	/**
+	 * Check if any of the given rules is enabled.
+	 * 
+	 * @param rule_ids
+	 * @return
+	 */
+	public boolean isAnyEnabled(String... rule_ids) {
+
+		for (String rule_id : rule_ids) {
+
+			if (enabled.contains(rule_id)) {
+
+				return true;
+
+			}
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * Get the ids of the enabled rules, built-in and plugged in, sorted.
+	 * 
+	 * @return
+	 */
+	public List<String> getRuleIds() {
+
+		return new ArrayList<String>(new TreeSet<String>(enabled));
+
+	}
+
+	/**
+	 * Get the enabled plugged in rules of a target.
+	 * 
+	 * @param target
+	 * @return
+	 */
+	public List<ValidationRule> getRules(String target) {
+
+		List<ValidationRule> rules = plugged_in.get(target);
+
+		return rules == null ? Collections.<ValidationRule>emptyList() : rules;
+
+	}
+
+	/**
+	 * Get the sorted ids of the enabled rules. Results cached under one rule set
+	 * are only valid for the same signature.
+	 * 
+	 * @return
+	 */
+	public String getSignature() {
+		return signature;
+	}
+
+	private static boolean is_plugged_in_profile(String profile) {
+
+		for (ValidationRule rule : RuleRegistry.getRules()) {
+
+			if (Arrays.asList(rule.getProfiles()).contains(profile)) {
+
+				return true;
+
+			}
+		}
+
+		return false;
+
+	}
+
+}
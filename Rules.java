@@ -0,0 +1,70 @@
+package validator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Identifiers of the validation rules. Every diagnostic carries the id of the
+ * rule that produced it, and the report writers list the descriptions.
+ */
+public class Rules {
+
+	// Bump whenever a rule changes what it reports, so cached results are dropped.
+	public static final String VERSION = "5";
+
+	public static final String SCHEMA = "schema";
+	public static final String HEADER_NAME = "header-name";
+	public static final String DATA_TYPE_NAME = "datatype-name";
+	public static final String DATA_TYPE_BASE_TYPE = "datatype-base-type";
+	public static final String DATA_TYPE_INITIAL_VALUE = "datatype-initial-value";
+	public static final String POU_NAME = "pou-name";
+	public static final String POU_RETURN_TYPE = "pou-return-type";
+	public static final String POU_LIST_TYPE = "pou-list-type";
+	public static final String POU_LIST_CONSTANT = "pou-list-constant";
+	public static final String VARIABLE_NAME = "variable-name";
+	public static final String VARIABLE_EN = "variable-en";
+	public static final String VARIABLE_ENO = "variable-eno";
+	public static final String VARIABLE_ADDRESS = "variable-address";
+	public static final String ADDRESS_PARTIAL = "address-partial";
+	public static final String ADDRESS_FULL = "address-full";
+	public static final String VARIABLE_TYPE = "variable-type";
+	public static final String VARIABLE_INITIAL_VALUE = "variable-initial-value";
+	public static final String VARIABLE_STRUCT_VALUE = "variable-struct-value";
+	public static final String CONFIGURATION = "configuration";
+
+	private static final LinkedHashMap<String, String> descriptions = new LinkedHashMap<String, String>();
+
+	static {
+		descriptions.put(SCHEMA, "The document must conform to the PLCopen TC6 schema.");
+		descriptions.put(HEADER_NAME, "The content header must have a name.");
+		descriptions.put(DATA_TYPE_NAME, "Data type names must be unique, valid identifiers that are not reserved.");
+		descriptions.put(DATA_TYPE_BASE_TYPE, "The base type of a data type must be elementary or a known user type.");
+		descriptions.put(DATA_TYPE_INITIAL_VALUE, "The initial value of a data type must suit its base type.");
+		descriptions.put(POU_NAME, "Pou names must be unique, valid identifiers that are not reserved.");
+		descriptions.put(POU_RETURN_TYPE, "Only functions have a return type, and it must be a known type.");
+		descriptions.put(POU_LIST_TYPE, "Access and global variable lists of an interface must be empty.");
+		descriptions.put(POU_LIST_CONSTANT, "Only local and external variable lists can be constant.");
+		descriptions.put(VARIABLE_NAME, "Variable names must be unique, valid identifiers that are not reserved.");
+		descriptions.put(VARIABLE_EN, "EN must be a boolean input variable.");
+		descriptions.put(VARIABLE_ENO, "ENO must be a boolean output variable.");
+		descriptions.put(VARIABLE_ADDRESS, "Located variables must not be function blocks.");
+		descriptions.put(ADDRESS_PARTIAL, "Variables with a partial address cannot be constant or initialized.");
+		descriptions.put(ADDRESS_FULL, "Full addresses must match the size of the variable type.");
+		descriptions.put(VARIABLE_TYPE, "The type of a variable must be elementary or a known user type.");
+		descriptions.put(VARIABLE_INITIAL_VALUE, "The initial value of a variable must suit its type.");
+		descriptions.put(VARIABLE_STRUCT_VALUE, "Struct values must consist of valid member values.");
+		descriptions.put(CONFIGURATION, "Configurations, resources and their tasks and instances must be valid.");
+	}
+
+	/**
+	 * Get the rule ids and their descriptions, in a fixed order.
+	 * 
+	 * @return
+	 */
+	public static Map<String, String> getDescriptions() {
+
+		return descriptions;
+
+	}
+
+}
@@ -0,0 +1,137 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes the errors of a ValidationReport as a SARIF 2.1.0 log, one result at
+ * a time. Info diagnostics carry computed initial values, not findings, and
+ * are left out.
+ */
+public class SarifReportWriter {
+
+	private static final String TOOL_NAME = "Java-XML-Validator";
+
+	private Writer out;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param out
+	 */
+	public SarifReportWriter(Writer out) {
+
+		this.out = out;
+
+	}
+
+	/**
+	 * Write the given report.
+	 * 
+	 * @param report
+	 * @throws IOException
+	 */
+	public void write(ValidationReport report) throws IOException {
+
+		out.write("{\"version\":\"2.1.0\",\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"runs\":[{");
+
+		write_tool();
+
+		out.write(",\"results\":[");
+
+		boolean first = true;
+
+		for (Diagnostic diagnostic : report.getDiagnostics()) {
+
+			if (! diagnostic.isError()) {
+
+				continue;
+
+			}
+
+			if (! first) {
+
+				out.write(',');
+
+			}
+
+			first = false;
+
+			write_result(report.getSource(), diagnostic);
+
+		}
+
+		out.write("]}]}\n");
+
+		out.flush();
+
+	}
+
+	/**
+	 * Write the tool object with the descriptions of every rule.
+	 * 
+	 * @throws IOException
+	 */
+	private void write_tool() throws IOException {
+
+		out.write("\"tool\":{\"driver\":{\"name\":\"" + TOOL_NAME + "\",\"rules\":[");
+
+		boolean first = true;
+
+		for (Map.Entry<String, String> rule : RuleRegistry.getDescriptions().entrySet()) {
+
+			if (! first) {
+
+				out.write(',');
+
+			}
+
+			first = false;
+
+			out.write("\n{\"id\":");
+
+			JsonUtilities.writeString(out, rule.getKey());
+
+			out.write(",\"shortDescription\":{\"text\":");
+
+			JsonUtilities.writeString(out, rule.getValue());
+
+			out.write("}}");
+
+		}
+
+		out.write("]}}");
+
+	}
+
+	/**
+	 * Write one result. The element path is reported as a logical location.
+	 * 
+	 * @param source
+	 * @param diagnostic
+	 * @throws IOException
+	 */
+	private void write_result(String source, Diagnostic diagnostic) throws IOException {
+
+		out.write("\n{\"ruleId\":");
+
+		JsonUtilities.writeString(out, diagnostic.getRuleId());
+
+		out.write(",\"level\":\"error\",\"message\":{\"text\":");
+
+		JsonUtilities.writeString(out, diagnostic.getMessage());
+
+		out.write("},\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":");
+
+		JsonUtilities.writeString(out, source);
+
+		out.write("}},\"logicalLocations\":[{\"fullyQualifiedName\":");
+
+		JsonUtilities.writeString(out, diagnostic.getPath());
+
+		out.write(",\"kind\":\"element\"}]}]}");
+
+	}
+
+}
@@ -0,0 +1,392 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.ValidatorHandler;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Validates a file in a single read: the SAX events go through the schema's
+ * ValidatorHandler and the validated events, with their default attributes,
+ * build the DOM the semantic checks run on.
+ *
+ * A schema error inside a data type or pou only takes that element out of the
+ * semantic checks, the others are still checked. A schema error anywhere else
+ * leaves the structure the checks rely on in doubt, so none of them run. Schema
+ * and semantic diagnostics come out together, in document order.
+ */
+public class SaxPipelineValidator {
+
+	private File xsd_file;
+	private RuleSet rules = RuleSet.getDefault();
+	private ErrorBudget budget = ErrorBudget.unlimited();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param xsd_file
+	 */
+	public SaxPipelineValidator(File xsd_file) {
+
+		this.xsd_file = xsd_file;
+
+	}
+
+	public void setRules(RuleSet rules) {
+		this.rules = rules;
+	}
+
+	public void setBudget(ErrorBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Validate the given file, plain, gzipped or a zip of one project.
+	 * 
+	 * @param xml_file
+	 * @return
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	public ValidationReport validate(File xml_file) throws IOException, SAXException, ParserConfigurationException {
+
+		DocumentBuilderFactory document_factory = DocumentBuilderFactory.newInstance();
+
+		document_factory.setNamespaceAware(true);
+
+		Document document = document_factory.newDocumentBuilder().newDocument();
+
+		ProjectSource source = ProjectSource.single(xml_file.toPath());
+
+		document.setDocumentURI(source.getSystemId());
+
+		DomBuilder builder = new DomBuilder(document);
+
+		ValidatorHandler schema_handler = SchemaCache.getSchema(xsd_file).newValidatorHandler();
+
+		schema_handler.setContentHandler(builder);
+
+		schema_handler.setErrorHandler(new BudgetErrorHandler(builder, budget));
+
+		SAXParserFactory parser_factory = SAXParserFactory.newInstance();
+
+		parser_factory.setNamespaceAware(true);
+
+		XMLReader reader = parser_factory.newSAXParser().getXMLReader();
+
+		reader.setContentHandler(schema_handler);
+
+		reader.setErrorHandler(schema_handler.getErrorHandler());
+
+		ValidationReport report = new ValidationReport(document.getDocumentURI());
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("parse");
+
+		try (InputStream in = source.open()) {
+
+			reader.parse(source.getInputSource(in));
+
+		} catch (ErrorBudgetExceededException e) {
+
+			add_in_order(report, builder.schema_errors, Collections.<Diagnostic>emptyList(), builder.lines);
+
+			report.setTruncated(true);
+
+			return report;
+
+		} catch (SAXParseException e) {
+
+			// Not well-formed. The error handler has already recorded it.
+
+		} finally {
+
+			ValidationMetrics.endPhase(phase);
+
+		}
+
+		List<Diagnostic> semantic = Collections.<Diagnostic>emptyList();
+
+		if (! builder.document_invalid && document.getDocumentElement() != null) {
+
+			Project project = new Project();
+
+			project.setDom(document);
+
+			phase = ValidationMetrics.beginPhase("project-init");
+
+			project.init();
+
+			ValidationMetrics.endPhase(phase);
+
+			project.setFile(xml_file);
+
+			ValidationContext context = new ValidationContext(project);
+
+			context.setRules(rules);
+
+			context.setBudget(budget);
+
+			for (Element invalid : builder.invalid_elements) {
+
+				context.skip(invalid);
+
+			}
+
+			ValidationReport semantic_report = Validator.validate(context);
+
+			semantic = semantic_report.getDiagnostics();
+
+			report.setTruncated(semantic_report.isTruncated());
+
+		}
+
+		add_in_order(report, builder.schema_errors, semantic, builder.lines);
+
+		return report;
+
+	}
+
+	/**
+	 * Merge both kinds of diagnostics by line. Semantic diagnostics are on the
+	 * line of their element's start tag; on the same line schema errors come
+	 * first.
+	 * 
+	 * @param report
+	 * @param schema_errors
+	 * @param semantic
+	 * @param lines
+	 */
+	private static void add_in_order(ValidationReport report, List<LocatedDiagnostic> schema_errors, List<Diagnostic> semantic, IdentityHashMap<Element, Integer> lines) {
+
+		int next = 0;
+
+		for (Diagnostic diagnostic : semantic) {
+
+			Integer line = diagnostic.getElement() == null ? null : lines.get(diagnostic.getElement());
+
+			int semantic_line = line == null ? Integer.MAX_VALUE : line;
+
+			while (next < schema_errors.size() && schema_errors.get(next).line <= semantic_line) {
+
+				report.add(schema_errors.get(next++).diagnostic);
+
+			}
+
+			report.add(diagnostic);
+
+		}
+
+		while (next < schema_errors.size()) {
+
+			report.add(schema_errors.get(next++).diagnostic);
+
+		}
+
+	}
+
+	/**
+	 * A schema error and the line it was found on.
+	 */
+	private static class LocatedDiagnostic {
+
+		Diagnostic diagnostic;
+		int line;
+
+		LocatedDiagnostic(Diagnostic diagnostic, int line) {
+
+			this.diagnostic = diagnostic;
+
+			this.line = line;
+
+		}
+
+	}
+
+	/**
+	 * Builds the DOM from the validated events, records the line of every
+	 * element and attributes schema errors to the enclosing data type or pou.
+	 */
+	private static class DomBuilder extends DefaultHandler implements ErrorHandler {
+
+		private Document document;
+		private Node current;
+		private Locator locator;
+		private ElementPaths paths = new ElementPaths();
+
+		// Text of the current element since the last tag, which may come in many chunks.
+		private StringBuilder text = new StringBuilder();
+
+		// The data type or pou the parser is inside of, if any.
+		private Element checked_element;
+
+		IdentityHashMap<Element, Integer> lines = new IdentityHashMap<Element, Integer>();
+		ArrayList<LocatedDiagnostic> schema_errors = new ArrayList<LocatedDiagnostic>();
+		ArrayList<Element> invalid_elements = new ArrayList<Element>();
+		boolean document_invalid;
+
+		DomBuilder(Document document) {
+
+			this.document = document;
+
+			this.current = document;
+
+		}
+
+		@Override
+		public void setDocumentLocator(Locator locator) {
+
+			this.locator = locator;
+
+		}
+
+		@Override
+		public void startElement(String uri, String local_name, String qualified_name, Attributes attributes) {
+
+			flush_text();
+
+			Element element = document.createElementNS(uri.isEmpty() ? null : uri, qualified_name);
+
+			for (int i = 0; i < attributes.getLength(); i++) {
+
+				String attribute_uri = attributes.getURI(i);
+
+				element.setAttributeNS(attribute_uri.isEmpty() ? null : attribute_uri, attributes.getQName(i), attributes.getValue(i));
+
+			}
+
+			current.appendChild(element);
+
+			current = element;
+
+			if (locator != null) {
+
+				lines.put(element, locator.getLineNumber());
+
+			}
+
+			if (checked_element == null && (local_name.equals("dataType") || local_name.equals("pou")) && element.getParentNode() instanceof Element
+					&& ((Element) element.getParentNode()).getLocalName().matches("dataTypes|pous")) {
+
+				checked_element = element;
+
+			}
+
+		}
+
+		@Override
+		public void endElement(String uri, String local_name, String qualified_name) {
+
+			flush_text();
+
+			if (current == checked_element) {
+
+				checked_element = null;
+
+			}
+
+			current = current.getParentNode();
+
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+
+			if (current != document) {
+
+				text.append(ch, start, length);
+
+			}
+
+		}
+
+		/**
+		 * Append the text collected since the last tag to the current element
+		 * as a single text node.
+		 * 
+		 */
+		private void flush_text() {
+
+			if (text.length() > 0) {
+
+				current.appendChild(document.createTextNode(text.toString()));
+
+				text.setLength(0);
+
+			}
+
+		}
+
+		@Override
+		public void warning(SAXParseException exception) {
+
+			// Warnings don't affect the checks.
+
+		}
+
+		@Override
+		public void error(SAXParseException exception) {
+
+			record(exception);
+
+		}
+
+		@Override
+		public void fatalError(SAXParseException exception) {
+
+			record(exception);
+
+			document_invalid = true;
+
+		}
+
+		private void record(SAXParseException exception) {
+
+			Element element = current instanceof Element ? (Element) current : null;
+
+			if (checked_element != null) {
+
+				if (invalid_elements.isEmpty() || invalid_elements.get(invalid_elements.size() - 1) != checked_element) {
+
+					invalid_elements.add(checked_element);
+
+				}
+
+			} else {
+
+				document_invalid = true;
+
+			}
+
+			String message = "Line " + exception.getLineNumber() + ", column " + exception.getColumnNumber() + ": " + exception.getMessage();
+
+			Diagnostic diagnostic = new Diagnostic(Rules.SCHEMA, Diagnostic.ERROR, element == null ? "/" : paths.getPath(element), message, element);
+
+			ValidationMetrics.diagnostic(Rules.SCHEMA);
+
+			schema_errors.add(new LocatedDiagnostic(diagnostic, exception.getLineNumber()));
+
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Compiled schemas shared by every validation in the JVM. A schema is compiled
+ * the first time its version is requested and the immutable, thread-safe Schema
+ * object is reused afterwards.
+ */
+public class SchemaCache {
+
+	private static final ConcurrentHashMap<String, Schema> schemas = new ConcurrentHashMap<String, Schema>();
+
+	/**
+	 * Get the compiled schema of the given xsd file, compiling it once.
+	 * 
+	 * @param xsd_file
+	 * @return
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public static Schema getSchema(File xsd_file) throws SAXException, IOException {
+
+		String key = xsd_file.getCanonicalPath();
+
+		Schema schema = schemas.get(key);
+
+		if (schema == null) {
+
+			synchronized (schemas) {
+
+				schema = schemas.get(key);
+
+				if (schema == null) {
+
+					SchemaFactory schema_factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+					schema = schema_factory.newSchema(xsd_file);
+
+					schemas.put(key, schema);
+
+				}
+			}
+		}
+
+		return schema;
+
+	}
+
+	/**
+	 * Drop every compiled schema, e.g. after the xsd files changed on disk.
+	 * 
+	 */
+	public static void clear() {
+
+		schemas.clear();
+
+	}
+
+}
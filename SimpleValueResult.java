@@ -0,0 +1,60 @@
+package validator;
+
+/**
+ * The outcome of checking a simpleValue against its data type: either the Java
+ * expression of the value, or the reason it was rejected.
+ */
+public class SimpleValueResult {
+
+	private boolean valid;
+	private String message;
+	private String value;
+
+	private SimpleValueResult(boolean valid, String message, String value) {
+
+		this.valid = valid;
+
+		this.message = message;
+
+		this.value = value;
+
+	}
+
+	/**
+	 * An accepted value with the given Java expression. The expression is empty
+	 * when the value depends on external constants.
+	 * 
+	 * @param value
+	 * @return
+	 */
+	public static SimpleValueResult valid(String value) {
+
+		return new SimpleValueResult(true, null, value);
+
+	}
+
+	/**
+	 * A rejected value with the given error message.
+	 * 
+	 * @param message
+	 * @return
+	 */
+	public static SimpleValueResult invalid(String message) {
+
+		return new SimpleValueResult(false, message, null);
+
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+}
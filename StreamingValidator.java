@@ -0,0 +1,494 @@
+package validator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Validates a PLCopen project while it is read with an XMLStreamReader, without
+ * building a DOM of the whole file.
+ *
+ * The file is read twice. The first pass keeps a skeleton of the project: the
+ * content header, every data type, the instances section and a stub for every
+ * pou that holds only its attributes. The skeleton is enough for Project.init()
+ * to build the data type and pou handlers. The second pass materializes one pou
+ * at a time into the skeleton, validates it and swaps the stub back in, so the
+ * heap depends on the largest single pou and not on the whole project.
+ *
+ * The file may be plain, gzipped or a zip of one project, see ProjectSource.
+ * The rules and the error budget apply as in the other modes; once the budget
+ * is exhausted no further pou is read.
+ */
+public class StreamingValidator {
+
+	private File xml_file;
+	private File xsd_file;
+	private ProjectSource source;
+	private RuleSet rules = RuleSet.getDefault();
+	private ErrorBudget budget = ErrorBudget.fromSystemProperty();
+	private XMLInputFactory input_factory;
+	private Document skeleton;
+	private ArrayList<Element> pou_stubs = new ArrayList<Element>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param xml_file
+	 * @param xsd_file
+	 */
+	public StreamingValidator(File xml_file, File xsd_file) {
+
+		this.xml_file = xml_file;
+
+		this.xsd_file = xsd_file;
+
+		this.input_factory = XMLInputFactory.newInstance();
+
+		input_factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+
+		input_factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+
+		input_factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+
+	}
+
+	public void setRules(RuleSet rules) {
+		this.rules = rules;
+	}
+
+	public void setBudget(ErrorBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Validate the given file in streaming mode.
+	 *
+	 * @param xml_file
+	 * @param xsd_file
+	 */
+	public static void validate(File xml_file, File xsd_file) {
+
+		try {
+
+			ValidationReport report = new StreamingValidator(xml_file, xsd_file).validate();
+
+			if (report != null) {
+
+				report.print();
+
+				if (report.isTruncated()) {
+
+					UIelements.println("Validation stopped after " + report.getErrorCount() + " errors, the error budget was exhausted.");
+
+				}
+			}
+
+		} catch (IOException | ParserConfigurationException | SAXException | XMLStreamException e) {
+
+			UIelements.reportException(e);
+
+		}
+
+	}
+
+	/**
+	 * Run the schema check, the skeleton pass and the pou pass.
+	 *
+	 * @return the diagnostics, or null if the file does not conform to the schema.
+	 * @throws IOException
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws XMLStreamException
+	 */
+	public ValidationReport validate() throws IOException, ParserConfigurationException, SAXException, XMLStreamException {
+
+		source = ProjectSource.single(xml_file.toPath());
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("schema");
+
+		boolean schema_valid = validate_schema();
+
+		ValidationMetrics.endPhase(phase);
+
+		if (! schema_valid) {
+
+			UIelements.println("Could not open XML file. Make sure that it conforms to the PLCOpen TC6 Schema definition");
+
+			UIelements.println("and that the root element contains the namespace declaration xmlns=\"http://www.plcopen.org/xml/tc6_0201\".");
+
+			return null;
+
+		}
+
+		phase = ValidationMetrics.beginPhase("parse");
+
+		read_skeleton();
+
+		ValidationMetrics.endPhase(phase);
+
+		Project project = new Project();
+
+		project.setDom(skeleton);
+
+		phase = ValidationMetrics.beginPhase("project-init");
+
+		project.init();
+
+		ValidationMetrics.endPhase(phase);
+
+		project.setFile(xml_file);
+
+		ValidationContext context = new ValidationContext(project);
+
+		context.setRules(rules);
+
+		context.setBudget(budget);
+
+		Element root = skeleton.getDocumentElement();
+
+		ValidationReport report = new ValidationReport(skeleton.getDocumentURI());
+
+		DiagnosticCollector diagnostics = new DiagnosticCollector(budget, rules);
+
+		Element content_header = (Element)root.getElementsByTagName("contentHeader").item(0);
+
+		if (rules.isEnabled(Rules.HEADER_NAME)) {
+
+			Validator.validate_content_header(content_header, diagnostics);
+
+		}
+
+		for (ValidationRule plugged_in : rules.getRules(ValidationRule.HEADER)) {
+
+			plugged_in.check(content_header, context, diagnostics);
+
+		}
+
+		if (DataTypeValidation.hasRules(rules) && ! budget.isExhausted()) {
+
+			new DataTypeValidation(context, diagnostics).validate();
+
+		}
+
+		report.addAll(diagnostics);
+
+		if (PouValidation.hasRules(rules) && ! budget.isExhausted()) {
+
+			validate_pous(context, report);
+
+		}
+
+		if (rules.isEnabled(Rules.CONFIGURATION) && ! budget.isExhausted()) {
+
+			DiagnosticCollector configuration_diagnostics = new DiagnosticCollector(budget, rules);
+
+			Validator.validate_configurations(project, configuration_diagnostics);
+
+			report.addAll(configuration_diagnostics);
+
+		}
+
+		report.setTruncated(budget.isExhausted());
+
+		return report;
+
+	}
+
+	/**
+	 * Check the file against the schema. The javax.xml.validation validator
+	 * streams the input and does not keep a tree.
+	 *
+	 * @return true if the schema reported no errors.
+	 * @throws IOException
+	 * @throws SAXException
+	 */
+	private boolean validate_schema() throws IOException, SAXException {
+
+		javax.xml.validation.Validator schema_validator = SchemaCache.getSchema(xsd_file).newValidator();
+
+		XMLErrorLogger eh = new XMLErrorLogger();
+
+		schema_validator.setErrorHandler(new BudgetErrorHandler(eh, budget));
+
+		try (InputStream in = source.open()) {
+
+			schema_validator.validate(new StreamSource(in, source.getSystemId()));
+
+		} catch (ErrorBudgetExceededException e) {
+
+			UIelements.println(e.getMessage());
+
+			return false;
+
+		}
+
+		return eh.everythingOk();
+
+	}
+
+	/**
+	 * First pass. Copy the project into the skeleton document, replacing every
+	 * pou element with a stub that only holds its attributes.
+	 *
+	 * @throws IOException
+	 * @throws ParserConfigurationException
+	 * @throws XMLStreamException
+	 */
+	private void read_skeleton() throws IOException, ParserConfigurationException, XMLStreamException {
+
+		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+
+		dbFactory.setNamespaceAware(true);
+
+		skeleton = dbFactory.newDocumentBuilder().newDocument();
+
+		skeleton.setDocumentURI(source.getSystemId());
+
+		InputStream in = source.open();
+
+		try {
+
+			XMLStreamReader reader = input_factory.createXMLStreamReader(source.getSystemId(), in);
+
+			Node parent = skeleton;
+
+			while (reader.hasNext()) {
+
+				int event = reader.next();
+
+				if (event == XMLStreamConstants.START_ELEMENT) {
+
+					Element element = create_element(reader);
+
+					parent.appendChild(element);
+
+					if (reader.getLocalName().equals("pou")) {
+
+						pou_stubs.add(element);
+
+						skip_element(reader);
+
+					} else {
+
+						parent = element;
+
+					}
+
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+
+					parent = parent.getParentNode();
+
+				} else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+
+					append_text(reader, parent);
+
+				}
+			}
+
+			reader.close();
+
+		} finally {
+
+			in.close();
+
+		}
+
+	}
+
+	/**
+	 * Second pass. Materialize each pou in place of its stub, validate it and
+	 * put the stub back so the pou can be collected.
+	 *
+	 * @param context
+	 * @param report
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 */
+	private void validate_pous(ValidationContext context, ValidationReport report) throws IOException, XMLStreamException {
+
+		InputStream in = source.open();
+
+		try {
+
+			XMLStreamReader reader = input_factory.createXMLStreamReader(source.getSystemId(), in);
+
+			int pou_index = 0;
+
+			while (reader.hasNext() && ! budget.isExhausted()) {
+
+				if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("pou")) {
+
+					Element stub = pou_stubs.get(pou_index++);
+
+					Element pou = read_element(reader);
+
+					stub.getParentNode().replaceChild(pou, stub);
+
+					DiagnosticCollector diagnostics = new DiagnosticCollector(budget, rules);
+
+					new PouValidation(context, diagnostics).validate(pou);
+
+					// The report must not keep the pou alive once it is swapped out.
+					for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+
+						diagnostic.detach();
+
+						report.add(diagnostic);
+
+					}
+
+					pou.getParentNode().replaceChild(stub, pou);
+
+				}
+			}
+
+			reader.close();
+
+		} finally {
+
+			in.close();
+
+		}
+
+	}
+
+	/**
+	 * Build the element the reader is positioned on, with its whole subtree.
+	 * On return the reader is positioned on the matching end element.
+	 *
+	 * @param reader
+	 * @return
+	 * @throws XMLStreamException
+	 */
+	private Element read_element(XMLStreamReader reader) throws XMLStreamException {
+
+		Element top = create_element(reader);
+
+		Node parent = top;
+
+		int depth = 1;
+
+		while (depth > 0) {
+
+			int event = reader.next();
+
+			if (event == XMLStreamConstants.START_ELEMENT) {
+
+				Element element = create_element(reader);
+
+				parent.appendChild(element);
+
+				parent = element;
+
+				depth++;
+
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+
+				parent = parent.getParentNode();
+
+				depth--;
+
+			} else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+
+				append_text(reader, parent);
+
+			}
+		}
+
+		return top;
+
+	}
+
+	/**
+	 * Create an element of the skeleton document with the name and the
+	 * attributes of the current start element.
+	 *
+	 * @param reader
+	 * @return
+	 */
+	private Element create_element(XMLStreamReader reader) {
+
+		String prefix = reader.getPrefix();
+
+		String qualified_name = (prefix == null || prefix.equals("")) ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+
+		Element element = skeleton.createElementNS(reader.getNamespaceURI(), qualified_name);
+
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+
+			String attribute_namespace = reader.getAttributeNamespace(i);
+
+			if (attribute_namespace == null || attribute_namespace.equals("")) {
+
+				element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+
+			} else {
+
+				element.setAttributeNS(attribute_namespace, reader.getAttributePrefix(i) + ":" + reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+
+			}
+		}
+
+		return element;
+
+	}
+
+	/**
+	 * Append the current text event to the given parent. Whitespace only text
+	 * between elements is dropped, the same way normalize() leaves it unused.
+	 *
+	 * @param reader
+	 * @param parent
+	 */
+	private void append_text(XMLStreamReader reader, Node parent) {
+
+		if (parent != skeleton && ! reader.isWhiteSpace()) {
+
+			parent.appendChild(skeleton.createTextNode(reader.getText()));
+
+		}
+
+	}
+
+	/**
+	 * Skip the subtree of the current start element.
+	 *
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void skip_element(XMLStreamReader reader) throws XMLStreamException {
+
+		int depth = 1;
+
+		while (depth > 0) {
+
+			int event = reader.next();
+
+			if (event == XMLStreamConstants.START_ELEMENT) {
+
+				depth++;
+
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+
+				depth--;
+
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,220 @@
+package validator;
+
+/**
+ * The names declared by a project: its data types and its pous. Built once per
+ * project, after Project.init(), so that the uniqueness and lookup checks cost
+ * one hash lookup each instead of a scan of the declarations. Only
+ * IncrementalValidator changes it after that, never while checks run.
+ *
+ * A table can be layered on the frozen table of a LibraryCatalog: lookups try
+ * the project's names first and the library's after them, while uniqueness
+ * and counts are the project's own.
+ */
+public class SymbolTable {
+
+	private NameCounts data_types;
+	private NameCounts pous;
+	private SymbolTable library;
+	private boolean frozen;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param project
+	 */
+	public SymbolTable(Project project) {
+
+		this(project, null);
+
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param project
+	 * @param library the symbols of the shared libraries, or null.
+	 */
+	public SymbolTable(Project project, SymbolTable library) {
+
+		this.library = library;
+
+		DataTypeHandler data_type_handler = project.getDataTypeHandler();
+
+		PouTypeHandler pou_type_handler = project.getPouTypeHandler();
+
+		data_types = new NameCounts(data_type_handler.getNumberOfDataTypes());
+
+		for (int i = 0; i < data_type_handler.getNumberOfDataTypes(); i++) {
+
+			data_types.add(data_type_handler.getDataTypeElement(i).getAttribute("name"));
+
+		}
+
+		pous = new NameCounts(pou_type_handler.getNumberOfPouTypes());
+
+		for (int i = 0; i < pou_type_handler.getNumberOfPouTypes(); i++) {
+
+			pous.add(pou_type_handler.getPouTypeElement(i).getAttribute("name"));
+
+		}
+
+	}
+
+	/**
+	 * Constructor for names collected without a Project, e.g. from a CompactTree.
+	 *
+	 * @param data_types
+	 * @param pous
+	 */
+	public SymbolTable(NameCounts data_types, NameCounts pous) {
+
+		this(data_types, pous, null);
+
+	}
+
+	/**
+	 * Constructor for names collected without a Project, layered on a library.
+	 *
+	 * @param data_types
+	 * @param pous
+	 * @param library the symbols of the shared libraries, or null.
+	 */
+	public SymbolTable(NameCounts data_types, NameCounts pous, SymbolTable library) {
+
+		this.data_types = data_types;
+
+		this.pous = pous;
+
+		this.library = library;
+
+	}
+
+	/**
+	 * Forbid any change from now on, so that the table can be shared.
+	 *
+	 */
+	public void freeze() {
+
+		frozen = true;
+
+	}
+
+	/**
+	 * Check if a data type with the given name is declared by the project or a library.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isUserType(String name) {
+
+		return data_types.contains(name) || (library != null && library.isUserType(name));
+
+	}
+
+	/**
+	 * Check if exactly one data type has the given name.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isUniqueTypeName(String name) {
+
+		return data_types.isUnique(name);
+
+	}
+
+	/**
+	 * Check if a pou with the given name is declared by the project or a library.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isUserPou(String name) {
+
+		return pous.contains(name) || (library != null && library.isUserPou(name));
+
+	}
+
+	/**
+	 * Check if exactly one pou has the given name.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isUniquePouTypeName(String name) {
+
+		return pous.isUnique(name);
+
+	}
+
+	/**
+	 * Count a data type declared after the table was built.
+	 * 
+	 * @param name
+	 */
+	public void addDataType(String name) {
+
+		check_not_frozen();
+
+		data_types.add(name);
+
+	}
+
+	/**
+	 * Forget a data type that was removed or renamed.
+	 * 
+	 * @param name
+	 */
+	public void removeDataType(String name) {
+
+		check_not_frozen();
+
+		data_types.remove(name);
+
+	}
+
+	/**
+	 * Count a pou declared after the table was built.
+	 * 
+	 * @param name
+	 */
+	public void addPou(String name) {
+
+		check_not_frozen();
+
+		pous.add(name);
+
+	}
+
+	/**
+	 * Forget a pou that was removed or renamed.
+	 * 
+	 * @param name
+	 */
+	public void removePou(String name) {
+
+		check_not_frozen();
+
+		pous.remove(name);
+
+	}
+
+	private void check_not_frozen() {
+
+		if (frozen) {
+
+			throw new IllegalStateException("The symbols of a library catalog cannot change.");
+
+		}
+
+	}
+
+	public int getDataTypeCount(String name) {
+		return data_types.count(name);
+	}
+
+	public int getPouCount(String name) {
+		return pous.count(name);
+	}
+
+}
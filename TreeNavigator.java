@@ -0,0 +1,69 @@
+package validator;
+
+/**
+ * Read-only navigation over a project tree whose elements are int handles.
+ * Only elements are visible: whitespace, comments and processing instructions
+ * are not part of the tree. NONE stands for a missing element.
+ */
+public interface TreeNavigator {
+
+	public static final int NONE = -1;
+
+	/**
+	 * Get the document element.
+	 *
+	 * @return
+	 */
+	public int getRoot();
+
+	public String getTagName(int element);
+
+	public int getParent(int element);
+
+	public int getFirstChild(int element);
+
+	public int getNextSibling(int element);
+
+	/**
+	 * Get the first child element with the given tag name.
+	 *
+	 * @param element
+	 * @param tag_name
+	 * @return the child, or NONE.
+	 */
+	public int findChild(int element, String tag_name);
+
+	/**
+	 * Get the value of an attribute, like Element.getAttribute().
+	 *
+	 * @param element
+	 * @param name
+	 * @return the value, or "" if the element doesn't have the attribute.
+	 */
+	public String getAttribute(int element, String name);
+
+	/**
+	 * Get the text directly inside the element.
+	 *
+	 * @param element
+	 * @return the text, or "" if the element has no text.
+	 */
+	public String getText(int element);
+
+	/**
+	 * Get the line of the element's start tag.
+	 *
+	 * @param element
+	 * @return the line, or 0 if unknown.
+	 */
+	public int getLine(int element);
+
+	/**
+	 * Get the positional path of the element, the same as ElementPaths reports for the DOM.
+	 *
+	 * @param element
+	 * @return
+	 */
+	public String getPath(int element);
+
+}
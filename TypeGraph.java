@@ -0,0 +1,841 @@
+package validator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.w3c.dom.Element;
+
+/**
+ * The derived type graph of a project. Every data type has at most one edge,
+ * to the type named by its derived base type, so the graph is resolved by a
+ * single walk over each chain: every type gets its elementary base type, and
+ * every type on a cycle, of any length, is marked as such. After that a lookup
+ * is one hash access.
+ *
+ * A name declared more than once resolves through its first declaration, the
+ * others are reported by the uniqueness check. Changes through add() and
+ * remove() only record the changed names. The next lookup resolves again the
+ * changed types and the types whose chains run into them, found through the
+ * reverse edges, and keeps every other result.
+ *
+ * The members of struct types are read along with the edges, so the type of
+ * a struct value's member is a lookup too. The members of the standard
+ * function blocks are built in.
+ *
+ * A project's graph can be layered on the frozen graph of a LibraryCatalog:
+ * a name the project doesn't declare is looked up in the library, so project
+ * types may derive from library types.
+ */
+public class TypeGraph {
+
+	// Resolution states of a node.
+	private static final int UNRESOLVED = 0;
+	private static final int RESOLVING = 1;
+	private static final int RESOLVED = 2;
+
+	// Standard function block to its members, both upper case, each member to its elementary type.
+	private static final NameMap<NameMap<String>> STANDARD_MEMBERS = standard_members();
+
+	private NameMap<Node> nodes;
+	private HashMap<String, HashSet<String>> dependents = new HashMap<String, HashSet<String>>();
+	private HashSet<String> changed = new HashSet<String>();
+	private volatile boolean dirty;
+	private TypeGraph library;
+	private boolean frozen;
+
+	private static class Node {
+
+		// Declarations with this name, in document order.
+		ArrayList<Element> elements = new ArrayList<Element>(1);
+
+		// Key of the derived base type, or null if the base type is elementary or unsupported.
+		String target;
+
+		// Base type of the declaration itself if it has no target.
+		String own_base_type;
+
+		// Tag of the declaration's base type, e.g. "struct", "array" or "INT".
+		String kind;
+
+		// Elementary base type, upper case, or "" if the chain does not end in one.
+		String base_type;
+
+		// Member key to the member's type, an elementary type or a name key, or
+		// "" if it is of another kind. Null if the declaration is not a struct.
+		NameMap<String> members;
+
+		// The cycle through this node, e.g. "A -> B -> A", or null.
+		String cycle;
+
+		int state;
+
+	}
+
+	/**
+	 * Constructor. Builds and resolves the graph of the project's data types.
+	 * 
+	 * @param project
+	 */
+	public TypeGraph(Project project) {
+
+		this(project, null);
+
+	}
+
+	/**
+	 * Constructor. Builds and resolves the graph of the project's data types on
+	 * top of the graph of the libraries.
+	 * 
+	 * @param project
+	 * @param library the graph of the shared libraries, or null.
+	 */
+	public TypeGraph(Project project, TypeGraph library) {
+
+		this(get_data_types(project), library);
+
+	}
+
+	/**
+	 * Constructor. Builds and resolves the graph of the given data types, e.g.
+	 * of several library projects.
+	 * 
+	 * @param data_types
+	 * @param library the graph of the shared libraries, or null.
+	 */
+	public TypeGraph(List<Element> data_types, TypeGraph library) {
+
+		this.library = library;
+
+		nodes = new NameMap<Node>(data_types.size());
+
+		for (Element data_type : data_types) {
+
+			add(data_type);
+
+		}
+
+		resolve();
+
+	}
+
+	/**
+	 * Resolve the graph and forbid any change from now on, so that it can be
+	 * read by any number of threads without locking.
+	 * 
+	 */
+	public void freeze() {
+
+		resolve();
+
+		frozen = true;
+
+	}
+
+	/**
+	 * Check if a data type with the given name is declared by the project or a library.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isUserType(String name) {
+
+		return nodes.containsKey(name) || (library != null && library.isUserType(name));
+
+	}
+
+	/**
+	 * Get the elementary base type a name resolves to.
+	 * 
+	 * @param name
+	 * @return the upper case elementary type, "" if the name is a user type whose
+	 *         chain does not end in an elementary type, or the upper case name
+	 *         itself if it is not a user type.
+	 */
+	public String getBaseType(String name) {
+
+		Node node = nodes.get(name);
+
+		if (node == null) {
+
+			if (library != null && library.isUserType(name)) {
+
+				return library.getBaseType(name);
+
+			}
+
+			// Mostly an elementary type, whose canonical name comes without a copy.
+			String elementary = IECWords.ELEMENTARY_TYPES.get(name);
+
+			return elementary != null ? elementary : NameCounts.key(name);
+
+		}
+
+		if (dirty) {
+
+			resolve();
+
+		}
+
+		return node.base_type;
+
+	}
+
+	/**
+	 * Get the cycle the given type is on.
+	 * 
+	 * @param name
+	 * @return the names of the cycle, e.g. "A -> B -> A", or null if the type is
+	 *         not on a cycle.
+	 */
+	public String getCycle(String name) {
+
+		Node node = nodes.get(name);
+
+		if (node == null) {
+
+			return library == null ? null : library.getCycle(name);
+
+		}
+
+		if (dirty) {
+
+			resolve();
+
+		}
+
+		return node.cycle;
+
+	}
+
+	/**
+	 * Check if a name is a struct type, or a type derived from one.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isStructType(String name) {
+
+		return get_members(name) != null;
+
+	}
+
+	/**
+	 * Get the type of a member of a struct type or a standard function block.
+	 * 
+	 * @param name the struct type or function block.
+	 * @param member
+	 * @return the upper case elementary type or the key of the member's type,
+	 *         "" if the member is of another kind, e.g. an array, or null if the
+	 *         type has no such member.
+	 */
+	public String getMemberType(String name, String member) {
+
+		NameMap<String> members = get_members(name);
+
+		return members == null ? null : members.get(member);
+
+	}
+
+	/**
+	 * Describe everything the checks of a variable can learn about its type
+	 * besides the base type and the cycle: the kind of type the derived chain
+	 * ends in, e.g. struct or array, and for a struct its members and their
+	 * types, sorted, with the members of nested struct types.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public String getSignature(String name) {
+
+		StringBuilder signature = new StringBuilder(64);
+
+		append_signature(name, signature, new HashSet<String>());
+
+		return signature.toString();
+
+	}
+
+	/**
+	 * Add a data type declaration.
+	 * 
+	 * @param data_type
+	 */
+	public void add(Element data_type) {
+
+		check_not_frozen();
+
+		String key = NameCounts.key(data_type.getAttribute("name"));
+
+		Node node = nodes.get(key);
+
+		if (node == null) {
+
+			node = new Node();
+
+			nodes.put(key, node);
+
+		}
+
+		node.elements.add(data_type);
+
+		changed.add(key);
+
+		dirty = true;
+
+	}
+
+	/**
+	 * Remove a data type declaration.
+	 * 
+	 * @param name the name the declaration was added with, which may differ
+	 *        from its name attribute after an edit.
+	 * @param data_type
+	 */
+	public void remove(String name, Element data_type) {
+
+		check_not_frozen();
+
+		String key = NameCounts.key(name);
+
+		Node node = nodes.get(key);
+
+		if (node == null) {
+
+			return;
+
+		}
+
+		node.elements.remove(data_type);
+
+		if (node.elements.isEmpty()) {
+
+			unlink(key, node);
+
+			nodes.remove(key);
+
+		}
+
+		changed.add(key);
+
+		dirty = true;
+
+	}
+
+	/**
+	 * Resolve the changed nodes and the nodes whose chains run into them. Each
+	 * chain is walked once: the walk stops at a node resolved earlier, at an
+	 * elementary or unsupported base type, or at a node of the current walk,
+	 * which closes a cycle.
+	 * 
+	 */
+	private synchronized void resolve() {
+
+		if (! dirty) {
+
+			return;
+
+		}
+
+		for (String key : changed) {
+
+			Node node = nodes.get(key);
+
+			if (node != null) {
+
+				unlink(key, node);
+
+				set_edge(node);
+
+				link(key, node);
+
+			}
+		}
+
+		// The changed names and, following the reverse edges, everything deriving from them.
+		HashSet<String> affected = new HashSet<String>();
+
+		ArrayDeque<String> queue = new ArrayDeque<String>(changed);
+
+		while (! queue.isEmpty()) {
+
+			String key = queue.poll();
+
+			if (affected.add(key) && dependents.containsKey(key)) {
+
+				queue.addAll(dependents.get(key));
+
+			}
+		}
+
+		changed.clear();
+
+		for (String key : affected) {
+
+			Node node = nodes.get(key);
+
+			if (node != null) {
+
+				node.state = UNRESOLVED;
+
+				node.cycle = null;
+
+				node.base_type = null;
+
+			}
+		}
+
+		ArrayList<String> path = new ArrayList<String>();
+
+		for (String start : affected) {
+
+			path.clear();
+
+			String key = start;
+
+			Node node = nodes.get(key);
+
+			String base_type = null;
+
+			while (base_type == null) {
+
+				if (node == null) {
+
+					// The chain leaves the project: into a library type, or into a name that is not a data type.
+					base_type = library != null && library.isUserType(key) ? library.getBaseType(key) : "";
+
+				} else if (node.state == RESOLVED) {
+
+					base_type = node.base_type;
+
+				} else if (node.state == RESOLVING) {
+
+					mark_cycle(path, path.indexOf(key));
+
+					base_type = "";
+
+				} else if (node.target == null) {
+
+					node.state = RESOLVED;
+
+					node.base_type = node.own_base_type;
+
+					base_type = node.base_type;
+
+				} else {
+
+					node.state = RESOLVING;
+
+					path.add(key);
+
+					key = node.target;
+
+					node = nodes.get(key);
+
+				}
+			}
+
+			for (String on_path : path) {
+
+				Node resolved = nodes.get(on_path);
+
+				resolved.base_type = base_type;
+
+				resolved.state = RESOLVED;
+
+			}
+		}
+
+		dirty = false;
+
+	}
+
+	/**
+	 * Get the members of a struct type, following the derived chain, or of a
+	 * standard function block.
+	 * 
+	 * @param name
+	 * @return null if the type is neither.
+	 */
+	private NameMap<String> get_members(String name) {
+
+		if (dirty) {
+
+			resolve();
+
+		}
+
+		// A chain is at most as long as the graph, a longer walk is on a cycle.
+		for (int steps = 0; steps <= nodes.size(); steps++) {
+
+			Node node = nodes.get(name);
+
+			if (node == null) {
+
+				if (library != null && library.isUserType(name)) {
+
+					return library.get_members(name);
+
+				}
+
+				return STANDARD_MEMBERS.get(name);
+
+			}
+
+			if (node.target == null) {
+
+				return node.members;
+
+			}
+
+			name = node.target;
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Get the tag of the base type the derived chain of a type ends in.
+	 * 
+	 * @param name
+	 * @return "" if the name is not a user type or its chain does not end.
+	 */
+	private String get_kind(String name) {
+
+		if (dirty) {
+
+			resolve();
+
+		}
+
+		for (int steps = 0; steps <= nodes.size(); steps++) {
+
+			Node node = nodes.get(name);
+
+			if (node == null) {
+
+				return library != null && library.isUserType(name) ? library.get_kind(name) : "";
+
+			}
+
+			if (node.target == null) {
+
+				return node.kind;
+
+			}
+
+			name = node.target;
+
+		}
+
+		return "";
+
+	}
+
+	/**
+	 * Append the signature of a type. A struct met again, e.g. one containing
+	 * itself, is only named.
+	 * 
+	 * @param name
+	 * @param signature
+	 * @param seen keys of the structs appended so far.
+	 */
+	private void append_signature(String name, StringBuilder signature, HashSet<String> seen) {
+
+		signature.append(get_kind(name));
+
+		NameMap<String> members = get_members(name);
+
+		if (members == null || ! seen.add(NameCounts.key(name))) {
+
+			return;
+
+		}
+
+		ArrayList<String> member_names = members.keys();
+
+		Collections.sort(member_names);
+
+		signature.append('{');
+
+		for (String member : member_names) {
+
+			String member_type = members.get(member);
+
+			signature.append(member).append(':').append(member_type);
+
+			if (isUserType(member_type)) {
+
+				signature.append(':').append(getBaseType(member_type)).append(':');
+
+				append_signature(member_type, signature, seen);
+
+			}
+
+			signature.append(';');
+
+		}
+
+		signature.append('}');
+
+	}
+
+	/**
+	 * Read the edge and the members of a node from its first declaration.
+	 * 
+	 * @param node
+	 */
+	private static void set_edge(Node node) {
+
+		node.target = null;
+
+		node.own_base_type = null;
+
+		node.members = null;
+
+		node.kind = "";
+
+		Element base_type_element = XMLUtilities.findChildElement(node.elements.get(0), "baseType");
+
+		Element base_type = base_type_element == null ? null : XMLUtilities.getSingleChildElement(base_type_element);
+
+		// Only a data type that does not conform to the schema lacks a base type.
+		String tag_name = base_type == null ? "" : base_type.getTagName();
+
+		node.kind = tag_name;
+
+		String elementary = IECWords.ELEMENTARY_TYPES.get(tag_name);
+
+		if (elementary != null) {
+
+			node.own_base_type = elementary;
+
+		} else if (tag_name.equals("derived")) {
+
+			node.target = NameCounts.key(base_type.getAttribute("name"));
+
+		} else if (tag_name.equals("struct")) {
+
+			node.own_base_type = "";
+
+			node.members = new NameMap<String>(8);
+
+			for (Element member : XMLUtilities.getChildrenElements(base_type)) {
+
+				Element type_element = XMLUtilities.findChildElement(member, "type");
+
+				Element type = type_element == null ? null : XMLUtilities.getSingleChildElement(type_element);
+
+				node.members.putIfAbsent(member.getAttribute("name"), type_name(type));
+
+			}
+
+		} else {
+
+			node.own_base_type = "";
+
+		}
+
+	}
+
+	/**
+	 * The name of the type a type element declares.
+	 * 
+	 * @param type the child of a type element, or null.
+	 * @return the upper case elementary type, the key of a derived type, or "".
+	 */
+	private static String type_name(Element type) {
+
+		if (type == null) {
+
+			return "";
+
+		}
+
+		String elementary = IECWords.ELEMENTARY_TYPES.get(type.getTagName());
+
+		if (elementary != null) {
+
+			return elementary;
+
+		}
+
+		return type.getTagName().equals("derived") ? NameCounts.key(type.getAttribute("name")) : "";
+
+	}
+
+	/**
+	 * The inputs and outputs of the standard function blocks of IEC 61131-3.
+	 * 
+	 * @return
+	 */
+	private static NameMap<NameMap<String>> standard_members() {
+
+		NameMap<NameMap<String>> members = new NameMap<NameMap<String>>(64);
+
+		for (String timer : new String[] { "TON", "TOF", "TP" }) {
+
+			members.put(timer, members_of("IN", "BOOL", "PT", "TIME", "Q", "BOOL", "ET", "TIME"));
+
+		}
+
+		members.put("R_TRIG", members_of("CLK", "BOOL", "Q", "BOOL"));
+
+		members.put("F_TRIG", members_of("CLK", "BOOL", "Q", "BOOL"));
+
+		members.put("SR", members_of("S1", "BOOL", "R", "BOOL", "Q1", "BOOL"));
+
+		members.put("RS", members_of("S", "BOOL", "R1", "BOOL", "Q1", "BOOL"));
+
+		members.put("SEMA", members_of("CLAIM", "BOOL", "RELEASE", "BOOL", "BUSY", "BOOL"));
+
+		members.put("RTC", members_of("IN", "BOOL", "PDT", "DT", "Q", "BOOL", "CDT", "DT"));
+
+		// CTU counts in INT, CTU_DINT in DINT and so on.
+		for (String counter : new String[] { "", "_DINT", "_LINT", "_UDINT", "_ULINT", "_INT", "_SINT", "_UINT", "_USINT" }) {
+
+			String count = counter.isEmpty() ? "INT" : counter.substring(1);
+
+			members.put("CTU" + counter, members_of("CU", "BOOL", "R", "BOOL", "PV", count, "Q", "BOOL", "CV", count));
+
+			members.put("CTD" + counter, members_of("CD", "BOOL", "LD", "BOOL", "PV", count, "Q", "BOOL", "CV", count));
+
+			members.put("CTUD" + counter, members_of("CU", "BOOL", "CD", "BOOL", "R", "BOOL", "LD", "BOOL", "PV", count, "QU", "BOOL", "QD", "BOOL", "CV", count));
+
+		}
+
+		return members;
+
+	}
+
+	private static NameMap<String> members_of(String... names_and_types) {
+
+		NameMap<String> members = new NameMap<String>(names_and_types.length / 2);
+
+		for (int i = 0; i < names_and_types.length; i += 2) {
+
+			members.put(names_and_types[i], names_and_types[i + 1]);
+
+		}
+
+		return members;
+
+	}
+
+	/**
+	 * Record the edge of a node in the reverse edges.
+	 * 
+	 * @param key
+	 * @param node
+	 */
+	private void link(String key, Node node) {
+
+		if (node.target == null) {
+
+			return;
+
+		}
+
+		HashSet<String> keys = dependents.get(node.target);
+
+		if (keys == null) {
+
+			keys = new HashSet<String>();
+
+			dependents.put(node.target, keys);
+
+		}
+
+		keys.add(key);
+
+	}
+
+	/**
+	 * Drop the edge of a node from the reverse edges.
+	 * 
+	 * @param key
+	 * @param node
+	 */
+	private void unlink(String key, Node node) {
+
+		if (node.target == null) {
+
+			return;
+
+		}
+
+		HashSet<String> keys = dependents.get(node.target);
+
+		if (keys != null) {
+
+			keys.remove(key);
+
+			if (keys.isEmpty()) {
+
+				dependents.remove(node.target);
+
+			}
+		}
+
+	}
+
+	private void check_not_frozen() {
+
+		if (frozen) {
+
+			throw new IllegalStateException("The types of a library catalog cannot change.");
+
+		}
+
+	}
+
+	private static List<Element> get_data_types(Project project) {
+
+		DataTypeHandler data_type_handler = project.getDataTypeHandler();
+
+		ArrayList<Element> data_types = new ArrayList<Element>(data_type_handler.getNumberOfDataTypes());
+
+		for (int i = 0; i < data_type_handler.getNumberOfDataTypes(); i++) {
+
+			data_types.add(data_type_handler.getDataTypeElement(i));
+
+		}
+
+		return data_types;
+
+	}
+
+	/**
+	 * Record the cycle formed by the end of the walk, from the given position on.
+	 * 
+	 * @param path
+	 * @param from
+	 */
+	private void mark_cycle(ArrayList<String> path, int from) {
+
+		StringBuilder cycle = new StringBuilder();
+
+		for (int i = from; i < path.size(); i++) {
+
+			cycle.append(path.get(i)).append(" -> ");
+
+		}
+
+		cycle.append(path.get(from));
+
+		String names = cycle.toString();
+
+		for (int i = from; i < path.size(); i++) {
+
+			nodes.get(path.get(i)).cycle = names;
+
+		}
+
+	}
+
+}
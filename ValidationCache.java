@@ -0,0 +1,431 @@
+package validator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * On-disk cache of the diagnostics of pou and dataType elements, so that
+ * elements that did not change between exports are not checked again.
+ *
+ * The key is a SHA-256 of the enabled rules, of the element's subtree and of
+ * the project symbols the checks look up for it: for every name in the
+ * subtree, how many data types and pous are declared with it, whether a
+ * library declares it as a pou, which base type it resolves to, the cycle it
+ * is on, if any, and its signature: struct or array, and the members of a
+ * struct with their types, through nested structs. The cache is stamped with
+ * Rules.VERSION and the schema version and is dropped when either changes. It
+ * keeps at most max_entries entries and evicts the least recently used ones.
+ */
+public class ValidationCache {
+
+	private static final int MAGIC = 0x50564331;
+	private static final String FILE_NAME = "validation-cache.bin";
+
+	private Path file;
+	private String stamp;
+	private LinkedHashMap<String, CachedDiagnostic[]> entries;
+	private int hits;
+	private int misses;
+
+	/**
+	 * Constructor. Loads the cache of the given directory if it exists and has
+	 * the current stamp.
+	 *
+	 * @param directory
+	 * @param schema_version
+	 * @param max_entries
+	 * @throws IOException
+	 */
+	public ValidationCache(Path directory, String schema_version, final int max_entries) throws IOException {
+
+		this.file = directory.resolve(FILE_NAME);
+
+		this.stamp = Rules.VERSION + "/" + schema_version;
+
+		this.entries = new LinkedHashMap<String, CachedDiagnostic[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedDiagnostic[]> eldest) {
+				return size() > max_entries;
+			}
+
+		};
+
+		Files.createDirectories(directory);
+
+		load();
+
+	}
+
+	/**
+	 * Run the checks of the given element through the cache of the context. If
+	 * the context has no cache the checks simply run.
+	 *
+	 * @param context
+	 * @param element
+	 * @param diagnostics
+	 * @param check runs the checks of the element, reporting into diagnostics.
+	 */
+	public static void run(ValidationContext context, Element element, DiagnosticCollector diagnostics, Runnable check) {
+
+		ValidationCache cache = context.getCache();
+
+		if (cache == null) {
+
+			check.run();
+
+			return;
+
+		}
+
+		String key = cache.key(context, element);
+
+		if (cache.replay(key, element, diagnostics)) {
+
+			return;
+
+		}
+
+		int start = diagnostics.getDiagnostics().size();
+
+		check.run();
+
+		if (context.getBudget().isExhausted()) {
+
+			// The checks may have stopped partway, so their diagnostics are incomplete.
+			return;
+
+		}
+
+		cache.store(key, diagnostics.getPath(element), diagnostics.getDiagnostics().subList(start, diagnostics.getDiagnostics().size()));
+
+	}
+
+	/**
+	 * Compute the key of an element.
+	 *
+	 * @param context
+	 * @param element
+	 * @return
+	 */
+	public String key(ValidationContext context, Element element) {
+
+		StringBuilder text = new StringBuilder(1024);
+
+		TreeSet<String> names = new TreeSet<String>();
+
+		// Diagnostics cached under one rule set are not the ones of another.
+		text.append(context.getRules().getSignature()).append('\u0000');
+
+		serialize(element, text, names);
+
+		text.append('\u0000');
+
+		SymbolTable symbols = context.getSymbols();
+
+		TypeGraph types = context.getTypes();
+
+		for (String name : names) {
+
+			text.append(name).append(':').append(symbols.getDataTypeCount(name)).append(':').append(symbols.getPouCount(name));
+
+			// Counts are the project's own, a library can still declare the name.
+			text.append(':').append(symbols.isUserPou(name));
+
+			if (types.isUserType(name)) {
+
+				text.append(':').append(types.getBaseType(name)).append(':').append(types.getCycle(name));
+
+				// Struct values are checked against the members, which the subtree doesn't name.
+				text.append(':').append(types.getSignature(name));
+
+			}
+
+			text.append('\n');
+
+		}
+
+		try {
+
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+
+			for (byte b : digest) {
+
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+
+			}
+
+			return hex.toString();
+
+		} catch (NoSuchAlgorithmException e) {
+
+			// Every Java platform must support SHA-256.
+			throw new IllegalStateException(e);
+
+		}
+
+	}
+
+	/**
+	 * Report the cached diagnostics of the given key on the element.
+	 *
+	 * @param key
+	 * @param element
+	 * @param diagnostics
+	 * @return false if the key is not cached.
+	 */
+	public boolean replay(String key, Element element, DiagnosticCollector diagnostics) {
+
+		CachedDiagnostic[] cached;
+
+		synchronized (this) {
+
+			cached = entries.get(key);
+
+			if (cached == null) {
+
+				misses++;
+
+				return false;
+
+			}
+
+			hits++;
+
+		}
+
+		for (CachedDiagnostic diagnostic : cached) {
+
+			Element target = ElementPaths.resolve(element, diagnostic.relative_path);
+
+			if (target == null) {
+
+				// The subtree hashed the same, so this only happens if the cache file is corrupt.
+				target = element;
+
+			}
+
+			diagnostics.add(diagnostic.rule_id, diagnostic.severity, target, diagnostic.message);
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Cache the diagnostics produced for the element.
+	 *
+	 * @param key
+	 * @param root_path path of the element the diagnostics were produced for.
+	 * @param produced
+	 */
+	public void store(String key, String root_path, List<Diagnostic> produced) {
+
+		CachedDiagnostic[] cached = new CachedDiagnostic[produced.size()];
+
+		for (int i = 0; i < cached.length; i++) {
+
+			Diagnostic diagnostic = produced.get(i);
+
+			String path = diagnostic.getPath();
+
+			String relative_path = path.startsWith(root_path) ? path.substring(root_path.length()) : "";
+
+			cached[i] = new CachedDiagnostic(diagnostic.getRuleId(), diagnostic.getSeverity(), relative_path, diagnostic.getMessage());
+
+		}
+
+		synchronized (this) {
+
+			entries.put(key, cached);
+
+		}
+
+	}
+
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Write the cache to disk. The file is replaced atomically, so a crash never
+	 * leaves a truncated cache behind.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void save() throws IOException {
+
+		Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+
+			out.writeInt(MAGIC);
+
+			out.writeUTF(stamp);
+
+			out.writeInt(entries.size());
+
+			// Least recently used first, so that loading restores the order.
+			for (Map.Entry<String, CachedDiagnostic[]> entry : entries.entrySet()) {
+
+				out.writeUTF(entry.getKey());
+
+				out.writeInt(entry.getValue().length);
+
+				for (CachedDiagnostic diagnostic : entry.getValue()) {
+
+					out.writeUTF(diagnostic.rule_id);
+
+					out.writeUTF(diagnostic.severity);
+
+					out.writeUTF(diagnostic.relative_path);
+
+					out.writeUTF(diagnostic.message);
+
+				}
+			}
+		}
+
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+	}
+
+	/**
+	 * Load the cache file. A missing file, a file with another stamp or an
+	 * unreadable file leaves the cache empty.
+	 *
+	 * @throws IOException
+	 */
+	private void load() throws IOException {
+
+		if (! Files.exists(file)) {
+
+			return;
+
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+
+			if (in.readInt() != MAGIC || ! in.readUTF().equals(stamp)) {
+
+				return;
+
+			}
+
+			int count = in.readInt();
+
+			for (int i = 0; i < count; i++) {
+
+				String key = in.readUTF();
+
+				CachedDiagnostic[] cached = new CachedDiagnostic[in.readInt()];
+
+				for (int j = 0; j < cached.length; j++) {
+
+					cached[j] = new CachedDiagnostic(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+
+				}
+
+				entries.put(key, cached);
+
+			}
+
+		} catch (IOException e) {
+
+			entries.clear();
+
+		}
+
+	}
+
+	/**
+	 * Append a canonical form of the subtree: tags, attributes sorted by name
+	 * and text. Collect the keys of the name attributes on the way.
+	 *
+	 * @param node
+	 * @param text
+	 * @param names
+	 */
+	private static void serialize(Node node, StringBuilder text, TreeSet<String> names) {
+
+		if (node.getNodeType() == Node.ELEMENT_NODE) {
+
+			Element element = (Element) node;
+
+			text.append('<').append(element.getTagName());
+
+			NamedNodeMap attributes = element.getAttributes();
+
+			String[] attribute_names = new String[attributes.getLength()];
+
+			for (int i = 0; i < attribute_names.length; i++) {
+
+				attribute_names[i] = attributes.item(i).getNodeName();
+
+			}
+
+			Arrays.sort(attribute_names);
+
+			for (String attribute_name : attribute_names) {
+
+				Attr attribute = element.getAttributeNode(attribute_name);
+
+				text.append(' ').append(attribute_name).append('=').append(attribute.getValue().length()).append(':').append(attribute.getValue());
+
+			}
+
+			if (element.hasAttribute("name")) {
+
+				names.add(NameCounts.key(element.getAttribute("name")));
+
+			}
+
+			text.append('>');
+
+			for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+
+				serialize(child, text, names);
+
+			}
+
+			text.append("</>");
+
+		} else if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE) {
+
+			String value = node.getNodeValue();
+
+			text.append('"').append(value.length()).append(':').append(value);
+
+		}
+
+	}
+
+}
@@ -0,0 +1,117 @@
+package validator;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.w3c.dom.Element;
+
+/**
+ * Everything the checks share for one project: the project itself and the
+ * tables computed from it once, before validation starts. A context is only
+ * read while the checks run, so parallel tasks can share it.
+ */
+public class ValidationContext {
+
+	private Project project;
+	private SymbolTable symbols;
+	private TypeGraph types;
+	private ValidationCache cache;
+	private RuleSet rules = RuleSet.getDefault();
+	private ErrorBudget budget = ErrorBudget.unlimited();
+	private Set<Element> skipped = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+	private InitialValueCache initial_values = new InitialValueCache();
+
+	/**
+	 * Constructor. The project must be initialized. Its symbols and types are
+	 * layered on the default LibraryCatalog, if there is one.
+	 * 
+	 * @param project
+	 */
+	public ValidationContext(Project project) {
+
+		this(project, LibraryCatalog.getDefault());
+
+	}
+
+	/**
+	 * Constructor. The project must be initialized.
+	 * 
+	 * @param project
+	 * @param library the shared libraries, or null.
+	 */
+	public ValidationContext(Project project, LibraryCatalog library) {
+
+		this.project = project;
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("symbol-table");
+
+		this.symbols = new SymbolTable(project, library == null ? null : library.getSymbols());
+
+		this.types = new TypeGraph(project, library == null ? null : library.getTypes());
+
+		ValidationMetrics.endPhase(phase);
+
+	}
+
+	public Project getProject() {
+		return project;
+	}
+
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	public TypeGraph getTypes() {
+		return types;
+	}
+
+	public InitialValueCache getInitialValues() {
+		return initial_values;
+	}
+
+	public RuleSet getRules() {
+		return rules;
+	}
+
+	public void setRules(RuleSet rules) {
+		this.rules = rules;
+	}
+
+	public ErrorBudget getBudget() {
+		return budget;
+	}
+
+	public void setBudget(ErrorBudget budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Leave a data type or pou out of the checks, e.g. because it does not
+	 * conform to the schema. Its name still counts for the symbol table.
+	 * 
+	 * @param element
+	 */
+	public void skip(Element element) {
+
+		skipped.add(element);
+
+	}
+
+	public boolean isSkipped(Element element) {
+		return skipped.contains(element);
+	}
+
+	public boolean hasSkipped() {
+		return ! skipped.isEmpty();
+	}
+
+	public ValidationCache getCache() {
+		return cache;
+	}
+
+	public void setCache(ValidationCache cache) {
+		this.cache = cache;
+	}
+
+}
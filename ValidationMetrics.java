@@ -0,0 +1,294 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the validation runs of this JVM: latency histograms per phase and
+ * per rule family, elements visited per kind and diagnostics emitted per rule.
+ * Phases and rule runs are also emitted as Flight Recorder events.
+ *
+ * Metrics are enabled by setting the system property validator.metrics to the
+ * file the JSON dump is written to. When it is not set, the calls reduce to a
+ * check of a constant and the JFR event, which costs nothing unless a
+ * recording is running.
+ */
+public class ValidationMetrics {
+
+	public static final boolean ENABLED = System.getProperty("validator.metrics") != null;
+
+	private static final ConcurrentHashMap<String, LatencyHistogram> phases = new ConcurrentHashMap<String, LatencyHistogram>();
+	private static final ConcurrentHashMap<String, LatencyHistogram> rules = new ConcurrentHashMap<String, LatencyHistogram>();
+	private static final ConcurrentHashMap<String, LongAdder> visits = new ConcurrentHashMap<String, LongAdder>();
+	private static final ConcurrentHashMap<String, LongAdder> diagnostics = new ConcurrentHashMap<String, LongAdder>();
+
+	/**
+	 * Start timing a phase.
+	 * 
+	 * @param phase
+	 * @return the event to pass to endPhase.
+	 */
+	public static ValidationPhaseEvent beginPhase(String phase) {
+
+		ValidationPhaseEvent event = new ValidationPhaseEvent();
+
+		event.phase = phase;
+
+		if (ENABLED) {
+
+			event.start_nanos = System.nanoTime();
+
+		}
+
+		event.begin();
+
+		return event;
+
+	}
+
+	/**
+	 * Stop timing a phase.
+	 * 
+	 * @param event
+	 */
+	public static void endPhase(ValidationPhaseEvent event) {
+
+		event.end();
+
+		if (ENABLED) {
+
+			histogram(phases, event.phase).record(System.nanoTime() - event.start_nanos);
+
+		}
+
+		event.commit();
+
+	}
+
+	/**
+	 * Start timing a rule family on one element.
+	 * 
+	 * @return the event to pass to endRule.
+	 */
+	public static ValidationRuleEvent beginRule() {
+
+		ValidationRuleEvent event = new ValidationRuleEvent();
+
+		if (ENABLED) {
+
+			event.start_nanos = System.nanoTime();
+
+		}
+
+		event.begin();
+
+		return event;
+
+	}
+
+	/**
+	 * Stop timing a rule family on one element.
+	 * 
+	 * @param event
+	 * @param rule_id
+	 */
+	public static void endRule(ValidationRuleEvent event, String rule_id) {
+
+		event.end();
+
+		if (ENABLED) {
+
+			histogram(rules, rule_id).record(System.nanoTime() - event.start_nanos);
+
+		}
+
+		if (event.shouldCommit()) {
+
+			event.rule = rule_id;
+
+			event.commit();
+
+		}
+
+	}
+
+	/**
+	 * Count a visited element of the given kind, e.g. pou or variable.
+	 * 
+	 * @param kind
+	 */
+	public static void visit(String kind) {
+
+		if (ENABLED) {
+
+			counter(visits, kind).increment();
+
+		}
+
+	}
+
+	/**
+	 * Count an emitted diagnostic of the given rule.
+	 * 
+	 * @param rule_id
+	 */
+	public static void diagnostic(String rule_id) {
+
+		if (ENABLED) {
+
+			counter(diagnostics, rule_id).increment();
+
+		}
+
+	}
+
+	/**
+	 * Write every metric as one JSON object.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void writeJson(Writer out) throws IOException {
+
+		out.write("{\"phases\":");
+
+		write_histograms(out, phases);
+
+		out.write(",\n\"rules\":");
+
+		write_histograms(out, rules);
+
+		out.write(",\n\"elementsVisited\":");
+
+		write_counters(out, visits);
+
+		out.write(",\n\"diagnosticsEmitted\":");
+
+		write_counters(out, diagnostics);
+
+		out.write("}\n");
+
+		out.flush();
+
+	}
+
+	/**
+	 * Write the JSON dump to the file named by validator.metrics, if set.
+	 * 
+	 */
+	public static void dump() {
+
+		if (! ENABLED) {
+
+			return;
+
+		}
+
+		try (Writer out = Files.newBufferedWriter(Paths.get(System.getProperty("validator.metrics")), StandardCharsets.UTF_8)) {
+
+			writeJson(out);
+
+		} catch (IOException e) {
+
+			UIelements.reportException(e);
+
+		}
+
+	}
+
+	private static LatencyHistogram histogram(ConcurrentHashMap<String, LatencyHistogram> map, String key) {
+
+		LatencyHistogram histogram = map.get(key);
+
+		if (histogram == null) {
+
+			map.putIfAbsent(key, new LatencyHistogram());
+
+			histogram = map.get(key);
+
+		}
+
+		return histogram;
+
+	}
+
+	private static LongAdder counter(ConcurrentHashMap<String, LongAdder> map, String key) {
+
+		LongAdder counter = map.get(key);
+
+		if (counter == null) {
+
+			map.putIfAbsent(key, new LongAdder());
+
+			counter = map.get(key);
+
+		}
+
+		return counter;
+
+	}
+
+	private static void write_histograms(Writer out, Map<String, LatencyHistogram> map) throws IOException {
+
+		out.write('{');
+
+		boolean first = true;
+
+		for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<String, LatencyHistogram>(map).entrySet()) {
+
+			if (! first) {
+
+				out.write(',');
+
+			}
+
+			first = false;
+
+			out.write('\n');
+
+			JsonUtilities.writeString(out, entry.getKey());
+
+			out.write(':');
+
+			entry.getValue().writeJson(out);
+
+		}
+
+		out.write('}');
+
+	}
+
+	private static void write_counters(Writer out, Map<String, LongAdder> map) throws IOException {
+
+		out.write('{');
+
+		boolean first = true;
+
+		for (Map.Entry<String, LongAdder> entry : new TreeMap<String, LongAdder>(map).entrySet()) {
+
+			if (! first) {
+
+				out.write(',');
+
+			}
+
+			first = false;
+
+			JsonUtilities.writeString(out, entry.getKey());
+
+			out.write(":" + entry.getValue().sum());
+
+		}
+
+		out.write('}');
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package validator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one validation phase: schema parsing,
+ * Project.init, the data type, pou or configuration checks.
+ */
+@Name("validator.Phase")
+@Label("Validation Phase")
+@Category("PLCopen Validator")
+@Description("A phase of the validation of one file")
+public class ValidationPhaseEvent extends jdk.jfr.Event {
+
+	@Label("Phase")
+	String phase;
+
+	// Transient fields are not recorded; this one feeds ValidationMetrics.
+	transient long start_nanos;
+
+}
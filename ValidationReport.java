@@ -0,0 +1,149 @@
+package validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The diagnostics of one validated file, kept apart from the document. Writing
+ * them into the DOM as SidValidationError nodes is an optional extra step.
+ */
+public class ValidationReport {
+
+	private String source;
+	private ArrayList<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+	private int error_count;
+	private boolean truncated;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param source name of the validated file.
+	 */
+	public ValidationReport(String source) {
+
+		this.source = source;
+
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+
+	public int getErrorCount() {
+		return error_count;
+	}
+
+	public boolean hasErrors() {
+		return error_count > 0;
+	}
+
+	/**
+	 * Check if the run stopped early because its error budget was exhausted.
+	 * 
+	 * @return
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	public void setTruncated(boolean truncated) {
+		this.truncated = truncated;
+	}
+
+	/**
+	 * Add a diagnostic to the report.
+	 * 
+	 * @param diagnostic
+	 */
+	public void add(Diagnostic diagnostic) {
+
+		diagnostics.add(diagnostic);
+
+		if (diagnostic.isError()) {
+
+			error_count++;
+
+		}
+
+	}
+
+	/**
+	 * Add the diagnostics of the given collector, in their order.
+	 * 
+	 * @param collector
+	 */
+	public void addAll(DiagnosticCollector collector) {
+
+		for (Diagnostic diagnostic : collector.getDiagnostics()) {
+
+			add(diagnostic);
+
+		}
+
+	}
+
+	/**
+	 * Write the diagnostics into the DOM they came from, as SidValidationError
+	 * nodes. Diagnostics without an element are skipped.
+	 * 
+	 */
+	public void annotate() {
+
+		for (Diagnostic diagnostic : diagnostics) {
+
+			if (diagnostic.getElement() == null) {
+
+				continue;
+
+			}
+
+			if (diagnostic.isError()) {
+
+				Validator.createErrorNode(diagnostic.getElement(), diagnostic.getMessage());
+
+			} else {
+
+				Validator.createInfoNode(diagnostic.getElement(), diagnostic.getMessage());
+
+			}
+		}
+
+	}
+
+	/**
+	 * Drop the references of the diagnostics to their elements, so that the
+	 * report doesn't keep the DOM alive, e.g. while AnnotatedOutputWriter runs.
+	 * 
+	 */
+	public void detach() {
+
+		for (Diagnostic diagnostic : diagnostics) {
+
+			diagnostic.detach();
+
+		}
+
+	}
+
+	/**
+	 * Print the errors of the report.
+	 * 
+	 */
+	public void print() {
+
+		for (Diagnostic diagnostic : diagnostics) {
+
+			if (diagnostic.isError()) {
+
+				UIelements.println(diagnostic.getPath() + ": " + diagnostic.getMessage());
+
+			}
+		}
+
+	}
+
+}
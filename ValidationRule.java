@@ -0,0 +1,62 @@
+package validator;
+
+import org.w3c.dom.Element;
+
+/**
+ * A rule family that plugs into the validation without changes to the
+ * validators. Implementations are found with ServiceLoader, so a jar lists
+ * them in META-INF/services/validator.ValidationRule.
+ *
+ * A rule checks one kind of element, its target, and reports every diagnostic
+ * with its own id. It runs after the built-in rules of the same element and
+ * must not change the DOM, since pous are checked in parallel.
+ */
+public interface ValidationRule {
+
+	// Targets of a rule.
+	public static final String HEADER = "contentHeader";
+	public static final String DATA_TYPE = "dataType";
+	public static final String POU = "pou";
+	public static final String VARIABLE = "variable";
+
+	/**
+	 * Get the id the rule reports its diagnostics with. It must not be the id
+	 * of a built-in rule.
+	 * 
+	 * @return
+	 */
+	public String getId();
+
+	/**
+	 * Get a one sentence description for the report writers.
+	 * 
+	 * @return
+	 */
+	public String getDescription();
+
+	/**
+	 * Get the kind of element the rule checks: HEADER, DATA_TYPE, POU or
+	 * VARIABLE.
+	 * 
+	 * @return
+	 */
+	public String getTarget();
+
+	/**
+	 * Get the profiles the rule belongs to, besides the release profile, which
+	 * contains every rule.
+	 * 
+	 * @return
+	 */
+	public String[] getProfiles();
+
+	/**
+	 * Check a single element of the rule's target kind.
+	 * 
+	 * @param element
+	 * @param context
+	 * @param diagnostics
+	 */
+	public void check(Element element, ValidationContext context, DiagnosticCollector diagnostics);
+
+}
@@ -0,0 +1,26 @@
+package validator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one run of a rule family on one element. Only
+ * runs slower than the threshold are recorded by default, since there is one
+ * per element and rule.
+ */
+@Name("validator.Rule")
+@Label("Validation Rule")
+@Category("PLCopen Validator")
+@Description("A rule family checking one element")
+@Threshold("1 ms")
+public class ValidationRuleEvent extends jdk.jfr.Event {
+
+	@Label("Rule")
+	String rule;
+
+	transient long start_nanos;
+
+}
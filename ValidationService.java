@@ -0,0 +1,496 @@
+package validator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP service that validates PLCopen XML in a warm JVM, so that build
+ * jobs don't pay for startup, schema compilation and JIT warmup on every file.
+ *
+ * POST /validate with the XML as body returns the JSON report, or the SARIF
+ * report with ?format=sarif. ?rules= selects a rule set, e.g.
+ * ?rules=pre-commit. A document that does not conform to the schema gets a
+ * 422 response. GET /health and GET /metrics report the state of the service.
+ *
+ * At most -Dvalidator.max-requests validations, by default one per core, run
+ * at a time. Further requests get a 503 response with Retry-After right away
+ * instead of queueing up their documents in memory.
+ *
+ * Requests run on virtual threads when the JVM has them, on a cached thread
+ * pool otherwise. The pous of a request are still checked on the common
+ * fork/join pool.
+ */
+public class ValidationService {
+
+	// Larger bodies are rejected before they are parsed.
+	private static final int MAX_BODY_BYTES = 256 << 20;
+
+	private File xsd_file;
+	private HttpServer server;
+	private ExecutorService executor;
+	private Semaphore admissions;
+	private long started;
+	private AtomicLong requests = new AtomicLong();
+	private AtomicLong invalid_documents = new AtomicLong();
+	private AtomicLong failures = new AtomicLong();
+	private AtomicLong rejected = new AtomicLong();
+	private LatencyHistogram latency = new LatencyHistogram();
+
+	/**
+	 * Constructor. Compiles the schema and loads the lexical tables before the
+	 * first request comes in.
+	 * 
+	 * @param xsd_file
+	 * @param port
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	public ValidationService(File xsd_file, int port) throws IOException, SAXException, ParserConfigurationException {
+
+		this.xsd_file = xsd_file;
+
+		this.admissions = new Semaphore(Integer.getInteger("validator.max-requests", Runtime.getRuntime().availableProcessors()));
+
+		warm_up();
+
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+
+		server.createContext("/validate", this::handle_validate);
+
+		server.createContext("/health", this::handle_health);
+
+		server.createContext("/metrics", this::handle_metrics);
+
+		executor = create_executor();
+
+		server.setExecutor(executor);
+
+	}
+
+	/**
+	 * Start accepting requests.
+	 * 
+	 */
+	public void start() {
+
+		started = System.currentTimeMillis();
+
+		server.start();
+
+		UIelements.println("Validation service listening on http://localhost:" + server.getAddress().getPort() + "/validate");
+
+	}
+
+	/**
+	 * Stop accepting requests and wait up to the given delay for running ones.
+	 * 
+	 * @param delay_seconds
+	 */
+	public void stop(int delay_seconds) {
+
+		server.stop(delay_seconds);
+
+		executor.shutdown();
+
+	}
+
+	/**
+	 * Handle POST /validate.
+	 * 
+	 * @param exchange
+	 * @throws IOException
+	 */
+	private void handle_validate(HttpExchange exchange) throws IOException {
+
+		long start = System.nanoTime();
+
+		requests.incrementAndGet();
+
+		if (! admissions.tryAcquire()) {
+
+			rejected.incrementAndGet();
+
+			try {
+
+				exchange.getResponseHeaders().set("Retry-After", "1");
+
+				send(exchange, 503, "text/plain", "Too many validations running, retry later.");
+
+			} finally {
+
+				exchange.close();
+
+			}
+
+			return;
+
+		}
+
+		try {
+
+			if (! exchange.getRequestMethod().equals("POST")) {
+
+				send(exchange, 405, "text/plain", "Use POST with the PLCopen XML as body.");
+
+				return;
+
+			}
+
+			String format = query_parameter(exchange, "format");
+
+			String rules_spec = query_parameter(exchange, "rules");
+
+			RuleSet rules = rules_spec == null ? RuleSet.getDefault() : new RuleSet(rules_spec);
+
+			byte[] body = read_body(exchange.getRequestBody());
+
+			if (body == null) {
+
+				send(exchange, 413, "text/plain", "The document is larger than " + MAX_BODY_BYTES + " bytes.");
+
+				return;
+
+			}
+
+			Project project = parse(body);
+
+			if (project == null) {
+
+				invalid_documents.incrementAndGet();
+
+				send(exchange, 422, "text/plain", "The document does not conform to the PLCOpen TC6 Schema definition.");
+
+				return;
+
+			}
+
+			ValidationReport report = Validator.validate(project, null, rules);
+
+			StringWriter out = new StringWriter();
+
+			if ("sarif".equals(format)) {
+
+				new SarifReportWriter(out).write(report);
+
+				send(exchange, 200, "application/sarif+json", out.toString());
+
+			} else {
+
+				new JsonReportWriter(out).write(report);
+
+				send(exchange, 200, "application/json", out.toString());
+
+			}
+
+		} catch (IllegalArgumentException e) {
+
+			send_error(exchange, 400, e.getMessage());
+
+		} catch (SAXException e) {
+
+			invalid_documents.incrementAndGet();
+
+			send_error(exchange, 422, e.getMessage());
+
+		} catch (IOException | RuntimeException | ParserConfigurationException e) {
+
+			failures.incrementAndGet();
+
+			send_error(exchange, 500, String.valueOf(e.getMessage()));
+
+		} finally {
+
+			admissions.release();
+
+			latency.record(System.nanoTime() - start);
+
+			exchange.close();
+
+		}
+
+	}
+
+	/**
+	 * Handle GET /health.
+	 * 
+	 * @param exchange
+	 * @throws IOException
+	 */
+	private void handle_health(HttpExchange exchange) throws IOException {
+
+		try {
+
+			send(exchange, 200, "application/json", "{\"status\":\"ok\",\"uptimeMillis\":" + (System.currentTimeMillis() - started) + "}");
+
+		} finally {
+
+			exchange.close();
+
+		}
+
+	}
+
+	/**
+	 * Handle GET /metrics: the counters of the service and, when enabled, the
+	 * validation metrics.
+	 * 
+	 * @param exchange
+	 * @throws IOException
+	 */
+	private void handle_metrics(HttpExchange exchange) throws IOException {
+
+		try {
+
+			StringWriter out = new StringWriter();
+
+			out.write("{\"requests\":" + requests.get() + ",\"invalidDocuments\":" + invalid_documents.get() + ",\"failures\":" + failures.get() + ",\"rejected\":" + rejected.get() + ",\"latency\":");
+
+			latency.writeJson(out);
+
+			if (ValidationMetrics.ENABLED) {
+
+				out.write(",\n\"validation\":");
+
+				ValidationMetrics.writeJson(out);
+
+			}
+
+			out.write("}\n");
+
+			send(exchange, 200, "application/json", out.toString());
+
+		} finally {
+
+			exchange.close();
+
+		}
+
+	}
+
+	/**
+	 * Parse and initialize a project from a request body.
+	 * 
+	 * @param body
+	 * @return null if the document does not conform to the schema.
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	private Project parse(byte[] body) throws IOException, SAXException, ParserConfigurationException {
+
+		ParserPool pool = ParserPool.forSchema(xsd_file);
+
+		PooledParser parser = pool.acquire();
+
+		Document doc;
+
+		XMLErrorLogger eh;
+
+		ValidationPhaseEvent phase = ValidationMetrics.beginPhase("parse");
+
+		try {
+
+			doc = parser.parse(new ByteArrayInputStream(body), "request.xml");
+
+			eh = parser.getErrorLogger();
+
+		} finally {
+
+			pool.release(parser);
+
+			ValidationMetrics.endPhase(phase);
+
+		}
+
+		if (! eh.everythingOk()) {
+
+			return null;
+
+		}
+
+		doc.getDocumentElement().normalize();
+
+		Project project = new Project();
+
+		project.setDom(doc);
+
+		phase = ValidationMetrics.beginPhase("project-init");
+
+		project.init();
+
+		ValidationMetrics.endPhase(phase);
+
+		return project;
+
+	}
+
+	/**
+	 * Compile the schema into the parser pool and touch the lexical tables and
+	 * rule registry, so that the first request doesn't pay for them.
+	 * 
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	private void warm_up() throws IOException, SAXException, ParserConfigurationException {
+
+		ParserPool pool = ParserPool.forSchema(xsd_file);
+
+		pool.release(pool.acquire());
+
+		IECWords.KEYWORDS.contains("INT");
+
+		IECWords.STANDARD_POUS.contains("ADD");
+
+		RuleSet.getDefault();
+
+	}
+
+	/**
+	 * Create an executor that starts a virtual thread per request. Virtual
+	 * threads are looked up reflectively, so the service still runs, on
+	 * platform threads, on JVMs that don't have them.
+	 * 
+	 * @return
+	 */
+	private static ExecutorService create_executor() {
+
+		try {
+
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+			return (ExecutorService) factory.invoke(null);
+
+		} catch (ReflectiveOperationException e) {
+
+			return Executors.newCachedThreadPool();
+
+		}
+
+	}
+
+	/**
+	 * Read a request body, up to MAX_BODY_BYTES.
+	 * 
+	 * @param in
+	 * @return null if the body is larger.
+	 * @throws IOException
+	 */
+	private static byte[] read_body(InputStream in) throws IOException {
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 16);
+
+		byte[] buffer = new byte[1 << 16];
+
+		int read;
+
+		while ((read = in.read(buffer)) > 0) {
+
+			if (body.size() + read > MAX_BODY_BYTES) {
+
+				return null;
+
+			}
+
+			body.write(buffer, 0, read);
+
+		}
+
+		return body.toByteArray();
+
+	}
+
+	/**
+	 * Get a parameter of the query string.
+	 * 
+	 * @param exchange
+	 * @param name
+	 * @return null if the parameter is missing.
+	 */
+	private static String query_parameter(HttpExchange exchange, String name) {
+
+		String query = exchange.getRequestURI().getRawQuery();
+
+		if (query == null) {
+
+			return null;
+
+		}
+
+		for (String parameter : query.split("&")) {
+
+			int equals = parameter.indexOf('=');
+
+			if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+
+				return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+
+			}
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Send an error response, unless the response headers already went out,
+	 * e.g. when the client went away while the report was written. Then the
+	 * status can't change anymore and closing the exchange is all that is left.
+	 * 
+	 * @param exchange
+	 * @param status
+	 * @param message
+	 * @throws IOException
+	 */
+	private static void send_error(HttpExchange exchange, int status, String message) throws IOException {
+
+		// -1 until sendResponseHeaders has run.
+		if (exchange.getResponseCode() != -1) {
+
+			return;
+
+		}
+
+		send(exchange, status, "text/plain", message);
+
+	}
+
+	private static void send(HttpExchange exchange, int status, String content_type, String body) throws IOException {
+
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+		exchange.getResponseHeaders().set("Content-Type", content_type + "; charset=utf-8");
+
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+
+			out.write(bytes);
+
+		}
+
+	}
+
+}
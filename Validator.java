@@ -4,15 +4,27 @@ import org.w3c.dom.*;
 
 public class Validator {
     
-    public static String errorMessage;
-    public static String infoValue;
+    // Kept per thread so that files validated concurrently don't overwrite each other's messages.
+    private static final ThreadLocal<String> errorMessage = new ThreadLocal<String>();
+    private static final ThreadLocal<String> infoValue = new ThreadLocal<String>();
+    
+    // While set, error and info nodes are reported into it instead of the DOM. See validate_configurations().
+    private static final ThreadLocal<DiagnosticCollector> capture = new ThreadLocal<DiagnosticCollector>();
     
     public static String getErrorMessage() {
-        return errorMessage;
+        return errorMessage.get();
+    }
+    
+    public static void setErrorMessage(String message) {
+        errorMessage.set(message);
     }
     
     public static String getInfoValue() {
-        return infoValue;
+        return infoValue.get();
+    }
+    
+    public static void setInfoValue(String value) {
+        infoValue.set(value);
     }
     
     /**
@@ -23,6 +35,16 @@ public class Validator {
      */
     public static void createErrorNode(Element element, String message) {
         
+        DiagnosticCollector diagnostics = capture.get();
+        
+        if (diagnostics != null) {
+        	
+        	diagnostics.error(Rules.CONFIGURATION, element, message);
+        	
+        	return;
+        	
+        }
+        
         Document dom = element.getOwnerDocument();
         
         Element err = dom.createElement("SidValidationError");
@@ -47,6 +69,16 @@ public class Validator {
      */
     public static void createInfoNode(Element element, String value) {
         
+        DiagnosticCollector diagnostics = capture.get();
+        
+        if (diagnostics != null) {
+        	
+        	diagnostics.info(Rules.CONFIGURATION, element, value);
+        	
+        	return;
+        	
+        }
+        
         Document dom = element.getOwnerDocument();
         
         Element info = dom.createElement("SidValidationError");
@@ -62,39 +94,205 @@ public class Validator {
     }
     
     /**
-     * Validate the given project
+     * Validate the given project and annotate its DOM with the diagnostics.
      * 
      * @param project
      */
     public static void validateProject(Project project) {
         
+        ValidationReport report = validate(project);
+        
+        report.annotate();
+        
+        if (report.isTruncated()) {
+        	
+        	UIelements.println("Validation stopped after " + report.getErrorCount() + " errors, the error budget was exhausted.");
+        	
+        }
+
+    }
+    
+    /**
+     * Validate the given project and return the diagnostics without changing the DOM.
+     * 
+     * @param project
+     * @return
+     */
+    public static ValidationReport validate(Project project) {
+        
+        return validate(project, null);
+        
+    }
+    
+    /**
+     * Validate the given project, skipping the data types and pous whose results are cached.
+     * 
+     * @param project
+     * @param cache the cache to use, or null.
+     * @return
+     */
+    public static ValidationReport validate(Project project, ValidationCache cache) {
+        
+        return validate(project, cache, RuleSet.getDefault(), ErrorBudget.fromSystemProperty());
+        
+    }
+    
+    /**
+     * Validate the given project with the given rules only. Data types and pous
+     * are not visited at all if no enabled rule checks them.
+     * 
+     * @param project
+     * @param cache the cache to use, or null.
+     * @param rules
+     * @return
+     */
+    public static ValidationReport validate(Project project, ValidationCache cache, RuleSet rules) {
+        
+        return validate(project, cache, rules, ErrorBudget.fromSystemProperty());
+        
+    }
+    
+    /**
+     * Validate the given project until the given budget of errors is exhausted.
+     * The run stops before the next data type, pou or variable and the report
+     * is marked as truncated.
+     * 
+     * @param project
+     * @param cache the cache to use, or null.
+     * @param rules
+     * @param budget
+     * @return
+     */
+    public static ValidationReport validate(Project project, ValidationCache cache, RuleSet rules, ErrorBudget budget) {
+        
+        ValidationContext context = new ValidationContext(project);
+        
+        context.setCache(cache);
+        
+        context.setRules(rules);
+        
+        context.setBudget(budget);
+        
+        return validate(context);
+        
+    }
+    
+    /**
+     * Validate the project of the given context with its cache, rules and budget.
+     * Data types and pous the context skips are not checked.
+     * 
+     * @param context
+     * @return
+     */
+    public static ValidationReport validate(ValidationContext context) {
+        
+    	Project project = context.getProject();
+    	
+    	RuleSet rules = context.getRules();
+    	
+    	ErrorBudget budget = context.getBudget();
+    	
     	// Get root document element
         Element root = project.getDom().getDocumentElement();
         
-        validate_content_header((Element)root.getElementsByTagName("contentHeader").item(0));
+        DiagnosticCollector diagnostics = new DiagnosticCollector(budget, rules);
+        
+        ValidationPhaseEvent phase = ValidationMetrics.beginPhase("content-header");
+        
+        Element contentHeader = (Element)root.getElementsByTagName("contentHeader").item(0);
+        
+        if (rules.isEnabled(Rules.HEADER_NAME)) {
+        	
+        	validate_content_header(contentHeader, diagnostics);
+        	
+        }
+        
+        for (ValidationRule plugged_in : rules.getRules(ValidationRule.HEADER)) {
+        	
+        	plugged_in.check(contentHeader, context, diagnostics);
+        	
+        }
+        
+        ValidationMetrics.endPhase(phase);
         
-        new DataTypeValidation(project).validate();
+        if (DataTypeValidation.hasRules(rules) && ! budget.isExhausted()) {
         
-        new PouValidation(project).validate();
+        	phase = ValidationMetrics.beginPhase("data-types");
         
-        new ConfigurationValidation(project).validate();
+        	new DataTypeValidation(context, diagnostics).validate();
+        
+        	ValidationMetrics.endPhase(phase);
+        	
+        }
+        
+        if (PouValidation.hasRules(rules) && ! budget.isExhausted()) {
+        
+        	phase = ValidationMetrics.beginPhase("pous");
+        
+        	diagnostics.addAll(PouValidationTask.validate(context));
+        
+        	ValidationMetrics.endPhase(phase);
+        	
+        }
+        
+        if (rules.isEnabled(Rules.CONFIGURATION) && ! budget.isExhausted() && ! context.hasSkipped()) {
+        
+        	phase = ValidationMetrics.beginPhase("configurations");
+        
+        	validate_configurations(project, diagnostics);
+        
+        	ValidationMetrics.endPhase(phase);
+        	
+        }
+        
+        ValidationReport report = new ValidationReport(project.getDom().getDocumentURI());
+        
+        report.addAll(diagnostics);
+        
+        report.setTruncated(budget.isExhausted());
+        
+        return report;
 
     }
     
+    /**
+     * Run the configuration checks, reporting into the given collector. They
+     * still report through createErrorNode() and createInfoNode(), which report
+     * into the collector instead of the DOM while they run.
+     * 
+     * @param project
+     * @param diagnostics
+     */
+    static void validate_configurations(Project project, DiagnosticCollector diagnostics) {
+    	
+    	capture.set(diagnostics);
+    	
+    	try {
+    		
+    		new ConfigurationValidation(project).validate();
+    		
+    	} finally {
+    		
+    		capture.remove();
+    		
+    	}
+        
+    }
+    
     /**
      * Validate the content header name attribute.
      * 
      * @param contentHeader
-     * @return
+     * @param diagnostics
      */
-    private static void validate_content_header(Element contentHeader) {
+    static void validate_content_header(Element contentHeader, DiagnosticCollector diagnostics) {
         
-        String content_header = contentHeader.getAttribute("name").trim();
+        String error = NameRules.header_name_error(contentHeader.getAttribute("name"));
         
         // if the name is empty create the appropriate error node attribute.
-        if (content_header.equals("")) {
+        if (error != null) {
         	
-            createErrorNode(contentHeader,"Attribute \"name\" of element \"project\\contentHeader\" cannot be empty.");
+            diagnostics.error(Rules.HEADER_NAME, contentHeader, error);
             
         }
         
@@ -0,0 +1,18 @@
+package validator;
+
+/**
+ * A plugged in rule of the VARIABLE target that works on the facts the
+ * interface walk has already computed, instead of on the variable element.
+ */
+public interface VariableRule extends ValidationRule {
+
+	/**
+	 * Check a single variable.
+	 * 
+	 * @param variable
+	 * @param context
+	 * @param diagnostics
+	 */
+	public void check(VariableView variable, ValidationContext context, DiagnosticCollector diagnostics);
+
+}
@@ -0,0 +1,142 @@
+package validator;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * The facts the variable rules look at, computed once per variable while the
+ * interface is walked: the trimmed name and address, the kind of the list the
+ * variable is declared in, its type and the elementary type it resolves to,
+ * and pointers to its type and initialValue children.
+ */
+public class VariableView {
+
+	private Element element;
+	private Element list;
+	private String list_kind;
+	private String name;
+	private String address;
+	private String data_type;
+	private String base_type;
+	private Element type;
+	private Element initial_value;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param element the variable element.
+	 * @param list the variable list element it is declared in.
+	 * @param types
+	 */
+	public VariableView(Element element, Element list, TypeGraph types) {
+
+		this.element = element;
+
+		this.list = list;
+
+		this.list_kind = list.getTagName();
+
+		this.name = element.getAttribute("name").trim();
+
+		this.address = element.getAttribute("address").trim();
+
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+
+			if (child.getNodeType() != Node.ELEMENT_NODE) {
+
+				continue;
+
+			}
+
+			String tag_name = ((Element) child).getTagName();
+
+			if (tag_name.equals("type")) {
+
+				// The schema allows exactly one child.
+				type = XMLUtilities.getSingleChildElement((Element) child);
+
+			} else if (tag_name.equals("initialValue")) {
+
+				initial_value = (Element) child;
+
+			}
+		}
+
+		this.data_type = VarListHandler.getVariableDataType(element);
+
+		if (type.getTagName().equals("derived")) {
+
+			base_type = types.getBaseType(type.getAttribute("name"));
+
+		} else {
+
+			String elementary = IECWords.ELEMENTARY_TYPES.get(type.getTagName());
+
+			base_type = elementary != null ? elementary : NameCounts.key(type.getTagName());
+
+		}
+
+	}
+
+	public Element getElement() {
+		return element;
+	}
+
+	public Element getList() {
+		return list;
+	}
+
+	/**
+	 * Get the tag of the variable list, e.g. inputVars.
+	 * 
+	 * @return
+	 */
+	public String getListKind() {
+		return list_kind;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	/**
+	 * Get the data type as VarListHandler reports it.
+	 * 
+	 * @return
+	 */
+	public String getDataType() {
+		return data_type;
+	}
+
+	/**
+	 * Get the elementary type the variable type resolves to, upper case.
+	 * 
+	 * @return "" for user types whose chain does not end in an elementary type.
+	 */
+	public String getBaseType() {
+		return base_type;
+	}
+
+	/**
+	 * Get the single child of the type element, e.g. BOOL or derived.
+	 * 
+	 * @return
+	 */
+	public Element getType() {
+		return type;
+	}
+
+	/**
+	 * Get the initialValue element.
+	 * 
+	 * @return null if the variable has none.
+	 */
+	public Element getInitialValue() {
+		return initial_value;
+	}
+
+}
@@ -0,0 +1,399 @@
+package validator;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Watches a directory and revalidates its xml files as they change, printing
+ * only the diagnostics that appeared or went away since the last run of the
+ * same file.
+ *
+ * Editors and exporters write a file in several steps, so events are
+ * collected until the directory has been quiet for DEBOUNCE_MILLIS. A file
+ * whose content hashes the same as at its last run is skipped. Data types and
+ * pous that did not change come from a ValidationCache. It is never saved, so
+ * its entries only live in memory, but it needs a directory: a temporary one,
+ * deleted with its content when the JVM exits.
+ *
+ * Errors are told apart by the names of the elements they are on, e.g.
+ * pou[Main]/interface/localVars/variable[x], not by position, so inserting a
+ * pou or a variable doesn't make the errors after it show up as new.
+ */
+public class WatchValidator {
+
+	private static final long DEBOUNCE_MILLIS = 250;
+
+	private File xsd_file;
+	private Path directory;
+	private ValidationCache cache;
+
+	// Per file, the content hash and the error keys of the last run.
+	private HashMap<Path, byte[]> hashes = new HashMap<Path, byte[]>();
+	private HashMap<Path, LinkedHashSet<String>> errors = new HashMap<Path, LinkedHashSet<String>>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param xsd_file
+	 * @param directory
+	 * @throws IOException
+	 */
+	public WatchValidator(File xsd_file, Path directory) throws IOException {
+
+		this.xsd_file = xsd_file;
+
+		this.directory = directory;
+
+		Path cache_directory = Files.createTempDirectory("plcopen-watch");
+
+		// --watch runs until the JVM is stopped, so there is no other place to clean up.
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(cache_directory)));
+
+		this.cache = new ValidationCache(cache_directory, xsd_file.getName(), 100000);
+
+	}
+
+	/**
+	 * Validate the files already in the directory, then watch it until the
+	 * thread is interrupted.
+	 * 
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void run() throws IOException, InterruptedException {
+
+		try (Stream<Path> files = Files.list(directory)) {
+
+			for (Path file : files.filter(WatchValidator::is_xml).sorted().collect(Collectors.toList())) {
+
+				revalidate(file);
+
+			}
+		}
+
+		UIelements.println("Watching " + directory + " for changes.");
+
+		try (WatchService watcher = directory.getFileSystem().newWatchService()) {
+
+			directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+			LinkedHashSet<Path> pending = new LinkedHashSet<Path>();
+
+			while (! Thread.currentThread().isInterrupted()) {
+
+				// Block for the first event, then keep collecting until the burst is over.
+				WatchKey key = pending.isEmpty() ? watcher.take() : watcher.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+
+				if (key == null) {
+
+					for (Path file : pending) {
+
+						revalidate(file);
+
+					}
+
+					pending.clear();
+
+					continue;
+
+				}
+
+				for (WatchEvent<?> event : key.pollEvents()) {
+
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+
+						// Events were lost, so look at every file again. Unchanged ones are skipped by their hash.
+						try (Stream<Path> files = Files.list(directory)) {
+
+							files.filter(WatchValidator::is_xml).forEach(pending::add);
+
+						}
+
+						continue;
+
+					}
+
+					Path file = directory.resolve((Path) event.context());
+
+					if (is_xml(file)) {
+
+						pending.add(file);
+
+					}
+				}
+
+				key.reset();
+
+			}
+
+		} catch (ClosedWatchServiceException e) {
+
+			// The directory went away.
+
+		}
+
+	}
+
+	/**
+	 * Revalidate a file if its content changed, and print the difference.
+	 * 
+	 * @param file
+	 */
+	private void revalidate(Path file) {
+
+		if (! Files.exists(file)) {
+
+			if (hashes.remove(file) != null) {
+
+				UIelements.println(file.getFileName() + ": removed.");
+
+			}
+
+			errors.remove(file);
+
+			return;
+
+		}
+
+		try {
+
+			byte[] content = Files.readAllBytes(file);
+
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+
+			if (Arrays.equals(hash, hashes.get(file))) {
+
+				return;
+
+			}
+
+			hashes.put(file, hash);
+
+			LinkedHashSet<String> current = validate(file, content);
+
+			LinkedHashSet<String> previous = errors.get(file);
+
+			errors.put(file, current);
+
+			print_difference(file, previous == null ? new LinkedHashSet<String>() : previous, current);
+
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+
+			// Most likely the file is still being written; the next event brings it back.
+			hashes.remove(file);
+
+			UIelements.println(file.getFileName() + ": could not be read: " + e.getMessage());
+
+		} catch (NoSuchAlgorithmException e) {
+
+			// Every Java platform must support SHA-256.
+			throw new IllegalStateException(e);
+
+		}
+
+	}
+
+	/**
+	 * Validate the content of a file.
+	 * 
+	 * @param file
+	 * @param content the bytes read and hashed by revalidate().
+	 * @return the keys of its errors.
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	private LinkedHashSet<String> validate(Path file, byte[] content) throws IOException, SAXException, ParserConfigurationException {
+
+		LinkedHashSet<String> keys = new LinkedHashSet<String>();
+
+		ParserPool pool = ParserPool.forSchema(xsd_file);
+
+		PooledParser parser = pool.acquire();
+
+		Document doc;
+
+		XMLErrorLogger eh;
+
+		try {
+
+			// The file may have changed again since it was read, so parse what was hashed.
+			doc = parser.parse(new ByteArrayInputStream(content), file.toUri().toString());
+
+			eh = parser.getErrorLogger();
+
+		} finally {
+
+			pool.release(parser);
+
+		}
+
+		if (! eh.everythingOk()) {
+
+			keys.add("The file does not conform to the PLCOpen TC6 Schema definition.");
+
+			return keys;
+
+		}
+
+		doc.getDocumentElement().normalize();
+
+		Project project = new Project();
+
+		project.setDom(doc);
+
+		project.init();
+
+		project.setFile(file.toFile());
+
+		// The checks of Validator.validateProject, without annotating a DOM nobody will save.
+		for (Diagnostic diagnostic : Validator.validate(project, cache).getDiagnostics()) {
+
+			if (diagnostic.isError()) {
+
+				String key = name_path(diagnostic) + " [" + diagnostic.getRuleId() + "] " + diagnostic.getMessage();
+
+				// The same error on unnamed siblings is numbered, not collapsed.
+				String numbered = key;
+
+				for (int occurrence = 2; ! keys.add(numbered); occurrence++) {
+
+					numbered = key + " #" + occurrence;
+
+				}
+
+			}
+		}
+
+		return keys;
+
+	}
+
+	/**
+	 * The path of a diagnostic's element by the names of the elements on it,
+	 * e.g. pou[Main]/interface/localVars/variable[x].
+	 * 
+	 * @param diagnostic
+	 * @return
+	 */
+	private static String name_path(Diagnostic diagnostic) {
+
+		if (diagnostic.getElement() == null) {
+
+			return diagnostic.getPath();
+
+		}
+
+		StringBuilder path = new StringBuilder();
+
+		for (Node node = diagnostic.getElement(); node instanceof Element; node = node.getParentNode()) {
+
+			Element element = (Element) node;
+
+			String step = element.hasAttribute("name") ? element.getTagName() + "[" + element.getAttribute("name") + "]" : element.getTagName();
+
+			path.insert(0, path.length() == 0 ? step : step + "/");
+
+		}
+
+		return path.toString();
+
+	}
+
+	private static void print_difference(Path file, LinkedHashSet<String> previous, LinkedHashSet<String> current) {
+
+		ArrayList<String> lines = new ArrayList<String>();
+
+		for (String key : current) {
+
+			if (! previous.contains(key)) {
+
+				lines.add("  + " + key);
+
+			}
+		}
+
+		for (String key : previous) {
+
+			if (! current.contains(key)) {
+
+				lines.add("  - " + key);
+
+			}
+		}
+
+		if (lines.isEmpty()) {
+
+			UIelements.println(file.getFileName() + ": no change, " + current.size() + " errors.");
+
+			return;
+
+		}
+
+		UIelements.println(file.getFileName() + ": " + current.size() + " errors.");
+
+		for (String line : lines) {
+
+			UIelements.println(line);
+
+		}
+
+	}
+
+	/**
+	 * Delete a directory and everything in it, as far as possible.
+	 * 
+	 * @param directory
+	 */
+	private static void delete(Path directory) {
+
+		try (Stream<Path> paths = Files.walk(directory)) {
+
+			// Deepest first, so directories are empty when they are deleted.
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+
+				Files.deleteIfExists(path);
+
+			}
+
+		} catch (IOException e) {
+
+			// Left to the system's cleanup of its temporary directory.
+
+		}
+
+	}
+
+	private static boolean is_xml(Path file) {
+
+		return file.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".xml");
+
+	}
+
+}
@@ -0,0 +1,138 @@
+package validator;
+
+/**
+ * A fixed set of words behind a minimal perfect hash: every word has its own
+ * slot, so a lookup hashes the name once, compares it with one word and is
+ * done. Words are compared ASCII case-insensitively straight from the
+ * CharSequence, so a lookup allocates nothing. The tables are computed by
+ * WordTableGenerator; IECWords holds the generated ones.
+ */
+public final class WordTable {
+
+	private final String[] words;
+	private final int[] seeds;
+
+	/**
+	 * Constructor
+	 *
+	 * @param words the upper-case words, each in the slot the hash of its seed picks.
+	 * @param seeds the seed of every bucket.
+	 */
+	public WordTable(String[] words, int[] seeds) {
+
+		this.words = words;
+
+		this.seeds = seeds;
+
+	}
+
+	/**
+	 * Check if the table contains the given name, ignoring ASCII case.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public boolean contains(CharSequence name) {
+
+		return get(name) != null;
+
+	}
+
+	/**
+	 * Get the upper-case word of the table the given name matches.
+	 *
+	 * @param name
+	 * @return the word, or null if there is none.
+	 */
+	public String get(CharSequence name) {
+
+		if (words.length == 0) {
+
+			return null;
+
+		}
+
+		int bucket = Math.floorMod(hash(name, 0), seeds.length);
+
+		String word = words[Math.floorMod(hash(name, seeds[bucket]), words.length)];
+
+		return equals_ignore_ascii_case(word, name) ? word : null;
+
+	}
+
+	public int size() {
+		return words.length;
+	}
+
+	/**
+	 * Hash a name as its ASCII upper-case form would hash, without making that form.
+	 *
+	 * @param name
+	 * @param seed
+	 * @return
+	 */
+	static int hash(CharSequence name, int seed) {
+
+		int h = 0x811C9DC5 ^ seed;
+
+		for (int i = 0; i < name.length(); i++) {
+
+			char c = name.charAt(i);
+
+			if (c >= 'a' && c <= 'z') {
+
+				c -= 'a' - 'A';
+
+			}
+
+			h = (h ^ c) * 0x01000193;
+
+		}
+
+		h ^= h >>> 16;
+
+		h *= 0x85EBCA6B;
+
+		h ^= h >>> 13;
+
+		return h;
+
+	}
+
+	/**
+	 * Compare an upper-case word with a name, ignoring the ASCII case of the name.
+	 *
+	 * @param word
+	 * @param name
+	 * @return
+	 */
+	private static boolean equals_ignore_ascii_case(String word, CharSequence name) {
+
+		if (word.length() != name.length()) {
+
+			return false;
+
+		}
+
+		for (int i = 0; i < word.length(); i++) {
+
+			char c = name.charAt(i);
+
+			if (c >= 'a' && c <= 'z') {
+
+				c -= 'a' - 'A';
+
+			}
+
+			if (c != word.charAt(i)) {
+
+				return false;
+
+			}
+		}
+
+		return true;
+
+	}
+
+}
@@ -0,0 +1,478 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Generates IECWords, the word sets of IEC 61131-3 as minimal perfect hash
+ * tables. The word lists below are the source. The Maven build compiles this
+ * class and WordTable first and runs it in the generate-sources phase, which
+ * rewrites IECWords.java, so the tables always match the lists. Without Maven
+ * run
+ *
+ *     java validator.WordTableGenerator IECWords.java
+ *
+ * The hash is hash and displace: words are spread over buckets, then, largest
+ * bucket first, every bucket gets the first seed that sends all its words to
+ * free slots. With one slot per word the table is minimal.
+ *
+ * WordTableTest checks every list against the lookup it replaces,
+ * CommonLexer.isKeyword and the IECUtilities word checks, through
+ * check_upstream(): each word must be accepted by them, and each candidate
+ * left out, e.g. a conversion between two types that has none, must be
+ * rejected. Differences other than the intended ones listed below fail the
+ * test. The generator itself only needs WordTable, so that it can run before
+ * the rest of the package is compiled.
+ */
+public class WordTableGenerator {
+
+	private static final String[] ELEMENTARY_TYPES = {
+		"BOOL", "SINT", "INT", "DINT", "LINT", "USINT", "UINT", "UDINT", "ULINT", "REAL", "LREAL",
+		"TIME", "DATE", "TIME_OF_DAY", "TOD", "DATE_AND_TIME", "DT", "STRING", "WSTRING",
+		"BYTE", "WORD", "DWORD", "LWORD"
+	};
+
+	private static final String[] GENERIC_TYPES = {
+		"ANY", "ANY_DERIVED", "ANY_ELEMENTARY", "ANY_MAGNITUDE", "ANY_NUM", "ANY_REAL", "ANY_INT",
+		"ANY_BIT", "ANY_STRING", "ANY_DATE"
+	};
+
+	// EN and ENO are reserved too, but they are legal variable names with rules of their own.
+	private static final String[] KEYWORDS = {
+		"ACTION", "END_ACTION", "ARRAY", "OF", "AT", "CASE", "ELSE", "END_CASE", "CONFIGURATION",
+		"END_CONFIGURATION", "CONSTANT", "EXIT", "FALSE", "F_EDGE", "FOR", "TO", "BY", "DO", "END_FOR",
+		"FUNCTION", "END_FUNCTION", "FUNCTION_BLOCK", "END_FUNCTION_BLOCK", "IF", "THEN", "ELSIF", "END_IF",
+		"INITIAL_STEP", "END_STEP", "NOT", "MOD", "AND", "OR", "XOR", "PROGRAM", "WITH", "END_PROGRAM",
+		"R_EDGE", "READ_ONLY", "READ_WRITE", "REPEAT", "UNTIL", "END_REPEAT", "RESOURCE", "ON",
+		"END_RESOURCE", "RETAIN", "NON_RETAIN", "RETURN", "STEP", "STRUCT", "END_STRUCT", "TASK",
+		"TRANSITION", "FROM", "END_TRANSITION", "TRUE", "TYPE", "END_TYPE", "VAR", "END_VAR", "VAR_INPUT",
+		"VAR_OUTPUT", "VAR_IN_OUT", "VAR_TEMP", "VAR_EXTERNAL", "VAR_ACCESS", "VAR_CONFIG", "VAR_GLOBAL",
+		"WHILE", "END_WHILE"
+	};
+
+	private static final String[] STANDARD_FUNCTIONS = {
+		"TRUNC", "ABS", "SQRT", "LN", "LOG", "EXP", "SIN", "COS", "TAN", "ASIN", "ACOS", "ATAN",
+		"ADD", "MUL", "SUB", "DIV", "MOD", "EXPT", "MOVE", "SHL", "SHR", "ROR", "ROL", "AND", "OR",
+		"XOR", "NOT", "SEL", "MAX", "MIN", "LIMIT", "MUX", "GT", "GE", "EQ", "LE", "LT", "NE", "LEN",
+		"LEFT", "RIGHT", "MID", "CONCAT", "INSERT", "DELETE", "REPLACE", "FIND", "ADD_TIME",
+		"ADD_TOD_TIME", "ADD_DT_TIME", "SUB_TIME", "SUB_DATE_DATE", "SUB_TOD_TIME", "SUB_TOD_TOD",
+		"SUB_DT_TIME", "SUB_DT_DT", "MULTIME", "DIVTIME", "CONCAT_DATE_TOD"
+	};
+
+	private static final String[] STANDARD_FUNCTION_BLOCKS = {
+		"SR", "RS", "SEMA", "R_TRIG", "F_TRIG", "CTU", "CTD", "CTUD", "TP", "TON", "TOF", "RTC"
+	};
+
+	private static final String[] INTEGER_TYPES = { "SINT", "INT", "DINT", "LINT", "USINT", "UINT", "UDINT", "ULINT" };
+
+	private static final String[] REAL_TYPES = { "REAL", "LREAL" };
+
+	private static final String[] BIT_STRING_TYPES = { "BYTE", "WORD", "DWORD", "LWORD" };
+
+	private static final String[] UNSIGNED_TYPES = { "USINT", "UINT", "UDINT", "ULINT" };
+
+	private static final String[] DATE_AND_TIME_TYPES = { "TIME", "DATE", "TOD", "DT" };
+
+	private static final String[] STRING_TYPES = { "STRING", "WSTRING" };
+
+	// Reserved words that are deliberately not in KEYWORDS, see there.
+	private static final String[] INTENDED_NOT_KEYWORDS = { "EN", "ENO" };
+
+	public static void main(String[] args) throws IOException {
+
+		write(args.length > 0 ? args[0] : "IECWords.java");
+
+	}
+
+	/**
+	 * Write the tables.
+	 *
+	 * @param file_name
+	 * @throws IOException
+	 */
+	static void write(String file_name) throws IOException {
+
+		try (Writer out = Files.newBufferedWriter(Paths.get(file_name), StandardCharsets.UTF_8)) {
+
+			out.write("package validator;\n\n");
+
+			out.write("/**\n");
+			out.write(" * The word sets of IEC 61131-3 as minimal perfect hash tables.\n");
+			out.write(" *\n");
+			out.write(" * Generated by WordTableGenerator, do not edit.\n");
+			out.write(" */\n");
+			out.write("public final class IECWords {\n\n");
+
+			write_table(out, "Reserved words, including the elementary and generic type names.", "KEYWORDS", keywords());
+
+			write_table(out, "Elementary type names, which are also the tag names of elementary types in TC6.", "ELEMENTARY_TYPES", words(ELEMENTARY_TYPES));
+
+			write_table(out, "Standard functions and function blocks.", "STANDARD_POUS", standard_pous());
+
+			write_table(out, "Standard function blocks.", "STANDARD_FUNCTION_BLOCKS", standard_function_blocks());
+
+			out.write("\tprivate IECWords() {\n\t}\n\n");
+
+			out.write("}\n");
+
+		}
+
+	}
+
+	/**
+	 * Compare the word lists with the lookups of CommonLexer and IECUtilities.
+	 *
+	 * @param is_keyword CommonLexer.isKeyword
+	 * @param is_elementary IECUtilities.isAnyElementary
+	 * @param is_standard_pou IECUtilities.isStandardPouName
+	 * @param is_standard_function_block IECUtilities.isStandardFunctionBlockName
+	 * @return the unintended differences, empty if there are none.
+	 */
+	static List<String> check_upstream(Predicate<String> is_keyword, Predicate<String> is_elementary, Predicate<String> is_standard_pou,
+			Predicate<String> is_standard_function_block) {
+
+		List<String> differences = new ArrayList<String>();
+
+		LinkedHashSet<String> keyword_candidates = words(INTENDED_NOT_KEYWORDS);
+
+		keyword_candidates.addAll(standard_pous());
+
+		compare("KEYWORDS", keywords(), keyword_candidates, is_keyword, words(INTENDED_NOT_KEYWORDS), differences);
+
+		compare("ELEMENTARY_TYPES", words(ELEMENTARY_TYPES), words(GENERIC_TYPES), is_elementary, words(), differences);
+
+		compare("STANDARD_POUS", standard_pous(), conversion_candidates(), is_standard_pou, words(), differences);
+
+		compare("STANDARD_FUNCTION_BLOCKS", standard_function_blocks(), standard_pous(), is_standard_function_block, words(), differences);
+
+		return differences;
+
+	}
+
+	/**
+	 * Compare a word list with an upstream lookup: every word must be accepted,
+	 * every other candidate rejected.
+	 *
+	 * @param name
+	 * @param words
+	 * @param candidates further names the lookup is asked about.
+	 * @param upstream
+	 * @param intended the names whose difference is intended.
+	 * @param differences receives the differences found.
+	 */
+	private static void compare(String name, LinkedHashSet<String> words, LinkedHashSet<String> candidates, Predicate<String> upstream,
+			LinkedHashSet<String> intended, List<String> differences) {
+
+		for (String word : words) {
+
+			if (! upstream.test(word) && ! intended.contains(word)) {
+
+				differences.add(name + ": " + word + " is only here.");
+
+			}
+		}
+
+		for (String candidate : candidates) {
+
+			if (! words.contains(candidate) && upstream.test(candidate) && ! intended.contains(candidate)) {
+
+				differences.add(name + ": " + candidate + " is only upstream.");
+
+			}
+		}
+
+	}
+
+	private static LinkedHashSet<String> keywords() {
+
+		return words(KEYWORDS, ELEMENTARY_TYPES, GENERIC_TYPES);
+
+	}
+
+	private static LinkedHashSet<String> standard_function_blocks() {
+
+		LinkedHashSet<String> standard_function_blocks = words(STANDARD_FUNCTION_BLOCKS);
+
+		// Counters are also typed: CTU_DINT, CTD_UDINT, ...
+		for (String counter : new String[] { "CTU", "CTD", "CTUD" }) {
+
+			for (String type : INTEGER_TYPES) {
+
+				standard_function_blocks.add(counter + "_" + type);
+
+			}
+		}
+
+		return standard_function_blocks;
+
+	}
+
+	/**
+	 * The standard functions, the type conversions and the standard function
+	 * blocks. Conversions exist between the numeric and bit string types,
+	 * including BOOL, from and to the string types, from date and time to its
+	 * date and its time of day, and from and to BCD.
+	 *
+	 * @return
+	 */
+	private static LinkedHashSet<String> standard_pous() {
+
+		LinkedHashSet<String> standard_pous = words(STANDARD_FUNCTIONS);
+
+		LinkedHashSet<String> numbers_and_bits = words(INTEGER_TYPES, REAL_TYPES, new String[] { "BOOL" }, BIT_STRING_TYPES);
+
+		for (String from : numbers_and_bits) {
+
+			for (String to : numbers_and_bits) {
+
+				if (! from.equals(to)) {
+
+					standard_pous.add(from + "_TO_" + to);
+
+				}
+			}
+		}
+
+		LinkedHashSet<String> printable = words(INTEGER_TYPES, REAL_TYPES, new String[] { "BOOL" }, BIT_STRING_TYPES, DATE_AND_TIME_TYPES);
+
+		for (String string : STRING_TYPES) {
+
+			for (String type : printable) {
+
+				standard_pous.add(type + "_TO_" + string);
+
+				standard_pous.add(string + "_TO_" + type);
+
+			}
+		}
+
+		standard_pous.add("STRING_TO_WSTRING");
+
+		standard_pous.add("WSTRING_TO_STRING");
+
+		for (String date_and_time : new String[] { "DT", "DATE_AND_TIME" }) {
+
+			standard_pous.add(date_and_time + "_TO_DATE");
+
+		}
+
+		standard_pous.add("DT_TO_TOD");
+
+		standard_pous.add("DATE_AND_TIME_TO_TIME_OF_DAY");
+
+		for (String type : INTEGER_TYPES) {
+
+			standard_pous.add("BCD_TO_" + type);
+
+			standard_pous.add(type + "_TO_BCD");
+
+		}
+
+		// The typed BCD conversions go between an unsigned type and the bit string of its width only.
+		for (int i = 0; i < UNSIGNED_TYPES.length; i++) {
+
+			standard_pous.add(BIT_STRING_TYPES[i] + "_BCD_TO_" + UNSIGNED_TYPES[i]);
+
+			standard_pous.add(UNSIGNED_TYPES[i] + "_TO_BCD_" + BIT_STRING_TYPES[i]);
+
+		}
+
+		standard_pous.addAll(standard_function_blocks());
+
+		return standard_pous;
+
+	}
+
+	/**
+	 * Conversion names that are not standard pous, for the check: every pair of
+	 * elementary type names, and every BCD conversion between an integer and a
+	 * bit string type.
+	 *
+	 * @return
+	 */
+	private static LinkedHashSet<String> conversion_candidates() {
+
+		LinkedHashSet<String> candidates = new LinkedHashSet<String>();
+
+		for (String from : ELEMENTARY_TYPES) {
+
+			for (String to : ELEMENTARY_TYPES) {
+
+				candidates.add(from + "_TO_" + to);
+
+			}
+		}
+
+		for (String type : INTEGER_TYPES) {
+
+			for (String bits : BIT_STRING_TYPES) {
+
+				candidates.add(bits + "_BCD_TO_" + type);
+
+				candidates.add(type + "_TO_BCD_" + bits);
+
+			}
+		}
+
+		return candidates;
+
+	}
+
+	/**
+	 * Compute the table of the given words.
+	 *
+	 * @param words distinct upper-case words.
+	 * @param seeds receives the seed of every bucket.
+	 * @return the words by slot.
+	 */
+	static String[] build(List<String> words, int[] seeds) {
+
+		int buckets = seeds.length;
+
+		List<List<String>> members = new ArrayList<List<String>>();
+
+		for (int i = 0; i < buckets; i++) {
+
+			members.add(new ArrayList<String>());
+
+		}
+
+		for (String word : words) {
+
+			members.get(Math.floorMod(WordTable.hash(word, 0), buckets)).add(word);
+
+		}
+
+		Integer[] order = new Integer[buckets];
+
+		for (int i = 0; i < buckets; i++) {
+
+			order[i] = i;
+
+		}
+
+		Arrays.sort(order, (a, b) -> members.get(b).size() - members.get(a).size());
+
+		String[] slots = new String[words.size()];
+
+		int[] taken = new int[members.get(order[0]).size()];
+
+		for (int bucket : order) {
+
+			List<String> bucket_words = members.get(bucket);
+
+			if (bucket_words.isEmpty()) {
+
+				continue;
+
+			}
+
+			for (int seed = 1; ; seed++) {
+
+				boolean free = true;
+
+				for (int i = 0; i < bucket_words.size() && free; i++) {
+
+					taken[i] = Math.floorMod(WordTable.hash(bucket_words.get(i), seed), slots.length);
+
+					free = slots[taken[i]] == null;
+
+					for (int j = 0; j < i && free; j++) {
+
+						free = taken[j] != taken[i];
+
+					}
+				}
+
+				if (free) {
+
+					for (int i = 0; i < bucket_words.size(); i++) {
+
+						slots[taken[i]] = bucket_words.get(i);
+
+					}
+
+					seeds[bucket] = seed;
+
+					break;
+
+				}
+			}
+		}
+
+		return slots;
+
+	}
+
+	private static void write_table(Writer out, String comment, String name, LinkedHashSet<String> words) throws IOException {
+
+		List<String> sorted = new ArrayList<String>(words);
+
+		Collections.sort(sorted);
+
+		int[] seeds = new int[Math.max(1, sorted.size() / 4)];
+
+		String[] slots = build(sorted, seeds);
+
+		WordTable check = new WordTable(slots, seeds);
+
+		for (String word : sorted) {
+
+			if (check.get(word.toLowerCase(Locale.ENGLISH)) != word) {
+
+				throw new IllegalStateException("The table of " + name + " does not find " + word + ".");
+
+			}
+		}
+
+		out.write("\t// " + comment + "\n");
+
+		out.write("\tpublic static final WordTable " + name + " = new WordTable(new String[] {");
+
+		for (int i = 0; i < slots.length; i++) {
+
+			out.write(i % 8 == 0 ? "\n\t\t" : " ");
+
+			out.write("\"" + slots[i] + "\"" + (i + 1 < slots.length ? "," : ""));
+
+		}
+
+		out.write("\n\t}, new int[] {");
+
+		for (int i = 0; i < seeds.length; i++) {
+
+			out.write(i % 16 == 0 ? "\n\t\t" : " ");
+
+			out.write(seeds[i] + (i + 1 < seeds.length ? "," : ""));
+
+		}
+
+		out.write("\n\t});\n\n");
+
+	}
+
+	private static LinkedHashSet<String> words(String[]... lists) {
+
+		LinkedHashSet<String> words = new LinkedHashSet<String>();
+
+		for (String[] list : lists) {
+
+			words.addAll(Arrays.asList(list));
+
+		}
+
+		return words;
+
+	}
+
+}
@@ -0,0 +1,52 @@
+package validator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The direct address checks on a fixed mix of full, partial and invalid
+ * addresses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressBenchmarks {
+
+	private String[] addresses = { "%IX1.3", "%QW12", "%MD400", "%I*", "%Q*", "%IX0", "%MX7.9", "%QB255", "%IW", "%ML123456" };
+
+	@Benchmark
+	public void isFullAddress(Blackhole blackhole) {
+
+		for (String address : addresses) {
+
+			blackhole.consume(AddressUtilities.is_full_address(address));
+
+		}
+
+	}
+
+	@Benchmark
+	public void isPartialAddress(Blackhole blackhole) {
+
+		for (String address : addresses) {
+
+			blackhole.consume(AddressUtilities.is_partial_address(address));
+
+		}
+
+	}
+
+}
@@ -0,0 +1,27 @@
+package validator;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler, so every result shows the
+ * allocation rate next to the throughput. An optional argument restricts the
+ * run to the benchmarks matching it.
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException {
+
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "validator\\..*Benchmarks")
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+
+	}
+
+}
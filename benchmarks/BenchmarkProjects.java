@@ -0,0 +1,151 @@
+package validator;
+
+import java.util.Random;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Builds the fixed PLCopen projects the benchmarks run on. The same size and
+ * seed always give the same document.
+ */
+public class BenchmarkProjects {
+
+	public static final String NAMESPACE = "http://www.plcopen.org/xml/tc6_0201";
+
+	private static final String[] ELEMENTARY_TYPES = { "BOOL", "INT", "DINT", "REAL", "WORD", "TIME" };
+	private static final String[] INITIAL_VALUES = { "FALSE", "0", "100", "1.5", "16#FF", "T#0s" };
+
+	/**
+	 * Build an initialized project with the given number of pous. There is one
+	 * data type for every four pous and every pou declares ten variables.
+	 * 
+	 * @param pous
+	 * @param seed
+	 * @return
+	 * @throws ParserConfigurationException
+	 */
+	public static Project create(int pous, long seed) throws ParserConfigurationException {
+
+		Random random = new Random(seed);
+
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+		factory.setNamespaceAware(true);
+
+		Document dom = factory.newDocumentBuilder().newDocument();
+
+		Element project = element(dom, dom, "project");
+
+		Element content_header = element(dom, project, "contentHeader");
+
+		content_header.setAttribute("name", "Benchmark");
+
+		Element types = element(dom, project, "types");
+
+		Element data_types = element(dom, types, "dataTypes");
+
+		int data_type_count = Math.max(1, pous / 4);
+
+		for (int i = 0; i < data_type_count; i++) {
+
+			Element data_type = element(dom, data_types, "dataType");
+
+			data_type.setAttribute("name", "T_" + i);
+
+			Element base_type = element(dom, data_type, "baseType");
+
+			// Every other type derives from the previous one, so there are chains to resolve.
+			if (i > 0 && i % 2 == 0) {
+
+				element(dom, base_type, "derived").setAttribute("name", "T_" + (i - 1));
+
+			} else {
+
+				element(dom, base_type, ELEMENTARY_TYPES[random.nextInt(ELEMENTARY_TYPES.length)]);
+
+			}
+		}
+
+		Element pous_element = element(dom, types, "pous");
+
+		for (int i = 0; i < pous; i++) {
+
+			Element pou = element(dom, pous_element, "pou");
+
+			pou.setAttribute("name", "P_" + i);
+
+			pou.setAttribute("pouType", i % 3 == 0 ? "program" : "functionBlock");
+
+			Element local_vars = element(dom, element(dom, pou, "interface"), "localVars");
+
+			for (int j = 0; j < 10; j++) {
+
+				Element variable = element(dom, local_vars, "variable");
+
+				variable.setAttribute("name", "v_" + j);
+
+				int type = random.nextInt(ELEMENTARY_TYPES.length);
+
+				if (j == 0) {
+
+					variable.setAttribute("address", "%IX" + (i + 1) + "." + random.nextInt(8));
+
+					type = 0;
+
+				}
+
+				element(dom, element(dom, variable, "type"), ELEMENTARY_TYPES[type]);
+
+				Element simple_value = element(dom, element(dom, variable, "initialValue"), "simpleValue");
+
+				simple_value.setAttribute("value", INITIAL_VALUES[type]);
+
+			}
+		}
+
+		element(dom, project, "instances");
+
+		Project result = new Project();
+
+		result.setDom(dom);
+
+		result.init();
+
+		return result;
+
+	}
+
+	/**
+	 * Get an initialized project on a copy of the given project's document, so
+	 * that a benchmark invocation never sees the changes of an earlier one.
+	 * 
+	 * @param template
+	 * @return
+	 */
+	public static Project copy(Project template) {
+
+		Project result = new Project();
+
+		result.setDom((Document) template.getDom().cloneNode(true));
+
+		result.init();
+
+		return result;
+
+	}
+
+	private static Element element(Document dom, org.w3c.dom.Node parent, String name) {
+
+		Element element = dom.createElementNS(NAMESPACE, name);
+
+		parent.appendChild(element);
+
+		return element;
+
+	}
+
+}
@@ -0,0 +1,143 @@
+package validator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.Reference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+/**
+ * The compact tree against the DOM on the same generated document: the time
+ * and allocation to read it into each, and the naming checks on a compact
+ * tree.
+ *
+ * The heap each representation keeps is measured once per trial and printed
+ * with the estimate of CompactTree.getRetainedSize(), so the ratio of the two
+ * shows up next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactTreeBenchmarks {
+
+	@Param({ "1000", "10000" })
+	public int pous;
+
+	private byte[] document;
+	private CompactTree tree;
+	private CompactValidator validator = new CompactValidator(null);
+
+	@Setup(Level.Trial)
+	public void generate() throws Exception {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		TransformerFactory.newInstance().newTransformer().transform(new DOMSource(BenchmarkProjects.create(pous, 42).getDom()), new StreamResult(out));
+
+		document = out.toByteArray();
+
+		long dom_size = retained_size(this::readDom);
+
+		long compact_size = retained_size(this::readCompactTree);
+
+		tree = readCompactTree();
+
+		System.out.printf("%nRetained heap for %d pous: DOM %,d bytes, compact tree %,d bytes (estimate %,d), %.1fx smaller.%n",
+				pous, dom_size, compact_size, tree.getRetainedSize(), (double) dom_size / compact_size);
+
+	}
+
+	@Benchmark
+	public Document readDom() throws Exception {
+
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+		factory.setNamespaceAware(true);
+
+		return factory.newDocumentBuilder().parse(new ByteArrayInputStream(document));
+
+	}
+
+	@Benchmark
+	public CompactTree readCompactTree() throws Exception {
+
+		CompactTreeBuilder builder = new CompactTreeBuilder("benchmark.xml");
+
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+
+		factory.setNamespaceAware(true);
+
+		factory.newSAXParser().parse(new InputSource(new ByteArrayInputStream(document)), builder);
+
+		return builder.build();
+
+	}
+
+	@Benchmark
+	public ValidationReport validateCompactTree() {
+
+		return validator.validate(tree);
+
+	}
+
+	/**
+	 * Measure the heap an object keeps as the growth of the used heap, after
+	 * collecting, while it is reachable.
+	 *
+	 * @param reader
+	 * @return
+	 * @throws Exception
+	 */
+	private static long retained_size(Callable<Object> reader) throws Exception {
+
+		long before = used_heap();
+
+		Object result = reader.call();
+
+		long after = used_heap();
+
+		Reference.reachabilityFence(result);
+
+		return after - before;
+
+	}
+
+	private static long used_heap() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+
+			System.gc();
+
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+
+	}
+
+}
@@ -0,0 +1,61 @@
+package validator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * InitialValueParser on the literals generated projects repeat the most.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InitialValueParserBenchmarks {
+
+	private String[] values = { "0", "FALSE", "T#0s", "16#FF", "1.5", "-32768", "TRUE", "T#1h2m3s" };
+	private String[] types = { "INT", "BOOL", "TIME", "WORD", "REAL", "INT", "BOOL", "TIME" };
+
+	private InitialValueParser parser = new InitialValueParser();
+
+	@Benchmark
+	public void parseExpr(Blackhole blackhole) {
+
+		for (String value : values) {
+
+			parser.clear();
+
+			blackhole.consume(parser.parseExpr(value));
+
+		}
+
+	}
+
+	@Benchmark
+	public void parseAndMakeJavaExp(Blackhole blackhole) {
+
+		for (int i = 0; i < values.length; i++) {
+
+			parser.clear();
+
+			if (parser.parseExpr(values[i])) {
+
+				blackhole.consume(parser.makeJavaExp(types[i]));
+
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,96 @@
+package validator;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full project validation and the data type and pou phases on their own, at
+ * several project sizes.
+ *
+ * Validation caches initial values in its context and full validation may
+ * annotate the document, so every invocation runs on a fresh copy of the
+ * generated project with a fresh context. Copying happens in the setup and is
+ * not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmarks {
+
+	@Param({ "100", "1000", "10000" })
+	public int pous;
+
+	private Project template;
+	private Project project;
+	private ValidationContext context;
+
+	@Setup(Level.Trial)
+	public void generate() throws ParserConfigurationException {
+
+		template = BenchmarkProjects.create(pous, 42);
+
+	}
+
+	@Setup(Level.Invocation)
+	public void copy() {
+
+		project = BenchmarkProjects.copy(template);
+
+		context = new ValidationContext(project);
+
+	}
+
+	@Benchmark
+	public ValidationReport validateProject() {
+
+		return Validator.validate(project);
+
+	}
+
+	@Benchmark
+	public DiagnosticCollector pouValidation() {
+
+		return PouValidationTask.validate(context);
+
+	}
+
+	@Benchmark
+	public DiagnosticCollector pouValidationSerial() {
+
+		DiagnosticCollector diagnostics = new DiagnosticCollector();
+
+		new PouValidation(context, diagnostics).validate();
+
+		return diagnostics;
+
+	}
+
+	@Benchmark
+	public DiagnosticCollector dataTypeValidation() {
+
+		DiagnosticCollector diagnostics = new DiagnosticCollector();
+
+		new DataTypeValidation(context, diagnostics).validate();
+
+		return diagnostics;
+
+	}
+
+}
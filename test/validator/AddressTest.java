@@ -0,0 +1,134 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+
+class AddressTest {
+
+	private Address address = new Address();
+
+	@Test
+	void parsesFullAddresses() {
+
+		assertTrue(address.parse("%IX1.3"));
+		assertEquals('I', address.getArea());
+		assertEquals('X', address.getSize());
+		assertEquals(1, address.getByteOffset());
+		assertEquals(3, address.getBit());
+		assertTrue(address.isBitAddress());
+
+		assertTrue(address.parse("%QW12"));
+		assertEquals('Q', address.getArea());
+		assertEquals('W', address.getSize());
+		assertEquals(12, address.getByteOffset());
+		assertFalse(address.hasBit());
+		assertFalse(address.isBitAddress());
+
+		assertTrue(address.parse("%M400"));
+		assertEquals(Address.NO_SIZE, address.getSize());
+		assertTrue(address.isBitAddress());
+
+	}
+
+	@Test
+	void parsesPartialAddresses() {
+
+		assertTrue(address.parse("%I*"));
+		assertTrue(address.isPartial());
+		assertFalse(address.isBitAddress());
+
+		assertFalse(address.parse("%I**"));
+		assertFalse(address.parse("%IX*"));
+
+	}
+
+	@Test
+	void rejectsMalformedAddresses() {
+
+		for (String text : new String[] { "", "%", "%I", "IX1", "%AX1", "%IX", "%IX01", "%IX1.8", "%IX1.", "%IX1.3.4", "%IX1a", "%IX1234567890123456789" }) {
+
+			assertFalse(address.parse(text), text);
+
+		}
+
+	}
+
+	@Test
+	void resetsFieldsOnEveryParse() {
+
+		assertTrue(address.parse("%IX1.3"));
+
+		assertFalse(address.parse("%Q*x"));
+
+		assertTrue(address.parse("%QB7"));
+		assertEquals(Address.NO_BIT, address.getBit());
+		assertFalse(address.isPartial());
+
+	}
+
+	@Test
+	void classifiesAddresses() {
+
+		assertTrue(AddressUtilities.is_full_address("%IX1.3"));
+		assertFalse(AddressUtilities.is_full_address("%I*"));
+
+		assertTrue(AddressUtilities.is_partial_address("%Q*"));
+		assertFalse(AddressUtilities.is_partial_address("%QW1"));
+
+	}
+
+	@Test
+	void reportsPartialAddressesOfConstants() {
+
+		Element variable = variable("<localVars constant=\"true\"><variable name=\"x\" address=\"%I*\"><type><INT/></type></variable></localVars>");
+
+		DiagnosticCollector diagnostics = new DiagnosticCollector();
+
+		AddressUtilities.validate_partial_address(variable, diagnostics);
+
+		assertEquals(1, diagnostics.getErrorCount());
+		assertEquals(Rules.ADDRESS_PARTIAL, diagnostics.getDiagnostics().get(0).getRuleId());
+
+	}
+
+	@Test
+	void acceptsPartialAddressesOfVariables() {
+
+		for (String list : new String[] { "<localVars>", "<localVars constant=\"false\">", "<localVars constant=\" 0 \">" }) {
+
+			Element variable = variable(list + "<variable name=\"x\" address=\"%I*\"><type><INT/></type></variable></localVars>");
+
+			DiagnosticCollector diagnostics = new DiagnosticCollector();
+
+			AddressUtilities.validate_partial_address(variable, diagnostics);
+
+			assertEquals(0, diagnostics.getErrorCount(), list);
+
+		}
+
+	}
+
+	@Test
+	void reportsInitialValuesOfPartiallyAddressedVariables() {
+
+		Element variable = variable("<localVars><variable name=\"x\" address=\"%I*\"><type><INT/></type><initialValue><simpleValue value=\"1\"/></initialValue></variable></localVars>");
+
+		DiagnosticCollector diagnostics = new DiagnosticCollector();
+
+		AddressUtilities.validate_partial_address(variable, diagnostics);
+
+		assertEquals(1, diagnostics.getErrorCount());
+
+	}
+
+	private static Element variable(String list) {
+
+		return TestDocuments.elements(TestDocuments.parse(list), "variable").get(0);
+
+	}
+
+}
@@ -0,0 +1,70 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+
+class AnnotatedOutputWriterTest {
+
+	@Test
+	void insertsDiagnosticsAsTheLastChildrenOfTheirElements() throws XMLStreamException {
+
+		String original = "<project><pous><pou name=\"A\"/><pou name=\"B\"><interface/></pou></pous></project>";
+
+		ValidationReport report = new ValidationReport("test.xml");
+
+		report.add(new Diagnostic(Rules.POU_NAME, Diagnostic.ERROR, "/project[1]/pous[1]/pou[2]", "Duplicate name.", null));
+
+		report.add(new Diagnostic(Rules.VARIABLE_INITIAL_VALUE, Diagnostic.INFO, "/project[1]/pous[1]/pou[2]/interface[1]", "1", null));
+
+		assertEquals("<project><pous><pou name=\"A\"></pou><pou name=\"B\"><interface><SidValidationError value=\"1\"></SidValidationError></interface>"
+				+ "<SidValidationError message=\"Duplicate name.\"></SidValidationError></pou></pous></project>", body(write(original, report)));
+
+	}
+
+	@Test
+	void copiesADocumentWithoutDiagnosticsUnchanged() throws XMLStreamException {
+
+		String original = "<project a=\"1\"><!-- note --><pous>text &amp; more</pous></project>";
+
+		assertEquals(original, body(write(original, new ValidationReport("test.xml"))));
+
+	}
+
+	@Test
+	void skipsDiagnosticsWithoutAPath() throws XMLStreamException {
+
+		ValidationReport report = new ValidationReport("test.xml");
+
+		report.add(new Diagnostic(Rules.SCHEMA, Diagnostic.ERROR, "", "Not well-formed.", null));
+
+		report.add(new Diagnostic(Rules.SCHEMA, Diagnostic.ERROR, "/project[1]/missing[1]", "Nowhere.", null));
+
+		assertEquals("<project></project>", body(write("<project/>", report)));
+
+	}
+
+	private static String write(String original, ValidationReport report) throws XMLStreamException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		new AnnotatedOutputWriter(out).write(new ByteArrayInputStream(original.getBytes(StandardCharsets.UTF_8)), "test.xml", report);
+
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+	}
+
+	// The document without the XML declaration the writer adds.
+	private static String body(String written) {
+
+		return written.startsWith("<?xml") ? written.substring(written.indexOf("?>") + 2) : written;
+
+	}
+
+}
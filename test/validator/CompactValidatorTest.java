@@ -0,0 +1,35 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CompactValidatorTest {
+
+	@Test
+	void acceptsTheNamingRules() {
+
+		CompactValidator validator = new CompactValidator(null);
+
+		validator.setRules(new RuleSet(RuleSet.PRE_COMMIT));
+
+		validator.setRules(new RuleSet(RuleSet.PRE_COMMIT + ",-" + Rules.VARIABLE_NAME));
+
+	}
+
+	@Test
+	void rejectsRulesItDoesNotRun() {
+
+		CompactValidator validator = new CompactValidator(null);
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> validator.setRules(new RuleSet(RuleSet.PRE_COMMIT + ",+" + Rules.VARIABLE_TYPE)));
+
+		assertTrue(e.getMessage().endsWith("need the full validator: " + Rules.VARIABLE_TYPE + "."), e.getMessage());
+
+		assertThrows(IllegalArgumentException.class, () -> validator.setRules(new RuleSet(RuleSet.RELEASE)));
+
+	}
+
+}
@@ -0,0 +1,73 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+class ElementPathsTest {
+
+	private Document document = TestDocuments.parse("<project><types><pous>"
+			+ "<pou name=\"A\"/>\n<pou name=\"B\"><interface/></pou>\n<!-- comment --><pou name=\"C\"/>"
+			+ "</pous></types><instances/></project>");
+
+	@Test
+	void countsPositionsAmongSiblingsOfTheSameTag() {
+
+		ElementPaths paths = new ElementPaths();
+
+		List<Element> pous = TestDocuments.elements(document, "pou");
+
+		assertEquals("/project[1]/types[1]/pous[1]/pou[1]", paths.getPath(pous.get(0)));
+		assertEquals("/project[1]/types[1]/pous[1]/pou[3]", paths.getPath(pous.get(2)));
+		assertEquals("/project[1]/types[1]/pous[1]/pou[2]/interface[1]", paths.getPath(TestDocuments.elements(document, "interface").get(0)));
+		assertEquals("/project[1]/instances[1]", paths.getPath(TestDocuments.elements(document, "instances").get(0)));
+
+	}
+
+	@Test
+	void givesTheSamePathsInAnyOrder() {
+
+		List<Element> pous = TestDocuments.elements(document, "pou");
+
+		ElementPaths backwards = new ElementPaths();
+
+		for (int i = pous.size() - 1; i >= 0; i--) {
+
+			assertEquals("/project[1]/types[1]/pous[1]/pou[" + (i + 1) + "]", backwards.getPath(pous.get(i)));
+
+		}
+
+	}
+
+	@Test
+	void reportsPathsBelowAnElementWithASetPath() {
+
+		Element copy = (Element) TestDocuments.elements(document, "pou").get(1).cloneNode(true);
+
+		ElementPaths paths = new ElementPaths();
+
+		paths.setPath(copy, "/project[1]/types[1]/pous[1]/pou[2]");
+
+		assertEquals("/project[1]/types[1]/pous[1]/pou[2]/interface[1]", paths.getPath((Element) copy.getFirstChild()));
+
+	}
+
+	@Test
+	void resolvesRelativePaths() {
+
+		Element pous = TestDocuments.elements(document, "pous").get(0);
+
+		assertSame(TestDocuments.elements(document, "interface").get(0), ElementPaths.resolve(pous, "/pou[2]/interface[1]"));
+		assertSame(pous, ElementPaths.resolve(pous, ""));
+		assertNull(ElementPaths.resolve(pous, "/pou[4]"));
+		assertNull(ElementPaths.resolve(pous, "/pou[1]/interface[1]"));
+
+	}
+
+}
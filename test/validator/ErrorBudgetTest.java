@@ -0,0 +1,135 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.SchemaFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXParseException;
+
+class ErrorBudgetTest {
+
+	// Every item must be an int.
+	private static final String SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+			+ "<xs:element name=\"items\"><xs:complexType><xs:sequence>"
+			+ "<xs:element name=\"item\" type=\"xs:int\" maxOccurs=\"unbounded\"/>"
+			+ "</xs:sequence></xs:complexType></xs:element></xs:schema>";
+
+	// Xerces reports two errors for every item that is not an int.
+	private static final String TEN_ERRORS = "<items><item>a</item><item>b</item><item>c</item><item>d</item><item>e</item></items>";
+
+	@AfterEach
+	void clearProperty() {
+
+		System.clearProperty("validator.max-errors");
+
+	}
+
+	@Test
+	void stopsParsingAtTheErrorThatExhaustsTheBudget() throws Exception {
+
+		List<String> seen = new ArrayList<String>();
+
+		ErrorBudget budget = new ErrorBudget(3);
+
+		assertThrows(ErrorBudgetExceededException.class, () -> validate(TEN_ERRORS, new BudgetErrorHandler(recorder(seen), budget)));
+
+		assertEquals(3, seen.size());
+		assertEquals(3, budget.getErrors());
+		assertTrue(budget.isExhausted());
+
+	}
+
+	@Test
+	void parsesToTheEndWithinTheBudget() throws Exception {
+
+		List<String> seen = new ArrayList<String>();
+
+		ErrorBudget budget = new ErrorBudget(11);
+
+		validate(TEN_ERRORS, new BudgetErrorHandler(recorder(seen), budget));
+
+		assertEquals(10, seen.size());
+		assertEquals(10, budget.getErrors());
+		assertFalse(budget.isExhausted());
+
+	}
+
+	@Test
+	void truncatesTheReportOnceTheBudgetIsExhausted() {
+
+		ValidationReport report = Validator.validate(TestDocuments.project("", TestDocuments.brokenPous(5)), null, RuleSet.getDefault(), new ErrorBudget(2));
+
+		assertEquals(2, report.getErrorCount());
+		assertTrue(report.isTruncated());
+
+		report = Validator.validate(TestDocuments.project("", TestDocuments.brokenPous(5)), null, RuleSet.getDefault(), new ErrorBudget(6));
+
+		assertEquals(5, report.getErrorCount());
+		assertFalse(report.isTruncated());
+
+	}
+
+	@Test
+	void readsTheLimitFromTheSystemProperty() {
+
+		assertEquals(Integer.MAX_VALUE, ErrorBudget.fromSystemProperty().getLimit());
+
+		System.setProperty("validator.max-errors", " 3 ");
+
+		assertEquals(3, ErrorBudget.fromSystemProperty().getLimit());
+
+		for (String limit : new String[] { "0", "-1", "many" }) {
+
+			System.setProperty("validator.max-errors", limit);
+
+			assertThrows(IllegalArgumentException.class, ErrorBudget::fromSystemProperty, limit);
+
+		}
+
+	}
+
+	private static void validate(String document, ErrorHandler handler) throws Exception {
+
+		javax.xml.validation.Validator validator = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(new StreamSource(new StringReader(SCHEMA))).newValidator();
+
+		validator.setErrorHandler(handler);
+
+		validator.validate(new StreamSource(new StringReader(document)));
+
+	}
+
+	private static ErrorHandler recorder(List<String> seen) {
+
+		return new ErrorHandler() {
+
+			@Override
+			public void warning(SAXParseException exception) {
+			}
+
+			@Override
+			public void error(SAXParseException exception) {
+				seen.add(exception.getMessage());
+			}
+
+			@Override
+			public void fatalError(SAXParseException exception) {
+				seen.add(exception.getMessage());
+			}
+
+		};
+
+	}
+
+}
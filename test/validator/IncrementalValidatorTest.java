@@ -0,0 +1,92 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+class IncrementalValidatorTest {
+
+	private static final String BROKEN_POU = "<pou name=\"B\" pouType=\"program\"><interface><localVars>"
+			+ "<variable name=\"v\"><type><derived name=\"Missing\"/></type></variable>"
+			+ "</localVars></interface></pou>";
+
+	@Test
+	void reportsThePathsOfTheCurrentDocumentAfterAnInsertion() {
+
+		Project project = TestDocuments.project("", BROKEN_POU);
+
+		IncrementalValidator validator = new IncrementalValidator(project);
+
+		assertEquals(List.of("/project[1]/types[1]/pous[1]/pou[1]/interface[1]/localVars[1]/variable[1]/type[1]/derived[1]"), paths(validator.getReport()));
+
+		Document document = project.getDom();
+
+		Element broken = TestDocuments.elements(document, "pou").get(0);
+
+		Element inserted = document.createElement("pou");
+
+		inserted.setAttribute("name", "A");
+
+		inserted.setAttribute("pouType", "program");
+
+		broken.getParentNode().insertBefore(inserted, broken);
+
+		validator.revalidate(null, inserted);
+
+		assertEquals(List.of("/project[1]/types[1]/pous[1]/pou[2]/interface[1]/localVars[1]/variable[1]/type[1]/derived[1]"), paths(validator.getReport()));
+
+		broken.getParentNode().removeChild(inserted);
+
+		validator.revalidate(inserted, null);
+
+		assertEquals(List.of("/project[1]/types[1]/pous[1]/pou[1]/interface[1]/localVars[1]/variable[1]/type[1]/derived[1]"), paths(validator.getReport()));
+
+	}
+
+	@Test
+	void reportsInsertedElementsInDocumentOrder() {
+
+		Project project = TestDocuments.project("", BROKEN_POU);
+
+		IncrementalValidator validator = new IncrementalValidator(project);
+
+		Document document = project.getDom();
+
+		Element broken = TestDocuments.elements(document, "pou").get(0);
+
+		Element inserted = (Element) broken.cloneNode(true);
+
+		inserted.setAttribute("name", "A");
+
+		broken.getParentNode().insertBefore(inserted, broken);
+
+		validator.revalidate(null, inserted);
+
+		List<String> paths = paths(validator.getReport());
+
+		assertEquals(2, paths.size());
+		assertEquals("/project[1]/types[1]/pous[1]/pou[1]/interface[1]/localVars[1]/variable[1]/type[1]/derived[1]", paths.get(0));
+		assertEquals("/project[1]/types[1]/pous[1]/pou[2]/interface[1]/localVars[1]/variable[1]/type[1]/derived[1]", paths.get(1));
+
+	}
+
+	private static List<String> paths(ValidationReport report) {
+
+		List<String> paths = new ArrayList<String>();
+
+		for (Diagnostic diagnostic : report.getDiagnostics()) {
+
+			paths.add(diagnostic.getPath());
+
+		}
+
+		return paths;
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LibraryCatalogTest {
+
+	private static final String FIRST_LIBRARY = TestDocuments.text(
+			TestDocuments.elementary("Speed", "INT") + TestDocuments.elementary("Shared", "INT"),
+			"<pou name=\"Motor\" pouType=\"functionBlock\"><interface/></pou>");
+
+	// Shared again, and a type deriving from one of the first library.
+	private static final String SECOND_LIBRARY = TestDocuments.text(
+			TestDocuments.elementary("Shared", "REAL") + TestDocuments.derived("Setpoint", "Speed"),
+			"");
+
+	@TempDir
+	Path directory;
+
+	private LibraryCatalog catalog;
+
+	@BeforeEach
+	void load() throws Exception {
+
+		Path first = TestDocuments.write(directory, "first.xml", FIRST_LIBRARY);
+
+		Path second = TestDocuments.write(directory, "second.xml", SECOND_LIBRARY);
+
+		catalog = LibraryCatalog.load(TestDocuments.write(directory, "schema.xsd", TestDocuments.ANY_PROJECT_SCHEMA).toFile(), List.of(first, second));
+
+	}
+
+	@Test
+	void resolvesANameOfSeveralLibrariesThroughTheFirst() {
+
+		assertEquals(2, catalog.getProjects().size());
+		assertEquals(2, catalog.getReports().size());
+
+		assertEquals("INT", catalog.getTypes().getBaseType("Shared"));
+		assertEquals("INT", catalog.getTypes().getBaseType("Setpoint"));
+		assertEquals(2, catalog.getSymbols().getDataTypeCount("shared"));
+
+	}
+
+	@Test
+	void resolvesProjectNamesBeforeLibraryNames() {
+
+		Project project = TestDocuments.project(TestDocuments.elementary("Speed", "REAL"), "");
+
+		ValidationContext context = new ValidationContext(project, catalog);
+
+		assertEquals("REAL", context.getTypes().getBaseType("Speed"));
+		assertEquals("REAL", context.getTypes().getBaseType("speed"));
+
+		// Names the project doesn't declare come from the libraries.
+		assertEquals("INT", context.getTypes().getBaseType("Setpoint"));
+		assertTrue(context.getSymbols().isUserType("Shared"));
+		assertTrue(context.getSymbols().isUserPou("MOTOR"));
+		assertFalse(context.getSymbols().isUserPou("Pump"));
+
+	}
+
+	@Test
+	void doesNotCountLibraryNamesAsDuplicatesOfProjectNames() {
+
+		String pou = "<pou name=\"Main\" pouType=\"program\"><interface><localVars>"
+				+ "<variable name=\"s\"><type><derived name=\"Setpoint\"/></type></variable>"
+				+ "</localVars></interface></pou>";
+
+		Project project = TestDocuments.project(TestDocuments.elementary("Speed", "REAL") + TestDocuments.elementary("Shared", "BOOL"), pou);
+
+		ValidationContext context = new ValidationContext(project, catalog);
+
+		assertTrue(context.getSymbols().isUniqueTypeName("Speed"));
+		assertTrue(context.getSymbols().isUniqueTypeName("Shared"));
+
+		ValidationReport report = Validator.validate(context);
+
+		assertEquals(0, report.getErrorCount(), () -> report.getDiagnostics().get(0).getMessage());
+
+	}
+
+	@Test
+	void cannotChange() {
+
+		assertThrows(IllegalStateException.class, () -> catalog.getSymbols().addPou("Pump"));
+		assertThrows(IllegalStateException.class, () -> catalog.getTypes().add(TestDocuments.parse(TestDocuments.elementary("Pump", "INT")).getDocumentElement()));
+
+	}
+
+}
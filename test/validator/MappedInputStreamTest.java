@@ -0,0 +1,149 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedInputStreamTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsAcrossWindows() throws IOException {
+
+		byte[] content = pattern(10000);
+
+		Path file = Files.write(directory.resolve("file.bin"), content);
+
+		// Windows of 1000 bytes, reads of 333, so almost every read ends at a window boundary.
+		try (InputStream in = new MappedInputStream(file, 1000)) {
+
+			assertEquals(content.length, in.available());
+			assertArrayEquals(content, read_all(in, 333));
+			assertEquals(-1, in.read());
+			assertEquals(0, in.available());
+
+		}
+
+		try (InputStream in = new MappedInputStream(file, 1000)) {
+
+			for (int i = 0; i < content.length; i++) {
+
+				assertEquals(content[i] & 0xFF, in.read(), "byte " + i);
+
+			}
+
+			assertEquals(-1, in.read());
+
+		}
+
+	}
+
+	@Test
+	void skipsAcrossWindows() throws IOException {
+
+		byte[] content = pattern(5000);
+
+		Path file = Files.write(directory.resolve("file.bin"), content);
+
+		try (InputStream in = new MappedInputStream(file, 1000)) {
+
+			assertEquals(900, in.skip(900));
+
+			// A skip stops at the end of the window.
+			assertEquals(100, in.skip(500));
+			assertEquals(content[1000] & 0xFF, in.read());
+			assertEquals(3999, in.available());
+
+		}
+
+	}
+
+	@Test
+	void readsAnEmptyFile() throws IOException {
+
+		try (InputStream in = new MappedInputStream(Files.write(directory.resolve("empty.bin"), new byte[0]))) {
+
+			assertEquals(0, in.available());
+			assertEquals(-1, in.read());
+			assertEquals(-1, in.read(new byte[10]));
+
+		}
+
+	}
+
+	@Test
+	void readsAcrossTheDefaultWindow() throws IOException {
+
+		Path file = directory.resolve("large.bin");
+
+		byte[] tail = pattern(2000);
+
+		// Sparse up to 1000 bytes before the boundary, the pattern across it.
+		try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+
+			out.seek(MappedInputStream.WINDOW - 1000);
+
+			out.write(tail);
+
+		}
+
+		try (InputStream in = new MappedInputStream(file)) {
+
+			long skipped = 0;
+
+			while (skipped < MappedInputStream.WINDOW - 1000) {
+
+				skipped += in.skip(MappedInputStream.WINDOW - 1000 - skipped);
+
+			}
+
+			assertArrayEquals(tail, read_all(in, 1 << 16));
+
+		}
+
+	}
+
+	static byte[] pattern(int length) {
+
+		byte[] bytes = new byte[length];
+
+		for (int i = 0; i < length; i++) {
+
+			bytes[i] = (byte) (i * 31 + i / 256);
+
+		}
+
+		return bytes;
+
+	}
+
+	private static byte[] read_all(InputStream in, int chunk) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		byte[] buffer = new byte[chunk];
+
+		int read;
+
+		while ((read = in.read(buffer)) != -1) {
+
+			out.write(buffer, 0, read);
+
+		}
+
+		return out.toByteArray();
+
+	}
+
+}
@@ -0,0 +1,65 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+
+class PouValidationTaskTest {
+
+	@Test
+	void reportsWhatASerialRunReports() throws XMLStreamException {
+
+		ProjectGenerator generator = new ProjectGenerator();
+
+		// Well over the threshold, so the range is split into many leaves.
+		generator.setPous(500);
+
+		generator.setDefectRate(0.05);
+
+		generator.setSeed(7);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		generator.write(out);
+
+		Project project = new Project();
+
+		project.setDom(TestDocuments.parse(new String(out.toByteArray(), StandardCharsets.UTF_8)));
+
+		project.init();
+
+		ValidationContext context = new ValidationContext(project);
+
+		DiagnosticCollector serial = new DiagnosticCollector(context.getBudget(), context.getRules());
+
+		new PouValidation(context, serial).validate();
+
+		List<Diagnostic> expected = serial.getDiagnostics();
+
+		List<Diagnostic> parallel = PouValidationTask.validate(context).getDiagnostics();
+
+		assertTrue(expected.size() > 10, "only " + expected.size() + " diagnostics");
+		assertEquals(expected.size(), parallel.size());
+
+		for (int i = 0; i < expected.size(); i++) {
+
+			Diagnostic a = expected.get(i);
+
+			Diagnostic b = parallel.get(i);
+
+			assertEquals(a.getRuleId() + " " + a.getSeverity() + " " + a.getPath() + " " + a.getMessage(), b.getRuleId() + " " + b.getSeverity() + " " + b.getPath() + " " + b.getMessage());
+			assertSame(a.getElement(), b.getElement(), a.getPath());
+
+		}
+
+	}
+
+}
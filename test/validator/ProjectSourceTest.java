@@ -0,0 +1,149 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProjectSourceTest {
+
+	private static final byte[] FIRST = TestDocuments.text("", TestDocuments.brokenPous(1)).getBytes(StandardCharsets.UTF_8);
+	private static final byte[] SECOND = TestDocuments.text("", TestDocuments.brokenPous(2)).getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsPlainFiles() throws IOException {
+
+		Path file = Files.write(directory.resolve("plain.xml"), FIRST);
+
+		ProjectSource source = ProjectSource.single(file);
+
+		assertArrayEquals(FIRST, read(source));
+		assertEquals(file.toUri().toString(), source.getSystemId());
+		assertEquals(file, source.getPath());
+
+	}
+
+	@Test
+	void inflatesGzippedFiles() throws IOException {
+
+		// Larger than the inflater's buffer.
+		byte[] content = MappedInputStreamTest.pattern(1 << 20);
+
+		Path file = directory.resolve("large.xml.gz");
+
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+
+			out.write(content);
+
+		}
+
+		assertArrayEquals(content, read(ProjectSource.single(file)));
+
+	}
+
+	@Test
+	void readsTheXmlEntriesOfZipArchives() throws IOException {
+
+		Path file = directory.resolve("projects.zip");
+
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(file))) {
+
+			out.putNextEntry(new ZipEntry("line1/"));
+
+			out.putNextEntry(new ZipEntry("line1/first.xml"));
+
+			out.write(FIRST);
+
+			out.putNextEntry(new ZipEntry("readme.txt"));
+
+			out.write("not a project".getBytes(StandardCharsets.UTF_8));
+
+			out.putNextEntry(new ZipEntry("second.XML"));
+
+			out.write(SECOND);
+
+		}
+
+		List<ProjectSource> sources = ProjectSource.list(file);
+
+		assertEquals(2, sources.size());
+
+		assertArrayEquals(FIRST, read(sources.get(0)));
+		assertEquals("jar:" + file.toUri() + "!/line1/first.xml", sources.get(0).getSystemId());
+		assertEquals(file.resolve("line1/first.xml"), sources.get(0).getPath());
+
+		assertArrayEquals(SECOND, read(sources.get(1)));
+
+		// Only --batch takes archives of several projects.
+		assertThrows(IOException.class, () -> ProjectSource.single(file));
+
+	}
+
+	@Test
+	void parsesEveryKindOfSource() throws Exception {
+
+		Path plain = Files.write(directory.resolve("plain.xml"), FIRST);
+
+		Path gzipped = directory.resolve("plain.xml.gz");
+
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+
+			out.write(FIRST);
+
+		}
+
+		for (Path file : new Path[] { plain, gzipped }) {
+
+			ProjectSource source = ProjectSource.single(file);
+
+			try (InputStream in = source.open()) {
+
+				assertEquals("project", DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(source.getInputSource(in)).getDocumentElement().getTagName());
+
+			}
+		}
+
+	}
+
+	@Test
+	void acceptsXmlGzAndZipFiles() {
+
+		assertTrue(ProjectSource.isSupported(Paths.get("a/Plant.XML")));
+		assertTrue(ProjectSource.isSupported(Paths.get("plant.xml.gz")));
+		assertTrue(ProjectSource.isSupported(Paths.get("exports.zip")));
+		assertFalse(ProjectSource.isSupported(Paths.get("plant.txt")));
+
+	}
+
+	private static byte[] read(ProjectSource source) throws IOException {
+
+		try (InputStream in = source.open()) {
+
+			return in.readAllBytes();
+
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SaxPipelineValidatorTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reportsWhatTheDomValidationReports() throws Exception {
+
+		ProjectGenerator generator = new ProjectGenerator();
+
+		generator.setPous(200);
+
+		generator.setDefectRate(0.05);
+
+		generator.setSeed(11);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		generator.write(out);
+
+		String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+		Project project = new Project();
+
+		project.setDom(TestDocuments.parse(text));
+
+		project.getDom().getDocumentElement().normalize();
+
+		project.init();
+
+		List<String> expected = describe(Validator.validate(project, null, RuleSet.getDefault(), ErrorBudget.unlimited()));
+
+		List<String> actual = describe(validator().validate(TestDocuments.write(directory, "project.xml", text).toFile()));
+
+		assertTrue(expected.size() > 10, "only " + expected.size() + " diagnostics");
+		assertEquals(expected, actual);
+
+	}
+
+	@Test
+	void keepsTextThatArrivesInManyChunksAsOneValue() throws Exception {
+
+		// Far longer than the parser's buffer, so the name comes in several characters() calls.
+		String long_name = "P" + "x".repeat(100000);
+
+		String pous = TestDocuments.brokenPous(1).replace("name=\"Missing\"", "name=\"" + long_name + "\"");
+
+		List<String> actual = describe(validator().validate(TestDocuments.write(directory, "project.xml", TestDocuments.text("", pous)).toFile()));
+
+		assertEquals(describe(Validator.validate(TestDocuments.project("", pous), null, RuleSet.getDefault(), ErrorBudget.unlimited())), actual);
+
+	}
+
+	private SaxPipelineValidator validator() throws IOException {
+
+		String schema = TestDocuments.ANY_PROJECT_SCHEMA;
+
+		// The generated projects are in the PLCopen namespace, the small ones in none.
+		String namespaced = schema.replace("<xs:schema ", "<xs:schema targetNamespace=\"" + ProjectGenerator.NAMESPACE + "\" ");
+
+		String both = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+				+ "<xs:import namespace=\"" + ProjectGenerator.NAMESPACE + "\" schemaLocation=\"plcopen.xsd\"/>"
+				+ schema.substring(schema.indexOf("<xs:element"));
+
+		TestDocuments.write(directory, "plcopen.xsd", namespaced);
+
+		return new SaxPipelineValidator(TestDocuments.write(directory, "schema.xsd", both).toFile());
+
+	}
+
+	private static List<String> describe(ValidationReport report) {
+
+		List<String> lines = new ArrayList<String>();
+
+		for (Diagnostic diagnostic : report.getDiagnostics()) {
+
+			lines.add(diagnostic.getRuleId() + " " + diagnostic.getPath() + " " + diagnostic.getMessage());
+
+		}
+
+		return lines;
+
+	}
+
+}
@@ -0,0 +1,107 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingValidatorTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reportsWhatTheDomValidationReports() throws Exception {
+
+		String text = project(3);
+
+		Path plain = TestDocuments.write(directory, "project.xml", text);
+
+		Path gzipped = directory.resolve("project.xml.gz");
+
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+
+			out.write(text.getBytes(StandardCharsets.UTF_8));
+
+		}
+
+		List<String> expected = describe(Validator.validate(TestDocuments.project("", TestDocuments.brokenPous(3)), null, RuleSet.getDefault(), ErrorBudget.unlimited()));
+
+		assertEquals(3, expected.size());
+		assertEquals(expected, describe(validator(plain, ErrorBudget.unlimited()).validate()));
+		assertEquals(expected, describe(validator(gzipped, ErrorBudget.unlimited()).validate()));
+
+	}
+
+	@Test
+	void stopsOnceTheErrorBudgetIsExhausted() throws Exception {
+
+		Path plain = TestDocuments.write(directory, "project.xml", project(5));
+
+		ValidationReport report = validator(plain, new ErrorBudget(2)).validate();
+
+		assertEquals(2, report.getErrorCount());
+		assertTrue(report.isTruncated());
+
+		report = validator(plain, new ErrorBudget(6)).validate();
+
+		assertEquals(5, report.getErrorCount());
+		assertFalse(report.isTruncated());
+
+	}
+
+	@Test
+	void keepsOnlyTheEnabledRules() throws Exception {
+
+		Path plain = TestDocuments.write(directory, "project.xml", project(3));
+
+		StreamingValidator validator = validator(plain, ErrorBudget.unlimited());
+
+		validator.setRules(new RuleSet(RuleSet.RELEASE + ",-" + Rules.VARIABLE_TYPE));
+
+		assertEquals(0, validator.validate().getErrorCount());
+
+	}
+
+	private StreamingValidator validator(Path file, ErrorBudget budget) throws IOException {
+
+		StreamingValidator validator = new StreamingValidator(file.toFile(), TestDocuments.write(directory, "schema.xsd", TestDocuments.ANY_PROJECT_SCHEMA).toFile());
+
+		validator.setBudget(budget);
+
+		return validator;
+
+	}
+
+	private static String project(int pous) {
+
+		return TestDocuments.text("", TestDocuments.brokenPous(pous));
+
+	}
+
+	private static List<String> describe(ValidationReport report) {
+
+		List<String> lines = new ArrayList<String>();
+
+		for (Diagnostic diagnostic : report.getDiagnostics()) {
+
+			lines.add(diagnostic.getRuleId() + " " + diagnostic.getPath() + " " + diagnostic.getMessage());
+
+		}
+
+		return lines;
+
+	}
+
+}
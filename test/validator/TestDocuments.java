@@ -0,0 +1,171 @@
+package validator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Builds the small documents and projects the tests run on.
+ */
+class TestDocuments {
+
+	// Accepts any project document; the tests check the semantic rules, not the PLCopen schema.
+	static final String ANY_PROJECT_SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+			+ "<xs:element name=\"project\"><xs:complexType><xs:sequence>"
+			+ "<xs:any processContents=\"skip\" minOccurs=\"0\" maxOccurs=\"unbounded\"/>"
+			+ "</xs:sequence></xs:complexType></xs:element></xs:schema>";
+
+	/**
+	 * Parse a document from text.
+	 *
+	 * @param xml
+	 * @return
+	 */
+	static Document parse(String xml) {
+
+		try {
+
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+			factory.setNamespaceAware(true);
+
+			return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+
+		} catch (Exception e) {
+
+			throw new IllegalArgumentException(e);
+
+		}
+
+	}
+
+	/**
+	 * Parse a project whose types element holds the given data types and pous.
+	 *
+	 * @param data_types the dataType elements.
+	 * @param pous the pou elements.
+	 * @return an initialized project.
+	 */
+	static Project project(String data_types, String pous) {
+
+		Project project = new Project();
+
+		project.setDom(parse(text(data_types, pous)));
+
+		project.init();
+
+		return project;
+
+	}
+
+	/**
+	 * The text of a project whose types element holds the given data types and pous.
+	 *
+	 * @param data_types
+	 * @param pous
+	 * @return
+	 */
+	static String text(String data_types, String pous) {
+
+		return "<project><contentHeader name=\"Test\"/><types><dataTypes>" + data_types + "</dataTypes><pous>" + pous + "</pous></types><instances/></project>";
+
+	}
+
+	/**
+	 * Pous P1, P2 and so on, with one error each: a variable of an unknown type.
+	 *
+	 * @param count
+	 * @return
+	 */
+	static String brokenPous(int count) {
+
+		StringBuilder pous = new StringBuilder();
+
+		for (int i = 1; i <= count; i++) {
+
+			pous.append("<pou name=\"P" + i + "\" pouType=\"program\"><interface><localVars>"
+					+ "<variable name=\"v\"><type><derived name=\"Missing\"/></type></variable>"
+					+ "</localVars></interface></pou>");
+
+		}
+
+		return pous.toString();
+
+	}
+
+	/**
+	 * Write a file.
+	 *
+	 * @param directory
+	 * @param name
+	 * @param content
+	 * @return the file.
+	 * @throws IOException
+	 */
+	static Path write(Path directory, String name, String content) throws IOException {
+
+		return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+
+	}
+
+	/**
+	 * Get the elements with the given tag name, in document order.
+	 *
+	 * @param document
+	 * @param tag_name
+	 * @return
+	 */
+	static List<Element> elements(Document document, String tag_name) {
+
+		NodeList nodes = document.getElementsByTagName(tag_name);
+
+		List<Element> elements = new ArrayList<Element>();
+
+		for (int i = 0; i < nodes.getLength(); i++) {
+
+			elements.add((Element) nodes.item(i));
+
+		}
+
+		return elements;
+
+	}
+
+	/**
+	 * A data type deriving from another.
+	 *
+	 * @param name
+	 * @param base_type
+	 * @return
+	 */
+	static String derived(String name, String base_type) {
+
+		return "<dataType name=\"" + name + "\"><baseType><derived name=\"" + base_type + "\"/></baseType></dataType>";
+
+	}
+
+	/**
+	 * A data type with an elementary base type.
+	 *
+	 * @param name
+	 * @param elementary
+	 * @return
+	 */
+	static String elementary(String name, String elementary) {
+
+		return "<dataType name=\"" + name + "\"><baseType><" + elementary + "/></baseType></dataType>";
+
+	}
+
+}
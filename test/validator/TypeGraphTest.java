@@ -0,0 +1,153 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+class TypeGraphTest {
+
+	@Test
+	void resolvesChainsToTheirElementaryType() {
+
+		TypeGraph types = graph(TestDocuments.derived("A", "B"), TestDocuments.derived("B", "C"), TestDocuments.elementary("C", "DINT"), TestDocuments.derived("E", "MISSING"));
+
+		assertEquals("DINT", types.getBaseType("a"));
+		assertEquals("DINT", types.getBaseType("B"));
+		assertNull(types.getCycle("A"));
+
+		// A chain into a name that is not a data type ends in no elementary type.
+		assertEquals("", types.getBaseType("E"));
+
+		// Names that are not user types come back upper case.
+		assertEquals("INT", types.getBaseType("int"));
+		assertEquals("FOO", types.getBaseType(" foo"));
+
+	}
+
+	@Test
+	void marksEveryTypeOnACycle() {
+
+		TypeGraph types = graph(TestDocuments.derived("A", "B"), TestDocuments.derived("B", "C"), TestDocuments.derived("C", "A"), TestDocuments.derived("D", "A"),
+				TestDocuments.derived("S", "S"));
+
+		// The cycle starts wherever the walk entered it, and is the same for all its types.
+		String cycle = types.getCycle("A");
+
+		assertTrue(cycle.equals("A -> B -> C -> A") || cycle.equals("B -> C -> A -> B") || cycle.equals("C -> A -> B -> C"), cycle);
+		assertEquals(cycle, types.getCycle("B"));
+		assertEquals(cycle, types.getCycle("c"));
+		assertEquals("", types.getBaseType("A"));
+
+		// D leads into the cycle without being on it.
+		assertNull(types.getCycle("D"));
+		assertEquals("", types.getBaseType("D"));
+
+		assertEquals("S -> S", types.getCycle("S"));
+
+	}
+
+	@Test
+	void resolvesAgainAfterARename() {
+
+		Document document = TestDocuments.parse("<dataTypes>" + TestDocuments.derived("A", "B") + TestDocuments.elementary("B", "INT") + "</dataTypes>");
+
+		List<Element> data_types = TestDocuments.elements(document, "dataType");
+
+		TypeGraph types = new TypeGraph(data_types, null);
+
+		assertEquals("INT", types.getBaseType("A"));
+
+		// Rename B to C: the declaration is removed by its old name, after its attribute changed.
+		Element b = data_types.get(1);
+
+		b.setAttribute("name", "C");
+
+		types.remove("B", b);
+
+		types.add(b);
+
+		assertFalse(types.isUserType("B"));
+		assertTrue(types.isUserType("C"));
+		assertEquals("", types.getBaseType("A"));
+
+		// Point A at the new name.
+		types.remove("A", data_types.get(0));
+
+		((Element) data_types.get(0).getElementsByTagName("derived").item(0)).setAttribute("name", "C");
+
+		types.add(data_types.get(0));
+
+		assertEquals("INT", types.getBaseType("A"));
+
+	}
+
+	@Test
+	void breaksACycleWhenATypeChanges() {
+
+		Document document = TestDocuments.parse("<dataTypes>" + TestDocuments.derived("A", "B") + TestDocuments.derived("B", "A") + "</dataTypes>");
+
+		List<Element> data_types = TestDocuments.elements(document, "dataType");
+
+		TypeGraph types = new TypeGraph(data_types, null);
+
+		assertTrue(types.getCycle("A").contains("B"));
+
+		// Replace B by a declaration with an elementary base type.
+		types.remove("B", data_types.get(1));
+
+		types.add((Element) document.importNode(TestDocuments.parse(TestDocuments.elementary("B", "REAL")).getDocumentElement(), true));
+
+		assertNull(types.getCycle("A"));
+		assertEquals("REAL", types.getBaseType("A"));
+
+	}
+
+	@Test
+	void findsTheMembersOfStructsAndStandardFunctionBlocks() {
+
+		TypeGraph types = graph("<dataType name=\"S\"><baseType><struct>"
+				+ "<variable name=\"count\"><type><INT/></type></variable>"
+				+ "<variable name=\"timer\"><type><derived name=\"TON\"/></type></variable>"
+				+ "</struct></baseType></dataType>", TestDocuments.derived("D", "S"));
+
+		assertTrue(types.isStructType("d"));
+		assertEquals("INT", types.getMemberType("D", "COUNT"));
+		assertEquals("TON", types.getMemberType("S", "timer"));
+		assertNull(types.getMemberType("S", "missing"));
+
+		assertEquals("TIME", types.getMemberType("TON", "pt"));
+		assertEquals("DINT", types.getMemberType("CTU_DINT", "PV"));
+		assertNull(types.getMemberType("INT", "X"));
+
+	}
+
+	@Test
+	void refusesChangesOnceFrozen() {
+
+		Document document = TestDocuments.parse("<dataTypes>" + TestDocuments.elementary("A", "INT") + "</dataTypes>");
+
+		TypeGraph types = new TypeGraph(TestDocuments.elements(document, "dataType"), null);
+
+		types.freeze();
+
+		assertThrows(IllegalStateException.class, () -> types.add(document.getDocumentElement()));
+
+	}
+
+	private static TypeGraph graph(String... data_types) {
+
+		Document document = TestDocuments.parse("<dataTypes>" + String.join("", data_types) + "</dataTypes>");
+
+		return new TypeGraph(TestDocuments.elements(document, "dataType"), null);
+
+	}
+
+}
@@ -0,0 +1,216 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+class ValidationCacheTest {
+
+	private static final String POU = "<pou name=\"P\" pouType=\"program\"><interface><localVars>"
+			+ "<variable name=\"a\"><type><INT/></type></variable>"
+			+ "<variable name=\"b\"><type><BOOL/></type></variable>"
+			+ "</localVars></interface></pou>";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntry() throws IOException {
+
+		ValidationCache cache = new ValidationCache(directory, "schema", 2);
+
+		Element pou = pou(POU);
+
+		cache.store("one", "/pou[1]", Collections.<Diagnostic>emptyList());
+
+		cache.store("two", "/pou[1]", Collections.<Diagnostic>emptyList());
+
+		// Using "one" makes "two" the eldest.
+		assertTrue(cache.replay("one", pou, new DiagnosticCollector()));
+
+		cache.store("three", "/pou[1]", Collections.<Diagnostic>emptyList());
+
+		assertFalse(cache.replay("two", pou, new DiagnosticCollector()));
+		assertTrue(cache.replay("one", pou, new DiagnosticCollector()));
+		assertTrue(cache.replay("three", pou, new DiagnosticCollector()));
+
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+	}
+
+	@Test
+	void replaysDiagnosticsOnTheMatchingElementOfAnotherTree() throws IOException {
+
+		ValidationCache cache = new ValidationCache(directory, "schema", 10);
+
+		Element first = pou(POU);
+
+		Element second_variable = TestDocuments.elements(first.getOwnerDocument(), "variable").get(1);
+
+		DiagnosticCollector produced = new DiagnosticCollector();
+
+		produced.error(Rules.VARIABLE_NAME, second_variable, "Bad name.");
+
+		cache.store("key", produced.getPath(first), produced.getDiagnostics());
+
+		// The same subtree in another document, one pou further down.
+		Document other = TestDocuments.parse("<pous><pou name=\"Q\"/>" + POU + "</pous>");
+
+		Element second = TestDocuments.elements(other, "pou").get(1);
+
+		DiagnosticCollector replayed = new DiagnosticCollector();
+
+		assertTrue(cache.replay("key", second, replayed));
+
+		Diagnostic diagnostic = replayed.getDiagnostics().get(0);
+
+		assertSame(TestDocuments.elements(other, "variable").get(1), diagnostic.getElement());
+		assertEquals("/pous[1]/pou[2]/interface[1]/localVars[1]/variable[2]", diagnostic.getPath());
+		assertEquals(Rules.VARIABLE_NAME, diagnostic.getRuleId());
+		assertEquals("Bad name.", diagnostic.getMessage());
+
+	}
+
+	@Test
+	void keepsEntriesAcrossRunsOfTheSameSchema() throws IOException {
+
+		ValidationCache cache = new ValidationCache(directory, "schema", 10);
+
+		cache.store("key", "/pou[1]", Collections.<Diagnostic>emptyList());
+
+		cache.save();
+
+		assertTrue(new ValidationCache(directory, "schema", 10).replay("key", pou(POU), new DiagnosticCollector()));
+
+		assertFalse(new ValidationCache(directory, "other schema", 10).replay("key", pou(POU), new DiagnosticCollector()));
+
+	}
+
+	@Test
+	void keysBySha256OfTheContentAndTheRules() throws IOException {
+
+		ValidationCache cache = new ValidationCache(directory, "schema", 10);
+
+		Project project = TestDocuments.project("", POU + POU.replace("name=\"P\"", "name=\"R\"").replace("name=\"b\"", "name=\"c\""));
+
+		ValidationContext context = new ValidationContext(project);
+
+		List<Element> pous = TestDocuments.elements(project.getDom(), "pou");
+
+		String key = cache.key(context, pous.get(0));
+
+		assertTrue(key.matches("[0-9a-f]{64}"), key);
+		assertEquals(key, cache.key(context, pous.get(0)));
+		assertNotEquals(key, cache.key(context, pous.get(1)));
+
+		context.setRules(new RuleSet(RuleSet.PRE_COMMIT));
+
+		assertNotEquals(key, cache.key(context, pous.get(0)));
+
+	}
+
+	@Test
+	void checksAPouAgainWhenAStructItUsesChanges() throws IOException {
+
+		String struct = "<dataType name=\"S\"><baseType><struct>"
+				+ "<variable name=\"m\"><type><derived name=\"Inner\"/></type></variable>"
+				+ "</struct></baseType></dataType>";
+
+		String inner = "<dataType name=\"Inner\"><baseType><struct>"
+				+ "<variable name=\"x\"><type><INT/></type></variable>"
+				+ "</struct></baseType></dataType>";
+
+		String pou = "<pou name=\"P\" pouType=\"program\"><interface><localVars>"
+				+ "<variable name=\"v\"><type><derived name=\"S\"/></type><initialValue><structValue>"
+				+ "<value member=\"m\"><structValue><value member=\"x\"><simpleValue value=\"1\"/></value></structValue></value>"
+				+ "</structValue></initialValue></variable>"
+				+ "</localVars></interface></pou>";
+
+		Project project = TestDocuments.project(struct + inner, pou);
+
+		ValidationContext context = new ValidationContext(project);
+
+		context.setCache(new ValidationCache(directory, "schema", 10));
+
+		Element element = TestDocuments.elements(project.getDom(), "pou").get(0);
+
+		int[] checks = new int[1];
+
+		Runnable check = () -> checks[0]++;
+
+		ValidationCache.run(context, element, new DiagnosticCollector(), check);
+
+		ValidationCache.run(context, element, new DiagnosticCollector(), check);
+
+		assertEquals(1, checks[0]);
+
+		// A member of a nested struct the pou doesn't name changes its type.
+		Element inner_type = TestDocuments.elements(project.getDom(), "dataType").get(1);
+
+		Element x = TestDocuments.elements(project.getDom(), "INT").get(0);
+
+		x.getParentNode().replaceChild(project.getDom().createElement("REAL"), x);
+
+		context.getTypes().remove("Inner", inner_type);
+
+		context.getTypes().add(inner_type);
+
+		ValidationCache.run(context, element, new DiagnosticCollector(), check);
+
+		assertEquals(2, checks[0]);
+
+		// The struct's member is renamed.
+		TestDocuments.elements(project.getDom(), "variable").get(0).setAttribute("name", "n");
+
+		Element struct_type = TestDocuments.elements(project.getDom(), "dataType").get(0);
+
+		context.getTypes().remove("S", struct_type);
+
+		context.getTypes().add(struct_type);
+
+		ValidationCache.run(context, element, new DiagnosticCollector(), check);
+
+		assertEquals(3, checks[0]);
+
+		// The struct becomes an array.
+		Element base_type = TestDocuments.elements(project.getDom(), "baseType").get(0);
+
+		base_type.replaceChild(project.getDom().createElement("array"), base_type.getFirstChild());
+
+		context.getTypes().remove("S", struct_type);
+
+		context.getTypes().add(struct_type);
+
+		String array_key = context.getCache().key(context, element);
+
+		ValidationCache.run(context, element, new DiagnosticCollector(), check);
+
+		assertEquals(4, checks[0]);
+
+		ValidationCache.run(context, element, new DiagnosticCollector(), check);
+
+		assertEquals(4, checks[0]);
+		assertEquals(array_key, context.getCache().key(context, element));
+
+	}
+
+	private static Element pou(String pou) {
+
+		return TestDocuments.parse(pou).getDocumentElement();
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class WordTableTest {
+
+	@Test
+	void findsWordsIgnoringAsciiCase() {
+
+		assertEquals("INT", IECWords.ELEMENTARY_TYPES.get("int"));
+		assertEquals("TIME_OF_DAY", IECWords.ELEMENTARY_TYPES.get("Time_Of_Day"));
+		assertTrue(IECWords.KEYWORDS.contains("End_Function_Block"));
+		assertTrue(IECWords.STANDARD_FUNCTION_BLOCKS.contains("ton"));
+		assertTrue(IECWords.STANDARD_POUS.contains("int_to_real"));
+
+	}
+
+	@Test
+	void rejectsWordsThatAreNotInTheTable() {
+
+		for (String name : new String[] { "", "INTEGER", "IN", "TON_", " INT", "EN", "ENO", "Main" }) {
+
+			assertFalse(IECWords.KEYWORDS.contains(name), name);
+
+		}
+
+		// Not conversions of IEC 61131-3.
+		for (String name : new String[] { "TOD_TO_TIME_OF_DAY", "DATE_AND_TIME_TO_DT", "BOOL_TO_DATE", "USINT_TO_BCD_LWORD" }) {
+
+			assertFalse(IECWords.STANDARD_POUS.contains(name), name);
+
+		}
+
+	}
+
+	@Test
+	void matchesTheLookupsTheTablesReplace() {
+
+		assertEquals(Collections.emptyList(), WordTableGenerator.check_upstream(CommonLexer::isKeyword, IECUtilities::isAnyElementary,
+				IECUtilities::isStandardPouName, IECUtilities::isStandardFunctionBlockName));
+
+	}
+
+	@Test
+	void findsEveryWordOfAGeneratedTable() {
+
+		List<String> words = Arrays.asList("ALPHA", "BETA", "GAMMA", "DELTA", "EPSILON", "ZETA", "ETA", "THETA", "IOTA", "KAPPA");
+
+		int[] seeds = new int[words.size() / 4];
+
+		WordTable table = new WordTable(WordTableGenerator.build(words, seeds), seeds);
+
+		assertEquals(words.size(), table.size());
+
+		for (String word : words) {
+
+			assertSame(word, table.get(word.toLowerCase()));
+
+		}
+
+		assertNull(table.get("OMEGA"));
+
+	}
+
+	@Test
+	void looksUpNamesWithoutNormalizingThem() {
+
+		NameMap<Integer> names = new NameMap<Integer>(2);
+
+		for (int i = 0; i < 100; i++) {
+
+			names.put(" Name_" + i, i);
+
+		}
+
+		assertEquals(100, names.size());
+		assertEquals(7, names.get("NAME_7"));
+		assertEquals(7, names.get("name_7\t"));
+		assertNull(names.get("NAME_100"));
+
+		assertEquals(7, names.put("name_7", 70));
+		assertEquals(70, names.remove("NAME_7 "));
+		assertFalse(names.containsKey("Name_7"));
+		assertEquals(99, names.size());
+
+		assertEquals("ABC", NameMap.key(" aBc "));
+
+	}
+
+}